@@ -0,0 +1,109 @@
+package com.leantass.encoder.benchmark;
+
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.leantass.encoder.ParamEncoder;
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+
+/**
+ * Builds the parameters and rules used by the benchmarks. The data is generated from a fixed
+ * seed so every run encodes the same payload.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+final class BenchmarkData {
+
+  static final int INTEGER_WIDTH = 4;
+  static final int STRING_WIDTH = 8;
+  static final int STRING_LENGTH = 16;
+  private static final long SEED = 42L;
+  private static final char[] ALPHABET =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Specifies the kind of values a benchmark payload is made of.
+   */
+  enum Payload {
+    INTEGER,
+    STRING,
+    MIXED
+  }
+
+  /**
+   * Creates a new random generator with the fixed seed.
+   *
+   * @return a new {@link Random} instance
+   */
+  static Random random() {
+    return new Random(SEED);
+  }
+
+  /**
+   * Builds a collection of parameters and registers the rules of a percentage of them.
+   *
+   * @param encoder      the encoder where the rules will be registered
+   * @param fields       the number of parameters
+   * @param payload      the kind of values of the parameters
+   * @param ruledPercent the percentage of parameters that have a rule
+   * @return the parameters to be encoded
+   */
+  static SortedMap<String, Object> parameters(ParamEncoder encoder, int fields, Payload payload,
+                                              int ruledPercent) {
+    Random random = random();
+    SortedMap<String, Object> data = new TreeMap<>();
+    for (int i = 0; i < fields; i++) {
+      String name = String.format("field%04d", i);
+      boolean integer = payload == Payload.INTEGER || (payload == Payload.MIXED && i % 2 == 0);
+      if (integer) {
+        data.put(name, random.nextInt());
+      } else {
+        data.put(name, string(random, STRING_LENGTH));
+      }
+      if (i * 100 < fields * ruledPercent) {
+        if (integer) {
+          encoder.addFieldTruncationRule(name, TruncationStyle.INTEGER, INTEGER_WIDTH);
+        } else {
+          encoder.addFieldTruncationRule(name,
+              i % 3 == 0 ? TruncationStyle.STRING_LEFT : TruncationStyle.STRING_RIGHT,
+              STRING_WIDTH);
+        }
+      }
+    }
+    return data;
+  }
+
+  /**
+   * Builds an array of random strings.
+   *
+   * @param random   the random generator
+   * @param elements the number of elements of the array
+   * @return a new array of random strings
+   */
+  static String[] strings(Random random, int elements) {
+    String[] array = new String[elements];
+    for (int i = 0; i < elements; i++) {
+      array[i] = string(random, 1 + random.nextInt(STRING_LENGTH));
+    }
+    return array;
+  }
+
+  /**
+   * Builds a random string.
+   *
+   * @param random the random generator
+   * @param length the length of the string
+   * @return a new random string
+   */
+  static String string(Random random, int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,36 @@
+package com.leantass.encoder.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the encoder benchmarks reporting both the throughput and the allocation rate, through the
+ * {@link GCProfiler}. It accepts the usual JMH command line options, for example a regular
+ * expression to select the benchmarks to run. Build and run it with:
+ *
+ * <pre>
+ *   mvn install
+ *   mvn -f benchmarks/pom.xml package
+ *   java -jar benchmarks/target/benchmarks.jar [ParamEncoderBenchmark]
+ * </pre>
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,94 @@
+package com.leantass.encoder.benchmark;
+
+import java.io.IOException;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import com.leantass.encoder.CompiledParamEncoder;
+import com.leantass.encoder.ParamEncoder;
+import com.leantass.encoder.ParamEncoderArray;
+import com.leantass.encoder.ParamEncoderImpl;
+import com.leantass.encoder.ParamEncoderObject;
+import com.leantass.encoder.benchmark.BenchmarkData.Payload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the encoder generated by {@link ParamEncoderImpl#generate()} against the
+ * interpreting {@link ParamEncoderImpl} and its {@link CompiledParamEncoder}, for the same rules
+ * and parameters, with the fields without a rule either verified or ignored.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratedParamEncoderBenchmark {
+
+  @Param({"10", "200"})
+  private int fields;
+  @Param({"INTEGER", "STRING", "MIXED"})
+  private String payload;
+  @Param({"100", "10"})
+  private int ruledPercent;
+  @Param({"false", "true"})
+  private boolean ruleDriven;
+  private ParamEncoderImpl encoder;
+  private CompiledParamEncoder compiled;
+  private ParamEncoder generated;
+  private SortedMap<String, Object> data;
+  private StringBuilder sink;
+
+  @Setup
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    encoder = new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    data = BenchmarkData.parameters(encoder, fields, Payload.valueOf(payload),
+        ruledPercent);
+    encoder.setRuleDriven(ruleDriven);
+    compiled = encoder.compile();
+    generated = encoder.generate();
+    sink = new StringBuilder();
+  }
+
+  @Benchmark
+  public String interpretedEncode() {
+    return encoder.encode(data);
+  }
+
+  @Benchmark
+  public String compiledEncode() {
+    return compiled.encode(data);
+  }
+
+  @Benchmark
+  public String generatedEncode() {
+    return generated.encode(data);
+  }
+
+  @Benchmark
+  public int compiledEncodeTo() throws IOException {
+    sink.setLength(0);
+    compiled.encodeTo(data, sink);
+    return sink.length();
+  }
+
+  @Benchmark
+  public int generatedEncodeTo() throws IOException {
+    sink.setLength(0);
+    generated.encodeTo(data, sink);
+    return sink.length();
+  }
+}
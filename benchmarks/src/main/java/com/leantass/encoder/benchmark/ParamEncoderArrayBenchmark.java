@@ -0,0 +1,69 @@
+package com.leantass.encoder.benchmark;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Maps;
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+import com.leantass.encoder.ParamEncoderArray;
+import com.leantass.encoder.ParamEncoderObject;
+import com.leantass.encoder.RuleEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link ParamEncoderArray} over short arrays that fit in the maximum array width
+ * and long arrays that hit it.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParamEncoderArrayBenchmark {
+
+  private static final int MAX_ARRAY_WIDTH = 200;
+  @Param({"8", "1000"})
+  private int elements;
+  @Param({"STRING_LEFT", "STRING_RIGHT"})
+  private TruncationStyle style;
+  private ParamEncoderArray encoder;
+  private RuleEncoder rule;
+  private Entry<String, Object> entry;
+  private StringBuilder sink;
+
+  @Setup
+  public void setUp() {
+    encoder = new ParamEncoderArray(new ParamEncoderObject());
+    rule = RuleEncoder.Builder.builder(style).width(BenchmarkData.STRING_WIDTH)
+        .arrayWidth(MAX_ARRAY_WIDTH).build();
+    entry = Maps.immutableEntry("array",
+        (Object) BenchmarkData.strings(BenchmarkData.random(), elements));
+    sink = new StringBuilder();
+  }
+
+  @Benchmark
+  public String encode() {
+    return encoder.encode(entry, rule);
+  }
+
+  @Benchmark
+  public int encodeTo() throws IOException {
+    sink.setLength(0);
+    encoder.encodeTo(entry, rule, sink);
+    return sink.length();
+  }
+}
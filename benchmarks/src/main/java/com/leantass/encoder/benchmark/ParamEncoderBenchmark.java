@@ -0,0 +1,84 @@
+package com.leantass.encoder.benchmark;
+
+import java.io.IOException;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import com.leantass.encoder.CompiledParamEncoder;
+import com.leantass.encoder.ParamEncoderArray;
+import com.leantass.encoder.ParamEncoderImpl;
+import com.leantass.encoder.ParamEncoderObject;
+import com.leantass.encoder.benchmark.BenchmarkData.Payload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link ParamEncoderImpl#encode(SortedMap)} over small and large collections of
+ * integer-heavy, string-heavy and mixed parameters, where all or only a few of the parameters
+ * have a rule. The compiled encoding is also measured with a buffer sized by measuring the exact
+ * length first, against the default buffer sized by the worst-case length up to a limit.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParamEncoderBenchmark {
+
+  @Param({"10", "200"})
+  private int fields;
+  @Param({"INTEGER", "STRING", "MIXED"})
+  private String payload;
+  @Param({"100", "10"})
+  private int ruledPercent;
+  private ParamEncoderImpl encoder;
+  private CompiledParamEncoder compiled;
+  private SortedMap<String, Object> data;
+  private StringBuilder sink;
+
+  @Setup
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    encoder = new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    data = BenchmarkData.parameters(encoder, fields, Payload.valueOf(payload),
+        ruledPercent);
+    compiled = encoder.compile();
+    sink = new StringBuilder();
+  }
+
+  @Benchmark
+  public String encode() {
+    return encoder.encode(data);
+  }
+
+  @Benchmark
+  public int encodeTo() throws IOException {
+    sink.setLength(0);
+    encoder.encodeTo(data, sink);
+    return sink.length();
+  }
+
+  @Benchmark
+  public String compiledEncode() {
+    return compiled.encode(data);
+  }
+
+  @Benchmark
+  public String compiledEncodeMeasured() throws IOException {
+    StringBuilder resultString = new StringBuilder(compiled.encodedLength(data));
+    compiled.encodeTo(data, resultString);
+    return resultString.toString();
+  }
+}
@@ -0,0 +1,92 @@
+package com.leantass.encoder.benchmark;
+
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Maps;
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+import com.leantass.encoder.ParamEncoderObject;
+import com.leantass.encoder.RuleEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link ParamEncoderObject} for integers, through both the entry and the
+ * primitive paths, and for strings in both truncation styles.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParamEncoderObjectBenchmark {
+
+  private static final int VALUES = 1024;
+  private final ParamEncoderObject encoder = new ParamEncoderObject();
+  private final char[] buffer = new char[BenchmarkData.INTEGER_WIDTH];
+  private RuleEncoder integerRule;
+  private RuleEncoder leftRule;
+  private RuleEncoder rightRule;
+  private int[] integers;
+  private Entry<String, Object>[] integerEntries;
+  private Entry<String, Object>[] stringEntries;
+  private int index;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    integerRule = RuleEncoder.Builder.builder(TruncationStyle.INTEGER)
+        .width(BenchmarkData.INTEGER_WIDTH).build();
+    leftRule = RuleEncoder.Builder.builder(TruncationStyle.STRING_LEFT)
+        .width(BenchmarkData.STRING_WIDTH).build();
+    rightRule = RuleEncoder.Builder.builder(TruncationStyle.STRING_RIGHT)
+        .width(BenchmarkData.STRING_WIDTH).build();
+    Random random = BenchmarkData.random();
+    integers = new int[VALUES];
+    integerEntries = new Entry[VALUES];
+    stringEntries = new Entry[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      integers[i] = random.nextInt(200000) - 100000;
+      integerEntries[i] = Maps.immutableEntry("int", (Object) integers[i]);
+      stringEntries[i] = Maps.immutableEntry("string",
+          (Object) BenchmarkData.string(random, BenchmarkData.STRING_LENGTH));
+    }
+  }
+
+  @Benchmark
+  public String encodeInteger() {
+    return encoder.encode(integerEntries[next()], integerRule);
+  }
+
+  @Benchmark
+  public int encodeIntegerToBuffer() {
+    return encoder.encodeInteger(integers[next()], integerRule, buffer, 0);
+  }
+
+  @Benchmark
+  public String encodeStringLeft() {
+    return encoder.encode(stringEntries[next()], leftRule);
+  }
+
+  @Benchmark
+  public String encodeStringRight() {
+    return encoder.encode(stringEntries[next()], rightRule);
+  }
+
+  private int next() {
+    index = (index + 1) & (VALUES - 1);
+    return index;
+  }
+}
@@ -0,0 +1,117 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Specifies the behavior to encode large batches of parameters in parallel. The batch is split
+ * into ranges that are encoded by the workers of a {@link ForkJoinPool}, each worker reusing its
+ * own scratch buffer for every collection of parameters it encodes. The encoded strings are
+ * returned in the same order as the given parameters.
+ *
+ * <p>The given {@link ParamEncoder} is shared by all the workers, so it should be safe for
+ * concurrent use, such as a {@link CompiledParamEncoder} or a {@link ConcurrentParamEncoder}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class BatchParamEncoder {
+
+  private static final int MIN_RANGE = 16;
+  private static final int RANGES_PER_WORKER = 8;
+  private static final int INITIAL_CAPACITY = 256;
+  private static final ThreadLocal<StringBuilder> SCRATCH = new ThreadLocal<StringBuilder>() {
+    @Override
+    protected StringBuilder initialValue() {
+      return new StringBuilder(INITIAL_CAPACITY);
+    }
+  };
+  private final ParamEncoder paramEncoder;
+  private final ForkJoinPool pool;
+
+  /**
+   * Create a new instance of {@code BatchParamEncoder}.
+   *
+   * @param paramEncoder specifies the thread-safe encoder used to encode each collection of
+   *                     parameters
+   * @param pool         specifies the pool whose workers will encode the batch
+   */
+  @Inject
+  public BatchParamEncoder(ParamEncoder paramEncoder, ForkJoinPool pool) {
+    this.paramEncoder = checkNotNull(paramEncoder, "ParamEncoder is missing.");
+    this.pool = checkNotNull(pool, "ForkJoinPool is missing.");
+  }
+
+  /**
+   * Performs the encoding of a batch of {@link SortedMap} collections in parallel.
+   *
+   * @param batch the collections of parameters that will be encoded
+   * @return an unmodifiable list with the encoded {@link String} of each collection, in the same
+   * order as the given batch
+   */
+  public List<String> encodeAll(List<? extends SortedMap<String, Object>> batch) {
+    checkNotNull(batch, "Batch is missing.");
+    String[] results = new String[batch.size()];
+    if (!batch.isEmpty()) {
+      int rangeSize = Math.max(MIN_RANGE,
+          batch.size() / (pool.getParallelism() * RANGES_PER_WORKER));
+      pool.invoke(new EncodeRange(batch, results, 0, batch.size(), rangeSize));
+    }
+    return Collections.unmodifiableList(Arrays.asList(results));
+  }
+
+  /**
+   * Encode a range of the batch, splitting it in halves until it is small enough.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  private final class EncodeRange extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final List<? extends SortedMap<String, Object>> batch;
+    private final String[] results;
+    private final int from;
+    private final int to;
+    private final int rangeSize;
+
+    private EncodeRange(List<? extends SortedMap<String, Object>> batch, String[] results,
+                        int from, int to, int rangeSize) {
+      this.batch = batch;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+      this.rangeSize = rangeSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= rangeSize) {
+        encodeRange();
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(new EncodeRange(batch, results, from, middle, rangeSize),
+            new EncodeRange(batch, results, middle, to, rangeSize));
+      }
+    }
+
+    private void encodeRange() {
+      StringBuilder scratch = SCRATCH.get();
+      for (int i = from; i < to; i++) {
+        scratch.setLength(0);
+        try {
+          paramEncoder.encodeTo(batch.get(i), scratch);
+        } catch (IOException e) {
+          throw new AssertionError(e);
+        }
+        results[i] = scratch.toString();
+      }
+    }
+  }
+}
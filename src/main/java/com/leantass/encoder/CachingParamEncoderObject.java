@@ -0,0 +1,161 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.Map.Entry;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Specifies an object encoder that caches the encoded form of repeated values. Each
+ * {@link RuleEncoder} gets its own bounded cache, keyed by value, so the same value encoded with
+ * the same rule returns the same {@link String} instance instead of computing and allocating it
+ * again. The caches are configured with a {@link CacheBuilderSpec}, for instance
+ * {@code "maximumSize=1000"} or {@code "maximumSize=1000,expireAfterAccess=10m"}, and always
+ * record hit and miss statistics.
+ *
+ * <p>It can be used anywhere a {@link ParamEncoderObject} is expected, for instance to create a
+ * {@link ParamEncoderImpl} and its {@link ParamEncoderArray}. Every value is cached along with its
+ * width, so the values written into a sink and the elements of string arrays are cached as well
+ * as the values encoded as a {@link String}. Writing a value measures it first, so it makes two
+ * lookups. Compiled and generated encoders encode every field by themselves and do not use it.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class CachingParamEncoderObject extends ParamEncoderObject {
+
+  private static final CacheStats EMPTY_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+  private final LoadingCache<RuleEncoder, Cache<Object, Encoded>> caches;
+
+  /**
+   * Create a new instance of {@code CachingParamEncoderObject}.
+   *
+   * @param spec specifies the configuration of the cache of each rule
+   */
+  @Inject
+  public CachingParamEncoderObject(final CacheBuilderSpec spec) {
+    checkNotNull(spec, "CacheBuilderSpec is missing.");
+    this.caches = CacheBuilder.newBuilder().build(
+        new CacheLoader<RuleEncoder, Cache<Object, Encoded>>() {
+          @Override
+          public Cache<Object, Encoded> load(RuleEncoder rule) {
+            return CacheBuilder.from(spec).recordStats().build();
+          }
+        });
+  }
+
+  /**
+   * Create a new instance of {@code CachingParamEncoderObject} whose caches evict the least
+   * recently used values once they hold the given number of values.
+   *
+   * @param maximumSize specifies the maximum number of values cached for each rule
+   */
+  public CachingParamEncoderObject(long maximumSize) {
+    this(CacheBuilderSpec.parse("maximumSize=" + maximumSize));
+  }
+
+  @Override
+  public String encode(Entry<String, Object> entry, @Nullable RuleEncoder rule) {
+    checkNotNull(entry, "Entry is missing.");
+    Object value = entry.getValue();
+    if (rule == null || !isScalar(value)) {
+      return super.encode(entry, rule);
+    }
+    return encoded(value, rule).value;
+  }
+
+  @Override
+  int encodedLength(Object value, RuleEncoder rule) {
+    return encoded(value, rule).length;
+  }
+
+  @Override
+  void appendValue(Object value, RuleEncoder rule, Appendable out) throws IOException {
+    out.append(encoded(value, rule).value);
+  }
+
+  /**
+   * Provides the statistics of the cache of a given rule.
+   *
+   * @param rule specifies the rule whose statistics will be provided
+   * @return the statistics of the cache of the rule, empty if the rule was never used
+   */
+  public CacheStats stats(RuleEncoder rule) {
+    checkNotNull(rule, "Rule is missing.");
+    Cache<Object, Encoded> cache = caches.getIfPresent(rule);
+    return cache == null ? EMPTY_STATS : cache.stats();
+  }
+
+  /**
+   * Provides the statistics of the caches of all the rules together.
+   *
+   * @return the sum of the statistics of every cache
+   */
+  public CacheStats stats() {
+    CacheStats stats = EMPTY_STATS;
+    for (Cache<Object, Encoded> cache : caches.asMap().values()) {
+      stats = stats.plus(cache.stats());
+    }
+    return stats;
+  }
+
+  /**
+   * Discards every cached value of every rule.
+   */
+  public void invalidateAll() {
+    caches.invalidateAll();
+  }
+
+  /**
+   * Provides the encoding of a value with a given rule, encoding and caching it the first time.
+   *
+   * @param value specifies the value to be encoded
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @return the cached encoding of the value
+   */
+  private Encoded encoded(Object value, RuleEncoder rule) {
+    Cache<Object, Encoded> cache = caches.getUnchecked(rule);
+    Encoded encoded = cache.getIfPresent(value);
+    if (encoded == null) {
+      StringBuilder resultString = new StringBuilder();
+      try {
+        super.appendValue(value, rule, resultString);
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+      encoded = new Encoded(resultString.toString(), super.encodedLength(value, rule));
+      cache.put(value, encoded);
+    }
+    return encoded;
+  }
+
+  /**
+   * Specifies the cached encoding of a value.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  private static final class Encoded {
+
+    private final String value;
+    private final int length;
+
+    /**
+     * Create a new instance of {@code Encoded}.
+     *
+     * @param value  specifies the encoded value
+     * @param length specifies the width of the encoded value, measured in the unit of its rule
+     */
+    private Encoded(String value, int length) {
+      this.value = value;
+      this.length = length;
+    }
+  }
+}
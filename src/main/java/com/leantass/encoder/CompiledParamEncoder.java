@@ -0,0 +1,487 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.common.collect.Ordering;
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies an immutable encoder compiled from a fixed set of rules. The rules are turned into a
+ * plan of {@link FieldEncoder} instances sorted by field name, each one specialized for the
+ * truncation style of its rule. When the parameters are sorted in natural order, the plan is
+ * walked in step with the parameters, so encoding needs neither a map lookup nor a style switch
+ * per field. The encoding is the same as the one of the {@link ParamEncoderImpl} it was compiled
+ * from.
+ *
+ * <p>Parameters given in any order, either as a {@link Map} or as parallel arrays, are written
+ * following the plan, which is already sorted, so they never need to be sorted.
+ *
+ * <p>The worst-case length of an encoding is computed once from the widths of the rules, and
+ * sizes the buffer of {@link #encode(SortedMap)} up to {@link #PRESIZE_LIMIT} characters. A
+ * longer encoding lets the buffer grow instead of encoding the parameters twice to measure them
+ * first; the exact length is still available through {@link #encodedLength(SortedMap)}.
+ *
+ * <p>An encoding can be limited to a length budget with {@link #encode(SortedMap, int)}, which
+ * truncates or drops the fields with the lowest priority first.
+ *
+ * <p>A rule-driven encoder ignores the fields without a rule instead of verifying them. When the
+ * parameters are sorted in natural order and hold many more fields than there are rules, it
+ * probes the parameters for the fields of its rules only, instead of walking every parameter.
+ *
+ * <p>New rules cannot be added to a compiled encoder.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public final class CompiledParamEncoder implements ParamEncoder {
+
+  static final int PRESIZE_LIMIT = 1024;
+  private final String[] names;
+  private final FieldEncoder[] fields;
+  private final boolean ruleDriven;
+  private final int maxLength;
+  private final int maxByteLength;
+
+  /**
+   * Create a new instance of {@code CompiledParamEncoder}.
+   *
+   * @param rules specifies the rules to be compiled by field name
+   */
+  CompiledParamEncoder(Map<String, RuleEncoder> rules) {
+    this(rules, false);
+  }
+
+  /**
+   * Create a new instance of {@code CompiledParamEncoder}.
+   *
+   * @param rules      specifies the rules to be compiled by field name
+   * @param ruleDriven specifies whether the fields without a rule will be ignored
+   */
+  CompiledParamEncoder(Map<String, RuleEncoder> rules, boolean ruleDriven) {
+    checkNotNull(rules, "Rules are missing.");
+    this.ruleDriven = ruleDriven;
+    SortedMap<String, RuleEncoder> sortedRules = new TreeMap<>(rules);
+    this.names = new String[sortedRules.size()];
+    this.fields = new FieldEncoder[sortedRules.size()];
+    int index = 0;
+    for (Entry<String, RuleEncoder> rule : sortedRules.entrySet()) {
+      names[index] = rule.getKey();
+      fields[index] = FieldEncoder.of(rule.getKey(), rule.getValue());
+      index++;
+    }
+    this.maxLength = EncodedLength.maxChars(sortedRules);
+    this.maxByteLength = EncodedLength.maxBytes(sortedRules);
+  }
+
+  /**
+   * This method is not supported as a result if invoked it will throw a
+   * {@link UnsupportedOperationException}.
+   */
+  @Override
+  public void addFieldTruncationRule(String fieldName, TruncationStyle style, int maxWidth) {
+    throw new UnsupportedOperationException("Operation is not supported.");
+  }
+
+  /**
+   * This method is not supported as a result if invoked it will throw a
+   * {@link UnsupportedOperationException}.
+   */
+  @Override
+  public void addArrayTruncationRule(String fieldName, int maxArrayWidth,
+                                     TruncationStyle elemStyle, int maxElemWidth) {
+    throw new UnsupportedOperationException("Operation is not supported.");
+  }
+
+  @Override
+  public String encode(SortedMap<String, Object> data) {
+    StringBuilder resultString =
+        new StringBuilder(initialCapacity(maxLength));
+    try {
+      encodeTo(data, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, Appendable out) throws IOException {
+    checkNotNull(data, "SortedMap is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    if (ruleDriven && shouldProbe(data, names.length)) {
+      encodeFields(data, out);
+      return;
+    }
+    boolean naturalOrder = isNaturalOrder(data.comparator());
+    boolean empty = true;
+    int index = 0;
+    for (Entry<String, Object> entry : data.entrySet()) {
+      FieldEncoder field = null;
+      if (naturalOrder) {
+        index = advance(index, entry.getKey());
+        if (index < names.length && names[index].equals(entry.getKey())) {
+          field = fields[index];
+        }
+      } else {
+        int found = Arrays.binarySearch(names, entry.getKey());
+        if (found >= 0) {
+          field = fields[found];
+        }
+      }
+      if (field != null) {
+        empty = encodeField(field, entry.getValue(), empty, out);
+      } else if (!ruleDriven) {
+        FieldEncoder.checkSupported(entry.getValue());
+      }
+    }
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, CharBuffer out) {
+    try {
+      encodeTo(data, (Appendable) out);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, ByteBuffer out) {
+    try {
+      Utf8Appendable utf8 = new Utf8Appendable(out);
+      encodeTo(data, utf8);
+      utf8.flush();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public String encode(Map<String, Object> data) {
+    StringBuilder resultString = new StringBuilder(initialCapacity(maxLength));
+    try {
+      encodeTo(data, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  @Override
+  public void encodeTo(Map<String, Object> data, Appendable out) throws IOException {
+    checkNotNull(data, "Map is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    if (!ruleDriven) {
+      for (Entry<String, Object> entry : data.entrySet()) {
+        if (Arrays.binarySearch(names, entry.getKey()) < 0) {
+          FieldEncoder.checkSupported(entry.getValue());
+        }
+      }
+    }
+    encodeFields(data, out);
+  }
+
+  @Override
+  public String encode(String[] keys, Object[] values) {
+    StringBuilder resultString = new StringBuilder(initialCapacity(maxLength));
+    try {
+      encodeTo(keys, values, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  @Override
+  public void encodeTo(String[] keys, Object[] values, Appendable out) throws IOException {
+    checkNotNull(keys, "Keys are missing.");
+    checkNotNull(values, "Values are missing.");
+    checkNotNull(out, "Appendable is missing.");
+    checkArgument(keys.length == values.length, "Keys and values do not match.");
+    int[] positions = new int[names.length];
+    for (int i = 0; i < keys.length; i++) {
+      int found = Arrays.binarySearch(names, checkNotNull(keys[i], "Key is missing."));
+      if (found < 0) {
+        if (!ruleDriven) {
+          FieldEncoder.checkSupported(values[i]);
+        }
+      } else {
+        checkArgument(positions[found] == 0, "Key is repeated.");
+        positions[found] = i + 1;
+      }
+    }
+    boolean empty = true;
+    for (int i = 0; i < names.length; i++) {
+      if (positions[i] > 0) {
+        empty = encodeField(fields[i], values[positions[i] - 1], empty, out);
+      }
+    }
+  }
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields within a length budget. If
+   * the fields do not fit, the ones with the lowest {@link RuleEncoder#getPriority() priority} are
+   * truncated, when they are strings, or dropped first. Arrays are never truncated element by
+   * element, they are dropped whole. The budget is measured in UTF-16 characters, see
+   * {@link #encodeTo(SortedMap, int, ByteBuffer)} for a budget in UTF-8 bytes.
+   *
+   * @param data      the collections of parameters that will be encoded
+   * @param maxLength the maximum number of characters of the encoding
+   * @return the equivalent encoded {@link String}
+   */
+  public String encode(SortedMap<String, Object> data, int maxLength) {
+    StringBuilder resultString =
+        new StringBuilder(Math.max(Math.min(this.maxLength, maxLength), 0));
+    try {
+      encodeTo(data, maxLength, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields within a length budget,
+   * writing the result straight into the given sink.
+   *
+   * @param data      the collections of parameters that will be encoded
+   * @param maxLength the maximum number of characters of the encoding
+   * @param out       the sink where the encoded parameters will be written
+   * @throws IOException if the sink cannot be written
+   * @see #encode(SortedMap, int)
+   */
+  public void encodeTo(SortedMap<String, Object> data, int maxLength, Appendable out)
+      throws IOException {
+    checkNotNull(data, "SortedMap is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    checkArgument(maxLength >= 0, "max length cannot be less than zero.");
+    if (this.maxLength <= maxLength) {
+      encodeTo(data, out);
+      return;
+    }
+    encodeWithin(data, maxLength, WidthUnit.CHARS, out);
+  }
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields within a budget of UTF-8
+   * bytes, writing the result into the given buffer as {@link #encodeTo(SortedMap, ByteBuffer)}
+   * does. It is meant for limits measured in bytes, such as the length of a URL, where a value
+   * with characters beyond ASCII takes more room than its number of characters.
+   *
+   * @param data          the collections of parameters that will be encoded
+   * @param maxByteLength the maximum number of bytes of the encoding
+   * @param out           the buffer where the encoded parameters will be written
+   * @throws java.nio.BufferOverflowException if the buffer has not enough remaining space
+   * @see #encode(SortedMap, int)
+   */
+  public void encodeTo(SortedMap<String, Object> data, int maxByteLength, ByteBuffer out) {
+    checkNotNull(data, "SortedMap is missing.");
+    checkNotNull(out, "ByteBuffer is missing.");
+    checkArgument(maxByteLength >= 0, "max length cannot be less than zero.");
+    Utf8Appendable utf8 = new Utf8Appendable(out);
+    try {
+      if (this.maxByteLength <= maxByteLength) {
+        encodeTo(data, utf8);
+      } else {
+        encodeWithin(data, maxByteLength, WidthUnit.UTF8_BYTES, utf8);
+      }
+      utf8.flush();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Writes the fields with a rule within a length budget, see {@link LengthBudget}.
+   *
+   * @param data      the collections of parameters that will be encoded
+   * @param maxLength the maximum length of the encoding
+   * @param unit      the unit of the length, {@link WidthUnit#CHARS} or
+   *                  {@link WidthUnit#UTF8_BYTES}
+   * @param out       the sink where the encoded parameters will be written
+   * @throws IOException if the sink cannot be written
+   */
+  private void encodeWithin(SortedMap<String, Object> data, int maxLength, WidthUnit unit,
+                            Appendable out) throws IOException {
+    FieldEncoder[] present = new FieldEncoder[Math.min(data.size(), fields.length)];
+    Object[] values = new Object[present.length];
+    int count = 0;
+    for (Entry<String, Object> entry : data.entrySet()) {
+      FieldEncoder field = fieldEncoder(entry.getKey());
+      if (field == null) {
+        if (!ruleDriven) {
+          FieldEncoder.checkSupported(entry.getValue());
+        }
+      } else if (field.hasEncoding(entry.getValue())) {
+        present[count] = field;
+        values[count++] = entry.getValue();
+      }
+    }
+    LengthBudget.encodeTo(present, values, count, maxLength, unit, out);
+  }
+
+  @Override
+  public int maxLength() {
+    return maxLength;
+  }
+
+  @Override
+  public int maxByteLength() {
+    return maxByteLength;
+  }
+
+  @Override
+  public int encodedLength(SortedMap<String, Object> data) {
+    return measure(data).chars();
+  }
+
+  @Override
+  public int encodedByteLength(SortedMap<String, Object> data) {
+    return measure(data).bytes();
+  }
+
+  /**
+   * Measures the encoding of a collection of {@link SortedMap} fields without producing it.
+   *
+   * @param data specifies the parameters to be measured
+   * @return the length of the encoding
+   */
+  private EncodedLength measure(SortedMap<String, Object> data) {
+    EncodedLength length = new EncodedLength();
+    try {
+      encodeTo(data, length);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return length;
+  }
+
+  /**
+   * Provides the initial capacity of the buffer of an encoding: its worst-case length, up to
+   * {@link #PRESIZE_LIMIT} characters, past which the buffer grows as needed.
+   *
+   * @param maxLength specifies the worst-case length of the encoding
+   * @return the initial capacity of the buffer
+   */
+  static int initialCapacity(int maxLength) {
+    return Math.min(maxLength, PRESIZE_LIMIT);
+  }
+
+  /**
+   * Writes the fields of the rules found in the given parameters, following the plan.
+   *
+   * @param data specifies the parameters to be probed
+   * @param out  specifies the sink where the fields will be written
+   * @throws IOException if the sink cannot be written
+   */
+  private void encodeFields(Map<String, Object> data, Appendable out) throws IOException {
+    boolean empty = true;
+    for (int i = 0; i < names.length; i++) {
+      Object value = data.get(names[i]);
+      if (value != null || data.containsKey(names[i])) {
+        empty = encodeField(fields[i], value, empty, out);
+      }
+    }
+  }
+
+  /**
+   * Writes a field if its encoding is not empty.
+   *
+   * @param field specifies the encoder of the field
+   * @param value specifies the value of the field
+   * @param empty specifies whether nothing has been written yet
+   * @param out   specifies the sink where the field will be written
+   * @return <b>true</b> if nothing has been written yet, including this field. Otherwise, will
+   * return <b>false</b>.
+   * @throws IOException if the sink cannot be written
+   */
+  private static boolean encodeField(FieldEncoder field, Object value, boolean empty,
+                                     Appendable out) throws IOException {
+    if (!field.hasEncoding(value)) {
+      return empty;
+    }
+    field.encodeTo(value, empty, out);
+    return false;
+  }
+
+  /**
+   * Create a schema of the fields of the rules, whose records are encoded the same way as this
+   * encoder encodes a map with the same values.
+   *
+   * @return a new {@link ParamSchema} with the fields of the rules
+   */
+  public ParamSchema schema() {
+    return new ParamSchema(names, fields);
+  }
+
+  /**
+   * Provides the field encoder of a given field.
+   *
+   * @param name specifies the name of the field
+   * @return the field encoder, <b>null</b> if the field has no rule
+   */
+  FieldEncoder fieldEncoder(String name) {
+    int found = Arrays.binarySearch(names, name);
+    return found >= 0 ? fields[found] : null;
+  }
+
+  /**
+   * Specifies whether the fields without a rule are ignored instead of verified.
+   *
+   * @return <b>true</b> if the encoder is rule-driven. Otherwise, will return <b>false</b>.
+   */
+  boolean isRuleDriven() {
+    return ruleDriven;
+  }
+
+  /**
+   * Verifies if it is cheaper to probe the given parameters for the fields of the rules than to
+   * walk every parameter. Probing is chosen when the parameters are sorted in natural order, so
+   * the rules are found in the same order, and the rules times the cost of a lookup are fewer than
+   * the parameters.
+   *
+   * @param data      specifies the parameters to be encoded
+   * @param ruleCount specifies the number of rules
+   * @return <b>true</b> if the parameters should be probed. Otherwise, will return <b>false</b>.
+   */
+  static boolean shouldProbe(SortedMap<String, ?> data, int ruleCount) {
+    int size = data.size();
+    return isNaturalOrder(data.comparator())
+        && (long) ruleCount * (Integer.SIZE - Integer.numberOfLeadingZeros(size)) < size;
+  }
+
+  /**
+   * Moves forward in the plan up to the first field that is not before the given key.
+   *
+   * @param index specifies the current position in the plan
+   * @param key   specifies the key of the parameter being encoded
+   * @return the position of the first field that is not before the given key
+   */
+  private int advance(int index, String key) {
+    while (index < names.length && names[index].compareTo(key) < 0) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Verifies if a given comparator sorts the keys in their natural order.
+   *
+   * @param comparator specifies the comparator to be evaluated
+   * @return <b>true</b> if the keys are sorted in natural order. Otherwise, will return
+   * <b>false</b>.
+   */
+  static boolean isNaturalOrder(Comparator<?> comparator) {
+    return comparator == null || Ordering.natural().equals(comparator);
+  }
+}
@@ -0,0 +1,171 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Specifies a thread-safe encoder whose rules can be updated while other threads are encoding.
+ * Every update builds a new immutable snapshot of the rules, compiled into a
+ * {@link CompiledParamEncoder}, and publishes it with an atomic reference swap. Encoding only reads
+ * the current snapshot, so readers never block nor contend with each other or with writers.
+ * Concurrent updates retry on conflict, so no update is lost.
+ *
+ * <p>Memory visibility: an update happens-before every encoding that starts after the update
+ * returns, so such encoding always observes the new rules. An encoding that is already running
+ * keeps using the snapshot it started with and observes either all or none of the rules of an
+ * update, never a partially applied one.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class ConcurrentParamEncoder implements ParamEncoder {
+
+  private final AtomicReference<Snapshot> snapshot =
+      new AtomicReference<>(new Snapshot(ImmutableMap.<String, RuleEncoder>of()));
+
+  @Override
+  public void addFieldTruncationRule(String fieldName, TruncationStyle style, int maxWidth) {
+    putRule(fieldName, RuleEncoder.Builder.builder(style).width(maxWidth).build());
+  }
+
+  @Override
+  public void addArrayTruncationRule(String fieldName, int maxArrayWidth,
+                                     TruncationStyle elemStyle, int maxElemWidth) {
+    putRule(fieldName, RuleEncoder.Builder.builder(elemStyle).width(maxElemWidth)
+        .arrayWidth(maxArrayWidth).build());
+  }
+
+  /**
+   * Specifies a rule built with {@link RuleEncoder.Builder} for a given field, for instance one
+   * whose widths are measured in bytes.
+   *
+   * @param fieldName specifies the name of the field in which the rule will be applied
+   * @param rule      specifies the rule to be applied
+   */
+  public void addTruncationRule(String fieldName, RuleEncoder rule) {
+    putRule(fieldName, checkNotNull(rule, "Rule is missing."));
+  }
+
+  /**
+   * Replaces all the rules at once. Encodings running concurrently observe either the previous
+   * rules or the given ones, never a mix of both.
+   *
+   * @param rules specifies the new rules by field name
+   */
+  public void replaceRules(Map<String, RuleEncoder> rules) {
+    checkNotNull(rules, "Rules are missing.");
+    snapshot.set(new Snapshot(ImmutableMap.copyOf(rules)));
+  }
+
+  /**
+   * Provides the rules of the current snapshot.
+   *
+   * @return an immutable view of the current rules by field name
+   */
+  public Map<String, RuleEncoder> getRules() {
+    return snapshot.get().rules;
+  }
+
+  @Override
+  public String encode(SortedMap<String, Object> data) {
+    return snapshot.get().encoder.encode(data);
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, Appendable out) throws IOException {
+    snapshot.get().encoder.encodeTo(data, out);
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, ByteBuffer out) {
+    snapshot.get().encoder.encodeTo(data, out);
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, CharBuffer out) {
+    snapshot.get().encoder.encodeTo(data, out);
+  }
+
+  @Override
+  public int maxLength() {
+    return snapshot.get().encoder.maxLength();
+  }
+
+  @Override
+  public int maxByteLength() {
+    return snapshot.get().encoder.maxByteLength();
+  }
+
+  @Override
+  public int encodedLength(SortedMap<String, Object> data) {
+    return snapshot.get().encoder.encodedLength(data);
+  }
+
+  @Override
+  public int encodedByteLength(SortedMap<String, Object> data) {
+    return snapshot.get().encoder.encodedByteLength(data);
+  }
+
+  @Override
+  public String encode(Map<String, Object> data) {
+    return snapshot.get().encoder.encode(data);
+  }
+
+  @Override
+  public void encodeTo(Map<String, Object> data, Appendable out) throws IOException {
+    snapshot.get().encoder.encodeTo(data, out);
+  }
+
+  @Override
+  public String encode(String[] keys, Object[] values) {
+    return snapshot.get().encoder.encode(keys, values);
+  }
+
+  @Override
+  public void encodeTo(String[] keys, Object[] values, Appendable out) throws IOException {
+    snapshot.get().encoder.encodeTo(keys, values, out);
+  }
+
+  /**
+   * Publishes a new snapshot that contains the given rule, retrying if another update was
+   * published in the meantime.
+   *
+   * @param fieldName specifies the name of the field in which the rule will be applied
+   * @param rule      specifies the rule to be added
+   */
+  private void putRule(String fieldName, RuleEncoder rule) {
+    checkNotNull(fieldName, "Field name is missing.");
+    Snapshot current;
+    Snapshot updated;
+    do {
+      current = snapshot.get();
+      Map<String, RuleEncoder> rules = new HashMap<>(current.rules);
+      rules.put(fieldName, rule);
+      updated = new Snapshot(ImmutableMap.copyOf(rules));
+    } while (!snapshot.compareAndSet(current, updated));
+  }
+
+  /**
+   * Specifies an immutable set of rules together with the encoder compiled from them.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  private static final class Snapshot {
+
+    private final ImmutableMap<String, RuleEncoder> rules;
+    private final CompiledParamEncoder encoder;
+
+    private Snapshot(ImmutableMap<String, RuleEncoder> rules) {
+      this.rules = rules;
+      this.encoder = new CompiledParamEncoder(rules);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.leantass.encoder;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies that a field, or a getter without parameters, is encoded as an array following the
+ * same rule as
+ * {@link ParamEncoder#addArrayTruncationRule(String, int, TruncationStyle, int)}. The
+ * {@link EncodedFieldProcessor} generates an encoder for every type with such members. The member
+ * can be a {@code String[]}, or an {@code int[]}, {@code long[]}, {@code Integer[]} or
+ * {@code Long[]} encoded with the {@link TruncationStyle#INTEGER} style.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface EncodedArray {
+
+  /**
+   * Specifies the name of the encoded field, the name of the member or of its property if empty.
+   *
+   * @return the name of the encoded field
+   */
+  String name() default "";
+
+  /**
+   * Specifies the max width of the whole array, including its brackets and commas.
+   *
+   * @return the max width of the array
+   */
+  int arrayWidth();
+
+  /**
+   * Specifies the style used to truncate each element.
+   *
+   * @return the truncation style of the elements
+   */
+  TruncationStyle style();
+
+  /**
+   * Specifies the max width of each element.
+   *
+   * @return the max width of an element
+   */
+  int width();
+
+  /**
+   * Specifies the unit in which the widths are measured. A URL-safe field is always measured in
+   * {@link WidthUnit#PERCENT_ENCODED_BYTES}, so no unit other than the default can be
+   * given to it.
+   *
+   * @return the unit of the widths
+   */
+  WidthUnit unit() default WidthUnit.CHARS;
+
+  /**
+   * Specifies whether the name and the elements are percent-encoded.
+   *
+   * @return <b>true</b> if the field is URL-safe. Otherwise, will return <b>false</b>.
+   */
+  boolean urlSafe() default false;
+}
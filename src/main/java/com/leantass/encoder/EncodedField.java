@@ -0,0 +1,62 @@
+package com.leantass.encoder;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies that a field, or a getter without parameters, is encoded as a scalar value following
+ * the same rule as {@link ParamEncoder#addFieldTruncationRule(String, TruncationStyle, int)}. The
+ * {@link EncodedFieldProcessor} generates an encoder for every type with such members. The member
+ * can be an {@code int}, {@code long}, {@link Integer}, {@link Long},
+ * {@link java.math.BigInteger} or {@link String}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface EncodedField {
+
+  /**
+   * Specifies the name of the encoded field, the name of the member or of its property if empty.
+   *
+   * @return the name of the encoded field
+   */
+  String name() default "";
+
+  /**
+   * Specifies the style used to truncate the value.
+   *
+   * @return the truncation style
+   */
+  TruncationStyle style();
+
+  /**
+   * Specifies the max width of the value.
+   *
+   * @return the max width of the value
+   */
+  int width();
+
+  /**
+   * Specifies the unit in which the width is measured. A URL-safe field is always measured in
+   * {@link WidthUnit#PERCENT_ENCODED_BYTES}, so no unit other than the default can be
+   * given to it.
+   *
+   * @return the unit of the width
+   */
+  WidthUnit unit() default WidthUnit.CHARS;
+
+  /**
+   * Specifies whether the name and the value are percent-encoded.
+   *
+   * @return <b>true</b> if the field is URL-safe. Otherwise, will return <b>false</b>.
+   */
+  boolean urlSafe() default false;
+}
@@ -0,0 +1,459 @@
+package com.leantass.encoder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies the annotation processor that generates an {@link ObjectEncoder} for every type with
+ * members annotated with {@link EncodedField} or {@link EncodedArray}. The encoder of a type
+ * <b>Foo</b> is generated as <b>FooParamEncoder</b> in the same package, and the encoder of a
+ * nested type <b>Outer.Foo</b> as <b>Outer_FooParamEncoder</b>.
+ *
+ * <p>The fields are sorted by name when the encoder is generated, so the generated encoder writes
+ * them one after the other through {@link FieldWriter} constants, with no map, no lookup of rules
+ * and no boxing of primitive integers. The output is the same as the one of a
+ * {@link ParamEncoder} given the same rules and the members as parameters, where a <b>null</b>
+ * member is a missing parameter.
+ *
+ * <p>Members that cannot be encoded are reported as compilation errors: private members, getters
+ * with parameters, repeated names, widths less than one, unsupported types and numeric arrays
+ * without the {@link TruncationStyle#INTEGER} style.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public final class EncodedFieldProcessor extends AbstractProcessor {
+
+  static final String SUFFIX = "ParamEncoder";
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    Set<String> types = new HashSet<>();
+    types.add(EncodedField.class.getCanonicalName());
+    types.add(EncodedArray.class.getCanonicalName());
+    return types;
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Map<TypeElement, List<Member>> types = new LinkedHashMap<>();
+    collect(roundEnv.getElementsAnnotatedWith(EncodedField.class), types);
+    collect(roundEnv.getElementsAnnotatedWith(EncodedArray.class), types);
+    for (Map.Entry<TypeElement, List<Member>> entry : types.entrySet()) {
+      List<Member> members = entry.getValue();
+      Collections.sort(members, new Comparator<Member>() {
+        @Override
+        public int compare(Member a, Member b) {
+          return a.name.compareTo(b.name);
+        }
+      });
+      if (verify(entry.getKey(), members)) {
+        generate(entry.getKey(), members);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Groups the annotated members by the type that declares them.
+   *
+   * @param elements specifies the annotated members
+   * @param types    specifies the members of every type, where the new ones will be added
+   */
+  private void collect(Set<? extends Element> elements, Map<TypeElement, List<Member>> types) {
+    for (Element element : elements) {
+      Member member = member(element);
+      if (member == null) {
+        continue;
+      }
+      TypeElement type = (TypeElement) element.getEnclosingElement();
+      List<Member> members = types.get(type);
+      if (members == null) {
+        members = new ArrayList<>();
+        types.put(type, members);
+      }
+      members.add(member);
+    }
+  }
+
+  /**
+   * Provides the description of an annotated member, reporting it if it cannot be encoded.
+   *
+   * @param element specifies the annotated member
+   * @return the description of the member, or <b>null</b> if it cannot be encoded
+   */
+  private Member member(Element element) {
+    EncodedField field = element.getAnnotation(EncodedField.class);
+    EncodedArray array = element.getAnnotation(EncodedArray.class);
+    if (field != null && array != null) {
+      return error(element, "Member cannot be both an encoded field and an encoded array.");
+    }
+    if (element.getModifiers().contains(Modifier.PRIVATE)) {
+      return error(element, "Member cannot be private.");
+    }
+    TypeMirror type;
+    String access;
+    if (element.getKind() == ElementKind.METHOD) {
+      ExecutableElement method = (ExecutableElement) element;
+      if (!method.getParameters().isEmpty()) {
+        return error(element, "Getter cannot have parameters.");
+      }
+      type = method.getReturnType();
+      access = element.getSimpleName() + "()";
+    } else {
+      type = element.asType();
+      access = element.getSimpleName().toString();
+    }
+    if (element.getModifiers().contains(Modifier.STATIC)) {
+      return error(element, "Member cannot be static.");
+    }
+    Member member = field != null
+        ? new Member(element, field.name(), field.style(), field.width(), 0, field.unit(),
+            field.urlSafe(), access, type)
+        : new Member(element, array.name(), array.style(), array.width(), array.arrayWidth(),
+            array.unit(), array.urlSafe(), access, type);
+    if (member.width < 1 || array != null && member.arrayWidth < 1) {
+      return error(element, "Width cannot be less than one.");
+    }
+    if (member.urlSafe && member.unit != WidthUnit.CHARS
+        && member.unit != WidthUnit.PERCENT_ENCODED_BYTES) {
+      return error(element, "URL-safe member is measured in percent-encoded bytes.");
+    }
+    if (field != null ? !isScalar(element, type) : !isArray(element, type, member.style)) {
+      return null;
+    }
+    return member;
+  }
+
+  /**
+   * Verifies if the type of an encoded field is supported.
+   *
+   * @param element specifies the member
+   * @param type    specifies the type of the member
+   * @return <b>true</b> if the type is supported. Otherwise, will return <b>false</b>.
+   */
+  private boolean isScalar(Element element, TypeMirror type) {
+    if (type.getKind() == TypeKind.INT || type.getKind() == TypeKind.LONG) {
+      return true;
+    }
+    if (isDeclared(type, "java.lang.String") || isDeclared(type, "java.lang.Integer")
+        || isDeclared(type, "java.lang.Long") || isDeclared(type, "java.math.BigInteger")) {
+      return true;
+    }
+    error(element, "Type is not supported by @EncodedField.");
+    return false;
+  }
+
+  /**
+   * Verifies if the type of an encoded array is supported.
+   *
+   * @param element specifies the member
+   * @param type    specifies the type of the member
+   * @param style   specifies the style of the elements
+   * @return <b>true</b> if the type is supported. Otherwise, will return <b>false</b>.
+   */
+  private boolean isArray(Element element, TypeMirror type, TruncationStyle style) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      TypeMirror component = ((ArrayType) type).getComponentType();
+      if (isDeclared(component, "java.lang.String")) {
+        return true;
+      }
+      if (component.getKind() == TypeKind.INT || component.getKind() == TypeKind.LONG
+          || isDeclared(component, "java.lang.Integer")
+          || isDeclared(component, "java.lang.Long")) {
+        if (style == TruncationStyle.INTEGER) {
+          return true;
+        }
+        error(element, "Numeric arrays can only be encoded with the INTEGER style.");
+        return false;
+      }
+    }
+    error(element, "Type is not supported by @EncodedArray.");
+    return false;
+  }
+
+  /**
+   * Verifies if a type is a given declared type.
+   *
+   * @param type specifies the type to be evaluated
+   * @param name specifies the qualified name of the declared type
+   * @return <b>true</b> if the type is the declared type. Otherwise, will return <b>false</b>.
+   */
+  private boolean isDeclared(TypeMirror type, String name) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return false;
+    }
+    TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(type);
+    return element.getQualifiedName().contentEquals(name);
+  }
+
+  /**
+   * Verifies that the members of a type can be encoded together, reporting the ones that cannot.
+   *
+   * @param type    specifies the type that declares the members
+   * @param members specifies the members sorted by name
+   * @return <b>true</b> if the encoder can be generated. Otherwise, will return <b>false</b>.
+   */
+  private boolean verify(TypeElement type, List<Member> members) {
+    boolean valid = true;
+    for (Element enclosing = type; enclosing instanceof TypeElement;
+        enclosing = enclosing.getEnclosingElement()) {
+      if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+        error(type, "Type cannot be private.");
+        valid = false;
+        break;
+      }
+      NestingKind nesting = ((TypeElement) enclosing).getNestingKind();
+      if (nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) {
+        error(type, "Type must be a top level or a member type.");
+        valid = false;
+        break;
+      }
+    }
+    for (int i = 1; i < members.size(); i++) {
+      if (members.get(i).name.equals(members.get(i - 1).name)) {
+        error(members.get(i).element, "Field name is repeated.");
+        valid = false;
+      }
+    }
+    return valid;
+  }
+
+  /**
+   * Writes the source of the encoder of a type.
+   *
+   * @param type    specifies the type that declares the members
+   * @param members specifies the members sorted by name
+   */
+  private void generate(TypeElement type, List<Member> members) {
+    PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+    String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    String simpleName = encoderName(type);
+    String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+    StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source.append("/**\n")
+        .append(" * Encoder of {@link ").append(typeName).append("} generated by {@link ")
+        .append(EncodedFieldProcessor.class.getName()).append("}.\n")
+        .append(" */\n")
+        .append("public final class ").append(simpleName)
+        .append(" implements com.leantass.encoder.ObjectEncoder<").append(typeName)
+        .append("> {\n\n");
+    for (int i = 0; i < members.size(); i++) {
+      appendWriter(members.get(i), i, source);
+    }
+    source.append("\n")
+        .append("  @Override\n")
+        .append("  public String encode(").append(typeName).append(" value) {\n")
+        .append("    StringBuilder out = new StringBuilder();\n")
+        .append("    try {\n")
+        .append("      encodeTo(value, out);\n")
+        .append("    } catch (java.io.IOException e) {\n")
+        .append("      throw new AssertionError(e);\n")
+        .append("    }\n")
+        .append("    return out.toString();\n")
+        .append("  }\n\n")
+        .append("  @Override\n")
+        .append("  public void encodeTo(").append(typeName)
+        .append(" value, Appendable out) throws java.io.IOException {\n")
+        .append("    com.google.common.base.Preconditions.checkNotNull(value, ")
+        .append("\"Value is missing.\");\n")
+        .append("    com.google.common.base.Preconditions.checkNotNull(out, ")
+        .append("\"Appendable is missing.\");\n")
+        .append("    boolean empty = true;\n");
+    for (int i = 0; i < members.size(); i++) {
+      Member member = members.get(i);
+      source.append("    ");
+      if (i < members.size() - 1) {
+        source.append("empty = ");
+      }
+      source.append("FIELD_").append(i).append(".encodeTo(");
+      if (isPrimitive(member.type) && member.style != TruncationStyle.INTEGER) {
+        source.append("(Object) value.").append(member.access);
+      } else {
+        source.append("value.").append(member.access);
+      }
+      source.append(", empty, out);\n");
+    }
+    source.append("  }\n")
+        .append("}\n");
+    String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type)
+        .openWriter()) {
+      writer.write(source.toString());
+    } catch (IOException e) {
+      error(type, "Encoder cannot be generated: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Writes the declaration of the {@link FieldWriter} constant of a member.
+   *
+   * @param member specifies the member
+   * @param index  specifies the position of the member
+   * @param source specifies the source where the declaration will be written
+   */
+  private static void appendWriter(Member member, int index, StringBuilder source) {
+    source.append("  private static final com.leantass.encoder.FieldWriter FIELD_").append(index)
+        .append(" =\n")
+        .append("      com.leantass.encoder.FieldWriter.of(\"").append(literal(member.name))
+        .append("\", com.leantass.encoder.RuleEncoder.Builder.builder(\n")
+        .append("          com.leantass.encoder.ParamEncoder.TruncationStyle.")
+        .append(member.style.name()).append(")\n")
+        .append("          .width(").append(member.width).append(")");
+    if (member.arrayWidth > 0) {
+      source.append(".arrayWidth(").append(member.arrayWidth).append(")");
+    }
+    if (member.unit != WidthUnit.CHARS) {
+      source.append(".unit(com.leantass.encoder.RuleEncoder.WidthUnit.")
+          .append(member.unit.name()).append(")");
+    }
+    if (member.urlSafe) {
+      source.append(".urlSafe(true)");
+    }
+    source.append(".build());\n");
+  }
+
+  /**
+   * Provides the simple name of the encoder of a type, joining the names of the enclosing types
+   * with underscores.
+   *
+   * @param type specifies the type that declares the members
+   * @return the simple name of the encoder
+   */
+  static String encoderName(TypeElement type) {
+    StringBuilder name = new StringBuilder(type.getSimpleName());
+    for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement;
+        enclosing = enclosing.getEnclosingElement()) {
+      name.insert(0, '_').insert(0, enclosing.getSimpleName());
+    }
+    return name.append(SUFFIX).toString();
+  }
+
+  /**
+   * Provides the name of the encoded field of a member, the name of its property for a getter.
+   *
+   * @param element specifies the member
+   * @return the default name of the encoded field
+   */
+  static String defaultName(Element element) {
+    String name = element.getSimpleName().toString();
+    if (element.getKind() == ElementKind.METHOD) {
+      for (String prefix : new String[]{"get", "is"}) {
+        if (name.length() > prefix.length() && name.startsWith(prefix)
+            && Character.isUpperCase(name.charAt(prefix.length()))) {
+          return Character.toLowerCase(name.charAt(prefix.length()))
+              + name.substring(prefix.length() + 1);
+        }
+      }
+    }
+    return name;
+  }
+
+  /**
+   * Provides the content of a string literal with the given value.
+   *
+   * @param value specifies the value of the literal
+   * @return the escaped value
+   */
+  private static String literal(String value) {
+    StringBuilder literal = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        literal.append('\\').append(c);
+      } else if (c < 0x20 || c > 0x7E) {
+        literal.append(String.format("\\u%04x", (int) c));
+      } else {
+        literal.append(c);
+      }
+    }
+    return literal.toString();
+  }
+
+  /**
+   * Verifies if the type of a member is primitive, which is written without boxing only with the
+   * {@link TruncationStyle#INTEGER} style.
+   *
+   * @param type specifies the type of the member
+   * @return <b>true</b> if the type is primitive. Otherwise, will return <b>false</b>.
+   */
+  private static boolean isPrimitive(TypeMirror type) {
+    return type.getKind().isPrimitive();
+  }
+
+  /**
+   * Reports a compilation error on an element.
+   *
+   * @param element specifies the element that cannot be encoded
+   * @param message specifies the description of the error
+   * @return always <b>null</b>, so a member can be discarded when it is reported
+   */
+  private Member error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    return null;
+  }
+
+  /**
+   * Specifies an annotated member with its rule.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  private static final class Member {
+
+    private final Element element;
+    private final String name;
+    private final TruncationStyle style;
+    private final int width;
+    private final int arrayWidth;
+    private final WidthUnit unit;
+    private final boolean urlSafe;
+    private final String access;
+    private final TypeMirror type;
+
+    private Member(Element element, String name, TruncationStyle style, int width,
+        int arrayWidth, WidthUnit unit, boolean urlSafe, String access, TypeMirror type) {
+      this.element = element;
+      this.name = name.isEmpty() ? defaultName(element) : name;
+      this.style = style;
+      this.width = width;
+      this.arrayWidth = arrayWidth;
+      this.unit = unit;
+      this.urlSafe = urlSafe;
+      this.access = access;
+      this.type = type;
+    }
+  }
+}
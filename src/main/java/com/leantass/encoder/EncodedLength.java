@@ -0,0 +1,139 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies a sink that counts what is written into it instead of keeping it, both as UTF-16
+ * characters and as the UTF-8 bytes that {@link Utf8Appendable} would write. Encoding into it
+ * measures the exact length of an encoding without producing it. It also computes the worst-case
+ * length of the encodings of a set of rules, which only depends on their widths.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+final class EncodedLength implements Appendable {
+
+  private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+  private long chars;
+  private long bytes;
+  private boolean pendingHigh;
+
+  @Override
+  public EncodedLength append(CharSequence csq) {
+    CharSequence sequence = csq == null ? "null" : csq;
+    return append(sequence, 0, sequence.length());
+  }
+
+  @Override
+  public EncodedLength append(CharSequence csq, int start, int end) {
+    CharSequence sequence = csq == null ? "null" : csq;
+    if (start < end) {
+      pair(sequence.charAt(start));
+      pendingHigh = Character.isHighSurrogate(sequence.charAt(end - 1));
+    }
+    chars += end - start;
+    bytes += StringTruncation.width(sequence, start, end, WidthUnit.UTF8_BYTES);
+    return this;
+  }
+
+  @Override
+  public EncodedLength append(char c) {
+    pair(c);
+    pendingHigh = Character.isHighSurrogate(c);
+    chars++;
+    bytes += StringTruncation.utf8Length(c);
+    return this;
+  }
+
+  /**
+   * Counts a surrogate pair split across two appends as the four bytes {@link Utf8Appendable}
+   * writes for it, instead of the two replacements its halves count alone.
+   *
+   * @param c specifies the first character of an append
+   */
+  private void pair(char c) {
+    if (pendingHigh && Character.isLowSurrogate(c)) {
+      bytes += 2;
+    }
+  }
+
+  /**
+   * Specifies the number of characters written.
+   *
+   * @return the number of characters, {@link Integer#MAX_VALUE} if there are more
+   */
+  int chars() {
+    return saturate(chars);
+  }
+
+  /**
+   * Specifies the number of UTF-8 bytes of the characters written.
+   *
+   * @return the number of bytes, {@link Integer#MAX_VALUE} if there are more
+   */
+  int bytes() {
+    return saturate(bytes);
+  }
+
+  /**
+   * Computes the largest number of characters of an encoding with the given rules, that is, when
+   * every field is present and takes its whole width.
+   *
+   * @param rules specifies the applied rules by field name
+   * @return the worst-case number of characters, {@link Integer#MAX_VALUE} if there are more
+   */
+  static int maxChars(Map<String, RuleEncoder> rules) {
+    return saturate(maxLength(rules, false));
+  }
+
+  /**
+   * Computes the largest number of UTF-8 bytes of an encoding with the given rules. Strings whose
+   * widths are measured in characters count three bytes per character, the most a character can
+   * take, while integers are always ASCII.
+   *
+   * @param rules specifies the applied rules by field name
+   * @return the worst-case number of bytes, {@link Integer#MAX_VALUE} if there are more
+   */
+  static int maxBytes(Map<String, RuleEncoder> rules) {
+    return saturate(maxLength(rules, true));
+  }
+
+  /**
+   * Computes the largest length of an encoding with the given rules.
+   *
+   * @param rules specifies the applied rules by field name
+   * @param utf8  specifies whether the length is measured in UTF-8 bytes instead of characters
+   * @return the worst-case length
+   */
+  private static long maxLength(Map<String, RuleEncoder> rules, boolean utf8) {
+    long length = 0;
+    for (Entry<String, RuleEncoder> entry : rules.entrySet()) {
+      RuleEncoder rule = entry.getValue();
+      String name = rule.isUrlSafe() ? PercentEncoding.escape(entry.getKey()) : entry.getKey();
+      long value = Math.max(rule.getWidth(), rule.getArrayWidth());
+      if (utf8) {
+        length += StringTruncation.width(name, 0, name.length(), WidthUnit.UTF8_BYTES);
+        boolean ascii = rule.getUnit() != WidthUnit.CHARS || rule.getStyle() == INTEGER;
+        length += ascii ? value : MAX_UTF8_BYTES_PER_CHAR * value;
+      } else {
+        length += name.length() + value;
+      }
+      length += 2;
+    }
+    return Math.max(length - 1, 0);
+  }
+
+  /**
+   * Converts a length to an integer, saturating at {@link Integer#MAX_VALUE}.
+   *
+   * @param length specifies the length to be converted
+   * @return the length as an integer
+   */
+  private static int saturate(long length) {
+    return (int) Math.min(length, Integer.MAX_VALUE);
+  }
+}
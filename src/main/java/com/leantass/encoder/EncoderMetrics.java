@@ -0,0 +1,300 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+
+/**
+ * Specifies an {@link EncodingListener} that counts the events of the encodings, both per field
+ * and per {@link TruncationStyle}. Counters are atomic, so a single instance can be shared by
+ * encoders running in several threads. Latencies are only measured when the metrics are created
+ * as timed, and are kept in a {@link LatencyHistogram}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class EncoderMetrics implements EncodingListener {
+
+  private final boolean timed;
+  private final ConcurrentMap<String, Counters> fields = new ConcurrentHashMap<>();
+  private final Map<TruncationStyle, Counters> styles = new EnumMap<>(TruncationStyle.class);
+
+  /**
+   * Create a new instance of {@code EncoderMetrics} that does not measure latencies.
+   */
+  public EncoderMetrics() {
+    this(false);
+  }
+
+  /**
+   * Create a new instance of {@code EncoderMetrics}.
+   *
+   * @param timed specifies whether the encoding time of each field will be measured
+   */
+  public EncoderMetrics(boolean timed) {
+    this.timed = timed;
+    for (TruncationStyle style : TruncationStyle.values()) {
+      styles.put(style, new Counters());
+    }
+  }
+
+  @Override
+  public boolean isTimed() {
+    return timed;
+  }
+
+  @Override
+  public void fieldSkipped(String field) {
+    forField(field).skippedFields.incrementAndGet();
+  }
+
+  @Override
+  public void fieldEncoded(String field, TruncationStyle style) {
+    forField(field).encodedFields.incrementAndGet();
+    forStyle(style).encodedFields.incrementAndGet();
+  }
+
+  @Override
+  public void integerClamped(String field) {
+    forField(field).clampedIntegers.incrementAndGet();
+    forStyle(TruncationStyle.INTEGER).clampedIntegers.incrementAndGet();
+  }
+
+  @Override
+  public void stringTruncated(String field, TruncationStyle style, int removed) {
+    Counters fieldCounters = forField(field);
+    fieldCounters.truncatedStrings.incrementAndGet();
+    fieldCounters.truncatedChars.addAndGet(removed);
+    Counters styleCounters = forStyle(style);
+    styleCounters.truncatedStrings.incrementAndGet();
+    styleCounters.truncatedChars.addAndGet(removed);
+  }
+
+  @Override
+  public void elementsDropped(String field, TruncationStyle style, int dropped) {
+    forField(field).droppedElements.addAndGet(dropped);
+    forStyle(style).droppedElements.addAndGet(dropped);
+  }
+
+  @Override
+  public void fieldDropped(String field, TruncationStyle style) {
+    forField(field).droppedFields.incrementAndGet();
+    forStyle(style).droppedFields.incrementAndGet();
+  }
+
+  @Override
+  public void fieldTimed(String field, TruncationStyle style, long nanos) {
+    forField(field).latency.record(nanos);
+    forStyle(style).latency.record(nanos);
+  }
+
+  /**
+   * Provides the names of the fields with counters.
+   *
+   * @return an unmodifiable view of the names of the fields
+   */
+  public Set<String> getFields() {
+    return Collections.unmodifiableSet(fields.keySet());
+  }
+
+  /**
+   * Provides the counters of a given field, creating them if the field has none yet.
+   *
+   * @param field specifies the name of the field
+   * @return the counters of the field
+   */
+  public Counters forField(String field) {
+    checkNotNull(field, "Field is missing.");
+    Counters counters = fields.get(field);
+    if (counters == null) {
+      Counters created = new Counters();
+      counters = fields.putIfAbsent(field, created);
+      if (counters == null) {
+        counters = created;
+      }
+    }
+    return counters;
+  }
+
+  /**
+   * Provides the counters of a given truncation style.
+   *
+   * @param style specifies the truncation style
+   * @return the counters of the truncation style
+   */
+  public Counters forStyle(TruncationStyle style) {
+    return styles.get(checkNotNull(style, "TruncationStyle is missing."));
+  }
+
+  /**
+   * Specifies the counters of a field or a truncation style.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  public static final class Counters {
+
+    private final AtomicLong encodedFields = new AtomicLong();
+    private final AtomicLong skippedFields = new AtomicLong();
+    private final AtomicLong clampedIntegers = new AtomicLong();
+    private final AtomicLong truncatedStrings = new AtomicLong();
+    private final AtomicLong truncatedChars = new AtomicLong();
+    private final AtomicLong droppedElements = new AtomicLong();
+    private final AtomicLong droppedFields = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private Counters() {
+    }
+
+    /**
+     * Specifies the number of times a field with a rule was encoded.
+     *
+     * @return the number of encoded fields
+     */
+    public long getEncodedFields() {
+      return encodedFields.get();
+    }
+
+    /**
+     * Specifies the number of times a field was skipped because it had no rule.
+     *
+     * @return the number of skipped fields
+     */
+    public long getSkippedFields() {
+      return skippedFields.get();
+    }
+
+    /**
+     * Specifies the number of integers clamped to the bounds of their width.
+     *
+     * @return the number of clamped integers
+     */
+    public long getClampedIntegers() {
+      return clampedIntegers.get();
+    }
+
+    /**
+     * Specifies the number of strings truncated to their width.
+     *
+     * @return the number of truncated strings
+     */
+    public long getTruncatedStrings() {
+      return truncatedStrings.get();
+    }
+
+    /**
+     * Specifies the total number of characters removed by truncation.
+     *
+     * @return the number of truncated characters
+     */
+    public long getTruncatedChars() {
+      return truncatedChars.get();
+    }
+
+    /**
+     * Specifies the number of array elements dropped because they did not fit in the array width.
+     *
+     * @return the number of dropped elements
+     */
+    public long getDroppedElements() {
+      return droppedElements.get();
+    }
+
+    /**
+     * Specifies the number of fields dropped whole to fit an encoding in a length budget.
+     *
+     * @return the number of dropped fields
+     */
+    public long getDroppedFields() {
+      return droppedFields.get();
+    }
+
+    /**
+     * Provides the histogram of the encoding times, empty unless the metrics are timed.
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram getLatency() {
+      return latency;
+    }
+  }
+
+  /**
+   * Specifies a histogram of latencies in nanoseconds with power of two buckets. Bucket <i>i</i>
+   * counts the latencies below <i>2<sup>i</sup></i> nanoseconds and not below the bound of the
+   * previous bucket, so recording a latency is a single atomic increment.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  public static final class LatencyHistogram {
+
+    /**
+     * Specifies the number of buckets of the histogram.
+     */
+    public static final int BUCKETS = Long.SIZE;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private LatencyHistogram() {
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos specifies the latency in nanoseconds, negative values are recorded as zero
+     */
+    void record(long nanos) {
+      long latency = Math.max(nanos, 0L);
+      buckets.incrementAndGet(bucketOf(latency));
+      count.incrementAndGet();
+      totalNanos.addAndGet(latency);
+    }
+
+    /**
+     * Specifies the number of recorded latencies.
+     *
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+      return count.get();
+    }
+
+    /**
+     * Specifies the sum of the recorded latencies.
+     *
+     * @return the total latency in nanoseconds
+     */
+    public long getTotalNanos() {
+      return totalNanos.get();
+    }
+
+    /**
+     * Specifies the number of latencies recorded in a given bucket.
+     *
+     * @param bucket specifies the index of the bucket
+     * @return the number of latencies of the bucket
+     * @throws IndexOutOfBoundsException if the bucket does not exist
+     */
+    public long getBucketCount(int bucket) {
+      return buckets.get(bucket);
+    }
+
+    /**
+     * Provides the bucket in which a latency is recorded.
+     *
+     * @param nanos specifies a non-negative latency in nanoseconds
+     * @return the index of the bucket
+     */
+    static int bucketOf(long nanos) {
+      return Math.min(Long.SIZE - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+    }
+  }
+}
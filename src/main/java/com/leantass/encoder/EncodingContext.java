@@ -0,0 +1,180 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Specifies a reusable buffer for the encodings of a single thread. The buffer is sized from the
+ * lengths of the recent encodings: it grows at once when an encoding is longer than any recent
+ * one, and the expected length decays slowly towards shorter encodings, so once the lengths are
+ * steady an encoding neither grows the buffer nor allocates anything but the resulting
+ * {@link String}. A buffer much larger than the expected length is released, so a single huge
+ * encoding does not pin its memory.
+ *
+ * <p>A context can be passed explicitly, which suits virtual threads, or be obtained for the
+ * current thread with {@link #current()}. A context is not safe for concurrent use.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public final class EncodingContext {
+
+  private static final int MIN_CAPACITY = 64;
+  private static final int DECAY_SHIFT = 3;
+  private static final int SHRINK_FACTOR = 4;
+  private static final ThreadLocal<EncodingContext> CURRENT = new ThreadLocal<EncodingContext>() {
+    @Override
+    protected EncodingContext initialValue() {
+      return new EncodingContext();
+    }
+  };
+  private StringBuilder buffer;
+  private int expectedLength;
+  private boolean inUse;
+
+  /**
+   * Create a new instance of {@code EncodingContext}.
+   */
+  public EncodingContext() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Create a new instance of {@code EncodingContext}.
+   *
+   * @param expectedLength specifies the expected length of the encodings
+   */
+  public EncodingContext(int expectedLength) {
+    checkArgument(expectedLength >= 0, "expected length cannot be less than zero.");
+    this.expectedLength = expectedLength;
+    this.buffer = new StringBuilder(Math.max(expectedLength, MIN_CAPACITY));
+  }
+
+  /**
+   * Provides the context of the current thread.
+   *
+   * @return the context of the current thread
+   */
+  public static EncodingContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields using the buffer of this
+   * context.
+   *
+   * @param encoder the encoder that will be used
+   * @param data    the collections of parameters that will be encoded
+   * @return the equivalent encoded {@link String}
+   */
+  public String encode(ParamEncoder encoder, SortedMap<String, Object> data) {
+    checkNotNull(encoder, "ParamEncoder is missing.");
+    StringBuilder out = acquire();
+    try {
+      encoder.encodeTo(data, out);
+      return finish(out);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    } finally {
+      inUse = false;
+    }
+  }
+
+  /**
+   * Performs the encoding of a collection of {@link Map} fields in any order using the buffer of
+   * this context.
+   *
+   * @param encoder the encoder that will be used
+   * @param data    the collections of parameters that will be encoded
+   * @return the equivalent encoded {@link String}
+   */
+  public String encode(ParamEncoder encoder, Map<String, Object> data) {
+    checkNotNull(encoder, "ParamEncoder is missing.");
+    StringBuilder out = acquire();
+    try {
+      encoder.encodeTo(data, out);
+      return finish(out);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    } finally {
+      inUse = false;
+    }
+  }
+
+  /**
+   * Performs the encoding of a record using the buffer of this context.
+   *
+   * @param schema the schema of the record
+   * @param record the record that will be encoded
+   * @return the equivalent encoded {@link String}
+   */
+  public String encode(ParamSchema schema, ParamSchema.Record record) {
+    checkNotNull(schema, "ParamSchema is missing.");
+    StringBuilder out = acquire();
+    try {
+      schema.encodeTo(record, out);
+      return finish(out);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    } finally {
+      inUse = false;
+    }
+  }
+
+  /**
+   * Specifies the length expected for the next encoding, learned from the recent ones.
+   *
+   * @return the expected length
+   */
+  public int getExpectedLength() {
+    return expectedLength;
+  }
+
+  /**
+   * Specifies the current capacity of the buffer.
+   *
+   * @return the capacity of the buffer
+   */
+  public int getCapacity() {
+    return buffer.capacity();
+  }
+
+  /**
+   * Provides the empty buffer, sized for the expected length.
+   *
+   * @return the buffer to be written
+   * @throws IllegalStateException if the buffer is already being written
+   */
+  private StringBuilder acquire() {
+    checkState(!inUse, "EncodingContext is in use.");
+    inUse = true;
+    int capacity = Math.max(expectedLength, MIN_CAPACITY);
+    if (buffer.capacity() > SHRINK_FACTOR * capacity) {
+      buffer = new StringBuilder(capacity);
+    } else {
+      buffer.setLength(0);
+      buffer.ensureCapacity(capacity);
+    }
+    return buffer;
+  }
+
+  /**
+   * Provides the encoding written in the buffer, learning its length.
+   *
+   * @param out specifies the buffer that was written
+   * @return the encoded {@link String}
+   */
+  private String finish(StringBuilder out) {
+    int length = out.length();
+    if (length >= expectedLength) {
+      expectedLength = length;
+    } else {
+      expectedLength -= (expectedLength - length) >> DECAY_SHIFT;
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,81 @@
+package com.leantass.encoder;
+
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+
+/**
+ * Specifies a listener of the events of an encoding, such as a field without a rule being skipped
+ * or a value being truncated. A listener is only invoked once it is given to
+ * {@link ParamEncoderImpl#setEncodingListener(EncodingListener)}, so there is no cost at all while
+ * none is set. Listeners are invoked from the encoding thread and should be thread-safe when the
+ * encoder is shared.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public interface EncodingListener {
+
+  /**
+   * Specifies whether the encoding time of each field should be measured and reported through
+   * {@link #fieldTimed(String, TruncationStyle, long)}.
+   *
+   * @return <b>true</b> if the latencies are measured. Otherwise, will return <b>false</b>.
+   */
+  boolean isTimed();
+
+  /**
+   * Invoked when a field is skipped because it has no rule.
+   *
+   * @param field specifies the name of the field
+   */
+  void fieldSkipped(String field);
+
+  /**
+   * Invoked when a field with a rule is encoded, whether or not its encoding is empty.
+   *
+   * @param field specifies the name of the field
+   * @param style specifies the style of the rule of the field
+   */
+  void fieldEncoded(String field, TruncationStyle style);
+
+  /**
+   * Invoked when an integer is clamped to the bounds of its width.
+   *
+   * @param field specifies the name of the field
+   */
+  void integerClamped(String field);
+
+  /**
+   * Invoked when a string is truncated to its width.
+   *
+   * @param field   specifies the name of the field
+   * @param style   specifies the style of the rule of the field
+   * @param removed specifies the number of characters removed
+   */
+  void stringTruncated(String field, TruncationStyle style, int removed);
+
+  /**
+   * Invoked when the elements of an array do not fit in its array width.
+   *
+   * @param field   specifies the name of the field
+   * @param style   specifies the style of the rule of the field
+   * @param dropped specifies the number of elements dropped
+   */
+  void elementsDropped(String field, TruncationStyle style, int dropped);
+
+  /**
+   * Invoked when a field is dropped whole so the encoding fits in a length budget, instead of the
+   * other events of the field.
+   *
+   * @param field specifies the name of the field
+   * @param style specifies the style of the rule of the field
+   */
+  void fieldDropped(String field, TruncationStyle style);
+
+  /**
+   * Invoked with the time taken to encode a field, only if {@link #isTimed()}.
+   *
+   * @param field specifies the name of the field
+   * @param style specifies the style of the rule of the field
+   * @param nanos specifies the encoding time in nanoseconds
+   */
+  void fieldTimed(String field, TruncationStyle style, long nanos);
+}
@@ -0,0 +1,299 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+
+import java.io.IOException;
+
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies an encoder specialized for a single field and its {@link RuleEncoder}. The truncation
+ * style is resolved once, when the field encoder is created, into one subclass per style, so
+ * encoding a value does not need to evaluate the rule again. Whether a value is an array is only
+ * known from the value itself, since the same rule applies to scalars and arrays, so arrays are
+ * told apart by the type of each value and share the element encoding of the style. A field
+ * encoder follows the same semantics as {@link ParamEncoderObject} for scalar values and
+ * {@link ParamEncoderArray} for arrays.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+abstract class FieldEncoder {
+
+  private static final char AND = '&';
+  private static final char START = '[';
+  private static final char END = ']';
+  private static final char DELIMITER = ',';
+  private final String name;
+  private final String prefix;
+  private final RuleEncoder rule;
+
+  private FieldEncoder(String name, RuleEncoder rule) {
+    this.name = checkNotNull(name, "Field name is missing.");
+    this.rule = checkNotNull(rule, "Rule is missing.");
+    this.prefix = (rule.isUrlSafe() ? PercentEncoding.escape(name) : name) + "=";
+  }
+
+  /**
+   * Create a new field encoder specialized for the truncation style of the given rule.
+   *
+   * @param name specifies the name of the field
+   * @param rule specifies the rule that will be used to encode the field
+   * @return a new {@code FieldEncoder} instance
+   */
+  static FieldEncoder of(String name, RuleEncoder rule) {
+    checkNotNull(rule, "Rule is missing.");
+    switch (rule.getStyle()) {
+      case INTEGER:
+        return new IntegerFieldEncoder(name, rule);
+      case STRING_LEFT:
+        return new StringLeftFieldEncoder(name, rule);
+      case STRING_RIGHT:
+        return new StringRightFieldEncoder(name, rule);
+      default:
+        throw new UnsupportedOperationException("Operation not supported.");
+    }
+  }
+
+  /**
+   * Verifies if a given value can be encoded, regardless of the rule that applies to it.
+   *
+   * @param value specifies the value to be evaluated
+   * @throws IllegalArgumentException if the value cannot be encoded
+   */
+  static void checkSupported(Object value) {
+    checkArgument(ParamEncoderArray.isArray(value)
+        ? value instanceof String[] || ParamEncoderArray.isNumericArray(value)
+        : ParamEncoderObject.isScalar(value), "Encoding is not supported.");
+  }
+
+  /**
+   * Specifies the name of the field.
+   *
+   * @return the name of the field
+   */
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Specifies the rule used to encode the field.
+   *
+   * @return the rule of the field
+   */
+  RuleEncoder getRule() {
+    return rule;
+  }
+
+  /**
+   * Specifies the length of what is written before the value, that is, the name of the field and
+   * the equal sign.
+   *
+   * @param unit specifies the unit of the length, {@link WidthUnit#CHARS} or
+   *             {@link WidthUnit#UTF8_BYTES}
+   * @return the length of the prefix
+   */
+  int prefixLength(WidthUnit unit) {
+    return StringTruncation.width(prefix, 0, prefix.length(), unit);
+  }
+
+  /**
+   * Create a field encoder for the same field that keeps at most the given length of a string
+   * value, so the field takes less room in the encoding. Integers are never narrowed, since fewer
+   * digits would change their value.
+   *
+   * @param valueLength specifies the maximum length of the written value
+   * @param unit        specifies the unit of the length, {@link WidthUnit#CHARS} or
+   *                    {@link WidthUnit#UTF8_BYTES}
+   * @return a new {@code FieldEncoder}, <b>null</b> if the field cannot be narrowed to that length
+   */
+  FieldEncoder narrow(int valueLength, WidthUnit unit) {
+    if (rule.getStyle() == INTEGER || valueLength <= 0) {
+      return null;
+    }
+    return of(name, RuleEncoder.Builder.builder(rule.getStyle()).width(valueLength)
+        .unit(rule.isUrlSafe() ? WidthUnit.PERCENT_ENCODED_BYTES : unit)
+        .urlSafe(rule.isUrlSafe()).priority(rule.getPriority()).build());
+  }
+
+  /**
+   * Verifies if encoding a given value produces any output.
+   *
+   * @param value specifies the value to be evaluated
+   * @return <b>true</b> if the encoding is not empty. Otherwise, will return <b>false</b>.
+   * @throws IllegalArgumentException if the value cannot be encoded
+   */
+  final boolean hasEncoding(Object value) {
+    checkSupported(value);
+    if (ParamEncoderArray.isNumericArray(value)) {
+      checkArgument(rule.getStyle() == INTEGER, "Encoding is not supported.");
+      return ParamEncoderArray.hasNumbers(value, rule);
+    }
+    if (!(value instanceof String[])) {
+      return length(value) > 0;
+    }
+    for (String element : (String[]) value) {
+      int elementLength = length(checkNotNull(element, "Value is missing."));
+      if (elementLength + 3 > rule.getArrayWidth()) {
+        return false;
+      }
+      if (elementLength > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes the field as <b>name=value</b>, preceded by the separator if it is not the first field.
+   * It should only be invoked if {@link #hasEncoding(Object)} is <b>true</b> for the value.
+   *
+   * @param value specifies the value to be encoded
+   * @param first specifies whether it is the first field written
+   * @param out   specifies the sink where the field will be written
+   * @throws IOException if the sink cannot be written
+   */
+  final void encodeTo(Object value, boolean first, Appendable out) throws IOException {
+    if (!first) {
+      out.append(AND);
+    }
+    out.append(prefix);
+    if (value instanceof String[]) {
+      appendArray((String[]) value, out);
+    } else if (ParamEncoderArray.isNumericArray(value)) {
+      ParamEncoderArray.appendNumbers(value, rule, out);
+    } else {
+      append(value, out);
+    }
+  }
+
+  /**
+   * Writes the field as <b>name=value</b> for a primitive integer, preceded by the separator if it
+   * is not the first field. It should only be invoked for the
+   * {@link ParamEncoder.TruncationStyle#INTEGER} style, whose encoding is never empty.
+   *
+   * @param value specifies the value to be encoded
+   * @param first specifies whether it is the first field written
+   * @param out   specifies the sink where the field will be written
+   * @throws IOException if the sink cannot be written
+   */
+  final void encodeTo(long value, boolean first, Appendable out) throws IOException {
+    if (!first) {
+      out.append(AND);
+    }
+    out.append(prefix);
+    ParamEncoderObject.appendInteger(ParamEncoderObject.clamp(value, rule), out);
+  }
+
+  /**
+   * Writes the elements of an array that fit in {@link RuleEncoder#getArrayWidth()}.
+   *
+   * @param array specifies the array to be encoded
+   * @param out   specifies the sink where the array will be written
+   * @throws IOException if the sink cannot be written
+   */
+  private void appendArray(String[] array, Appendable out) throws IOException {
+    int length = 1;
+    out.append(START);
+    for (String element : array) {
+      if (length + 3 > rule.getArrayWidth()) {
+        break;
+      }
+      int elementLength = length(checkNotNull(element, "Value is missing."));
+      if (length + elementLength + 2 > rule.getArrayWidth()) {
+        break;
+      }
+      if (length > 1) {
+        out.append(DELIMITER);
+        length++;
+      }
+      append(element, out);
+      length += elementLength;
+    }
+    out.append(END);
+  }
+
+  /**
+   * Computes the length of the encoding of a given scalar value without producing it.
+   *
+   * @param value specifies the value to be measured
+   * @return the width of the encoded value, measured in the unit of the rule
+   */
+  abstract int length(Object value);
+
+  /**
+   * Writes the encoding of a given scalar value.
+   *
+   * @param value specifies the value to be encoded
+   * @param out   specifies the sink where the encoded value will be written
+   * @throws IOException if the sink cannot be written
+   */
+  abstract void append(Object value, Appendable out) throws IOException;
+
+  /**
+   * Field encoder for the {@link ParamEncoder.TruncationStyle#INTEGER} style.
+   */
+  private static final class IntegerFieldEncoder extends FieldEncoder {
+
+    private IntegerFieldEncoder(String name, RuleEncoder rule) {
+      super(name, rule);
+    }
+
+    @Override
+    int length(Object value) {
+      return ParamEncoderObject.integerValueLength(value, getRule());
+    }
+
+    @Override
+    void append(Object value, Appendable out) throws IOException {
+      ParamEncoderObject.appendIntegerValue(value, getRule(), out);
+    }
+  }
+
+  /**
+   * Field encoder for the {@link ParamEncoder.TruncationStyle#STRING_LEFT} style.
+   */
+  private static final class StringLeftFieldEncoder extends FieldEncoder {
+
+    private StringLeftFieldEncoder(String name, RuleEncoder rule) {
+      super(name, rule);
+    }
+
+    @Override
+    int length(Object value) {
+      return StringTruncation.leftWidth(value.toString(), getRule().getWidth(),
+          getRule().getUnit());
+    }
+
+    @Override
+    void append(Object value, Appendable out) throws IOException {
+      String string = value.toString();
+      ParamEncoderObject.appendString(string, StringTruncation.leftStart(string,
+          getRule().getWidth(), getRule().getUnit()), string.length(), getRule(), out);
+    }
+  }
+
+  /**
+   * Field encoder for the {@link ParamEncoder.TruncationStyle#STRING_RIGHT} style.
+   */
+  private static final class StringRightFieldEncoder extends FieldEncoder {
+
+    private StringRightFieldEncoder(String name, RuleEncoder rule) {
+      super(name, rule);
+    }
+
+    @Override
+    int length(Object value) {
+      return StringTruncation.rightWidth(value.toString(), getRule().getWidth(),
+          getRule().getUnit());
+    }
+
+    @Override
+    void append(Object value, Appendable out) throws IOException {
+      String string = value.toString();
+      ParamEncoderObject.appendString(string, 0, StringTruncation.rightEnd(string,
+          getRule().getWidth(), getRule().getUnit()), getRule(), out);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Specifies the writer of a single field with a fixed rule, used by encoders that know their
+ * fields ahead of time, such as the ones generated by {@link EncodedFieldProcessor}. The rule is
+ * resolved once, when the writer is created, and primitive integers are written without boxing.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public final class FieldWriter {
+
+  private final FieldEncoder field;
+
+  private FieldWriter(FieldEncoder field) {
+    this.field = field;
+  }
+
+  /**
+   * Create a new writer of a field.
+   *
+   * @param name specifies the name of the field
+   * @param rule specifies the rule that will be used to encode the field
+   * @return a new {@code FieldWriter} instance
+   */
+  public static FieldWriter of(String name, RuleEncoder rule) {
+    return new FieldWriter(FieldEncoder.of(name, rule));
+  }
+
+  /**
+   * Writes the field for a primitive integer, preceded by the separator if something was already
+   * written.
+   *
+   * @param value specifies the value of the field
+   * @param empty specifies whether nothing has been written yet
+   * @param out   specifies the sink where the field will be written
+   * @return <b>false</b>, since the encoding of an integer is never empty
+   * @throws IOException              if the sink cannot be written
+   * @throws IllegalArgumentException if the field does not use the
+   *                                  {@link ParamEncoder.TruncationStyle#INTEGER} style
+   */
+  public boolean encodeTo(long value, boolean empty, Appendable out) throws IOException {
+    checkArgument(field.getRule().getStyle() == INTEGER, "Encoding is not supported.");
+    field.encodeTo(value, empty, out);
+    return false;
+  }
+
+  /**
+   * Writes the field if its encoding is not empty, preceded by the separator if something was
+   * already written. A <b>null</b> value is not written, as a missing parameter.
+   *
+   * @param value specifies the value of the field
+   * @param empty specifies whether nothing has been written yet
+   * @param out   specifies the sink where the field will be written
+   * @return <b>true</b> if nothing has been written yet, including this field. Otherwise, will
+   * return <b>false</b>.
+   * @throws IOException              if the sink cannot be written
+   * @throws IllegalArgumentException if the value cannot be encoded
+   */
+  public boolean encodeTo(@Nullable Object value, boolean empty, Appendable out)
+      throws IOException {
+    if (value == null || !field.hasEncoding(value)) {
+      return empty;
+    }
+    field.encodeTo(value, empty, out);
+    return false;
+  }
+}
@@ -0,0 +1,180 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Specifies an immutable encoder whose plan is a class generated at runtime for a fixed set of
+ * rules, see {@link GeneratedPlan}. It writes the parameters sorted in natural order, and the
+ * parameters given as a {@link Map}, with the generated plan, choosing between walking and probing
+ * the parameters as {@link CompiledParamEncoder} does. Every other operation, and the parameters
+ * sorted in any other order, are delegated to the {@link CompiledParamEncoder} of the same rules.
+ * The encoding is the same as the one of the {@link ParamEncoderImpl} it was generated from.
+ *
+ * <p>New rules cannot be added to a generated encoder.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+final class GeneratedParamEncoder implements ParamEncoder {
+
+  private final GeneratedPlan plan;
+  private final CompiledParamEncoder compiled;
+  private final boolean ruleDriven;
+  private final int ruleCount;
+  private final int maxLength;
+
+  /**
+   * Create a new instance of {@code GeneratedParamEncoder}.
+   *
+   * @param plan      specifies the generated plan of the rules
+   * @param compiled  specifies the compiled encoder of the same rules
+   * @param ruleCount specifies the number of rules
+   */
+  private GeneratedParamEncoder(GeneratedPlan plan, CompiledParamEncoder compiled,
+                                int ruleCount) {
+    this.plan = plan;
+    this.compiled = compiled;
+    this.ruleCount = ruleCount;
+    this.ruleDriven = compiled.isRuleDriven();
+    this.maxLength = compiled.maxLength();
+  }
+
+  /**
+   * Create an encoder with a generated plan for the given rules. When the plan cannot be
+   * generated, because the runtime does not allow defining classes or the rules do not fit in a
+   * single class, the compiled encoder itself is returned. Any other failure is propagated.
+   *
+   * @param rules      specifies the rules by field name
+   * @param ruleDriven specifies whether the fields without a rule will be ignored
+   * @return a new {@link ParamEncoder} for the rules
+   */
+  static ParamEncoder of(Map<String, RuleEncoder> rules, boolean ruleDriven) {
+    CompiledParamEncoder compiled = new CompiledParamEncoder(rules, ruleDriven);
+    try {
+      return new GeneratedParamEncoder(GeneratedPlan.of(new TreeMap<>(rules)), compiled,
+          rules.size());
+    } catch (ReflectiveOperationException | SecurityException
+        | GeneratedPlan.PlanTooLargeException e) {
+      return compiled;
+    }
+  }
+
+  @Override
+  public void addFieldTruncationRule(String fieldName, TruncationStyle style, int maxWidth) {
+    throw new UnsupportedOperationException("Operation is not supported.");
+  }
+
+  @Override
+  public void addArrayTruncationRule(String fieldName, int maxArrayWidth,
+                                     TruncationStyle style, int maxWidth) {
+    throw new UnsupportedOperationException("Operation is not supported.");
+  }
+
+  @Override
+  public String encode(SortedMap<String, Object> data) {
+    StringBuilder resultString =
+        new StringBuilder(CompiledParamEncoder.initialCapacity(maxLength));
+    try {
+      encodeTo(data, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, Appendable out) throws IOException {
+    checkNotNull(data, "SortedMap is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    if (!CompiledParamEncoder.isNaturalOrder(data.comparator())) {
+      compiled.encodeTo(data, out);
+    } else if (ruleDriven && CompiledParamEncoder.shouldProbe(data, ruleCount)) {
+      plan.encodeFields(data, out);
+    } else {
+      plan.encodeSorted(data, out, !ruleDriven);
+    }
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, CharBuffer out) {
+    try {
+      encodeTo(data, (Appendable) out);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, ByteBuffer out) {
+    try {
+      Utf8Appendable utf8 = new Utf8Appendable(out);
+      encodeTo(data, utf8);
+      utf8.flush();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public int maxLength() {
+    return maxLength;
+  }
+
+  @Override
+  public int maxByteLength() {
+    return compiled.maxByteLength();
+  }
+
+  @Override
+  public int encodedLength(SortedMap<String, Object> data) {
+    return compiled.encodedLength(data);
+  }
+
+  @Override
+  public int encodedByteLength(SortedMap<String, Object> data) {
+    return compiled.encodedByteLength(data);
+  }
+
+  @Override
+  public String encode(Map<String, Object> data) {
+    StringBuilder resultString =
+        new StringBuilder(CompiledParamEncoder.initialCapacity(maxLength));
+    try {
+      encodeTo(data, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  @Override
+  public void encodeTo(Map<String, Object> data, Appendable out) throws IOException {
+    checkNotNull(data, "Map is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    if (!ruleDriven) {
+      for (Entry<String, Object> entry : data.entrySet()) {
+        if (compiled.fieldEncoder(entry.getKey()) == null) {
+          FieldEncoder.checkSupported(entry.getValue());
+        }
+      }
+    }
+    plan.encodeFields(data, out);
+  }
+
+  @Override
+  public String encode(String[] keys, Object[] values) {
+    return compiled.encode(keys, values);
+  }
+
+  @Override
+  public void encodeTo(String[] keys, Object[] values, Appendable out) throws IOException {
+    compiled.encodeTo(keys, values, out);
+  }
+}
@@ -0,0 +1,774 @@
+package com.leantass.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.leantass.encoder.ParamEncoder.TruncationStyle;
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies the plan of a {@link GeneratedParamEncoder}: a class generated at runtime for a fixed
+ * set of rules. It walks the parameters sorted in natural order in step with the names of the
+ * rules, as {@link CompiledParamEncoder} does, and writes every field found through its own call
+ * site, selected with a switch on its position. Parameters given in any order are probed for the
+ * field of every rule, one field after the other, with no loop.
+ *
+ * <p>The name, style and widths of every rule are written as constants of the generated class,
+ * which builds its {@link FieldEncoder} instances once into <b>static final</b> fields, so the
+ * JIT compiler sees every encoder of the plan as a constant and can inline the whole encoding.
+ *
+ * <p>Every class is defined by its own class loader, a child of the class loader of the encoder,
+ * so a plan and its class are unloaded once no encoder uses them. A plan is generated once per set
+ * of rules and shared while it is in use: the plans are cached with weak references, and
+ * concurrent requests of the same rules wait for a single class to be generated.
+ *
+ * <p>This class is internal to the encoder and not part of its API. Since the generated classes
+ * are not in the runtime package of the encoder, this class and the members used by the generated
+ * code are public or protected. Its constructor and those members fail unless they are invoked by
+ * a class defined by a {@link PlanLoader}, so nothing else can extend it.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public abstract class GeneratedPlan {
+
+  private static final String PACKAGE = GeneratedPlan.class.getPackage().getName();
+  private static final AtomicInteger COUNT = new AtomicInteger();
+  private static final Cache<Map<String, RuleEncoder>, GeneratedPlan> PLANS =
+      CacheBuilder.newBuilder().weakValues().build();
+  private final boolean generated;
+
+  /**
+   * Create a new instance of {@code GeneratedPlan}, invoked by the generated classes.
+   *
+   * @throws UnsupportedOperationException if the class is not defined by a {@link PlanLoader}
+   */
+  protected GeneratedPlan() {
+    checkGenerated(getClass());
+    generated = true;
+  }
+
+  /**
+   * Writes the fields of the rules found in the given parameters, in the order of their names.
+   *
+   * @param data specifies the parameters to be probed
+   * @param out  specifies the sink where the fields will be written
+   * @throws IOException if the sink cannot be written
+   */
+  protected abstract void encodeFields(Map<String, ?> data, Appendable out) throws IOException;
+
+  /**
+   * Writes the fields of the rules found in the given parameters, walking the parameters in step
+   * with the names of the rules.
+   *
+   * @param data   specifies the parameters sorted in natural order
+   * @param out    specifies the sink where the fields will be written
+   * @param verify specifies whether the parameters without a rule will be verified
+   * @throws IOException              if the sink cannot be written
+   * @throws IllegalArgumentException if a parameter without a rule cannot be encoded
+   */
+  protected abstract void encodeSorted(SortedMap<String, ?> data, Appendable out,
+                                       boolean verify) throws IOException;
+
+  /**
+   * Provides the plan of a given set of rules, generating its class if no plan of the same rules
+   * is in use.
+   *
+   * @param rules specifies the rules sorted by field name
+   * @return the plan of the rules
+   * @throws ReflectiveOperationException if the class cannot be defined
+   * @throws PlanTooLargeException        if the rules do not fit in a single class
+   */
+  static GeneratedPlan of(final SortedMap<String, RuleEncoder> rules)
+      throws ReflectiveOperationException {
+    GeneratedPlan plan = PLANS.getIfPresent(rules);
+    if (plan != null) {
+      return plan;
+    }
+    try {
+      return PLANS.get(new HashMap<>(rules), new Callable<GeneratedPlan>() {
+        @Override
+        public GeneratedPlan call() throws ReflectiveOperationException {
+          String name = PACKAGE + ".GeneratedPlan_" + COUNT.incrementAndGet();
+          return (GeneratedPlan) define(name, new PlanWriter(name, rules).toByteArray())
+              .getDeclaredConstructor().newInstance();
+        }
+      });
+    } catch (ExecutionException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), ReflectiveOperationException.class);
+      throw new AssertionError(e);
+    } catch (UncheckedExecutionException | ExecutionError e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * Create the encoder of a field, invoked by the static initializer of the generated classes
+   * with the constants of its rule.
+   *
+   * @param plan       specifies the generated class that invokes it
+   * @param name       specifies the name of the field
+   * @param style      specifies the ordinal of the {@link TruncationStyle}
+   * @param width      specifies the width of the rule
+   * @param arrayWidth specifies the array width of the rule
+   * @param unit       specifies the ordinal of the {@link WidthUnit}
+   * @param urlSafe    specifies whether the rule is URL-safe, as <b>1</b> or <b>0</b>
+   * @param priority   specifies the priority of the rule
+   * @return a new {@link FieldEncoder}
+   * @throws UnsupportedOperationException if the class is not defined by a {@link PlanLoader}
+   */
+  protected static FieldEncoder field(Class<?> plan, String name, int style, int width,
+                                      int arrayWidth, int unit, int urlSafe, int priority) {
+    checkGenerated(plan);
+    RuleEncoder.Builder builder =
+        RuleEncoder.Builder.builder(TruncationStyle.values()[style]);
+    if (width > 0) {
+      builder.width(width);
+    }
+    if (arrayWidth > 0) {
+      builder.arrayWidth(arrayWidth);
+    }
+    return FieldEncoder.of(name, builder.unit(WidthUnit.values()[unit]).urlSafe(urlSafe == 1)
+        .priority(priority).build());
+  }
+
+  /**
+   * Writes a field if its encoding is not empty, invoked by the generated classes for every field
+   * found in the parameters.
+   *
+   * @param field specifies the encoder of the field
+   * @param value specifies the value of the field
+   * @param empty specifies whether nothing has been written yet
+   * @param out   specifies the sink where the field will be written
+   * @return <b>true</b> if nothing has been written yet, including this field. Otherwise, will
+   * return <b>false</b>.
+   * @throws IOException                   if the sink cannot be written
+   * @throws UnsupportedOperationException if the plan was not fully created
+   */
+  protected final boolean write(FieldEncoder field, Object value, boolean empty,
+                                Appendable out) throws IOException {
+    checkCreated();
+    if (!field.hasEncoding(value)) {
+      return empty;
+    }
+    field.encodeTo(value, empty, out);
+    return false;
+  }
+
+  /**
+   * Verifies that a parameter without a rule can be encoded, invoked by the generated classes,
+   * which cannot reach {@link FieldEncoder} itself.
+   *
+   * @param value specifies the value of the parameter
+   * @throws IllegalArgumentException      if the value cannot be encoded
+   * @throws UnsupportedOperationException if the plan was not fully created
+   */
+  protected final void verify(Object value) {
+    checkCreated();
+    FieldEncoder.checkSupported(value);
+  }
+
+  /**
+   * Verifies that the plan was created by its constructor, so an instance of another subclass,
+   * whose creation failed, cannot be used even if it is reached by its finalizer.
+   *
+   * @throws UnsupportedOperationException if the plan was not fully created
+   */
+  private void checkCreated() {
+    if (!generated) {
+      throw new UnsupportedOperationException("Operation is not supported.");
+    }
+  }
+
+  /**
+   * Verifies that a class is a generated plan, defined by a {@link PlanLoader}.
+   *
+   * @param plan specifies the class to be verified
+   * @throws UnsupportedOperationException if the class is not defined by a {@link PlanLoader}
+   */
+  private static void checkGenerated(Class<?> plan) {
+    if (!(plan.getClassLoader() instanceof PlanLoader)) {
+      throw new UnsupportedOperationException("Operation is not supported.");
+    }
+  }
+
+  /**
+   * Defines a generated class with a new {@link PlanLoader} of its own.
+   *
+   * @param name  specifies the binary name of the class
+   * @param bytes specifies the class file
+   * @return the defined class
+   */
+  private static Class<?> define(String name, byte[] bytes) {
+    return new PlanLoader().define(name, bytes);
+  }
+
+  /**
+   * Specifies that the rules cannot be written as a single generated class, either because they
+   * are too many for a method or a constant pool, or because a field name is too long.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  static final class PlanTooLargeException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create a new instance of {@code PlanTooLargeException}.
+     *
+     * @param message specifies the reason
+     */
+    PlanTooLargeException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Specifies the class loader of a single generated class, which delegates everything else to
+   * the class loader of the encoder.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  static final class PlanLoader extends ClassLoader {
+
+    /**
+     * Create a new instance of {@code PlanLoader}.
+     */
+    PlanLoader() {
+      super(GeneratedPlan.class.getClassLoader());
+    }
+
+    /**
+     * Defines a generated class, in the protection domain of the encoder.
+     *
+     * @param name  specifies the binary name of the class
+     * @param bytes specifies the class file
+     * @return the defined class
+     */
+    Class<?> define(String name, byte[] bytes) {
+      return defineClass(name, bytes, 0, bytes.length, GeneratedPlan.class.getProtectionDomain());
+    }
+  }
+
+  /**
+   * Specifies the writer of the class file of a plan. The class is written for the Java 5 class
+   * file format, which needs no stack map frames, and has a static final field per rule, a static
+   * initializer, a constructor and the methods of {@link GeneratedPlan}. The class and its
+   * constructor are public, and its methods protected, since it is defined in another runtime
+   * package.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  static final class PlanWriter {
+
+    private static final int VERSION = 49;
+    private static final int MAX_CODE_LENGTH = Short.MAX_VALUE;
+    private static final int MAX_CONSTANTS = 0xFFFF;
+    private static final String BASE = internal(GeneratedPlan.class);
+    private static final String FIELD = "L" + internal(FieldEncoder.class) + ";";
+    private static final String NAMES = "[Ljava/lang/String;";
+    private static final String FIELD_DESCRIPTOR =
+        "(Ljava/lang/Class;Ljava/lang/String;IIIIII)" + FIELD;
+    private static final String WRITE_DESCRIPTOR =
+        "(" + FIELD + "Ljava/lang/Object;ZLjava/lang/Appendable;)Z";
+    private static final int ALOAD_0 = 0x2A;
+    private static final int ALOAD_1 = 0x2B;
+    private static final int ALOAD_2 = 0x2C;
+    private static final int ALOAD = 0x19;
+    private static final int ASTORE = 0x3A;
+    private static final int ICONST_0 = 0x03;
+    private static final int ICONST_1 = 0x04;
+    private static final int ILOAD_3 = 0x1D;
+    private static final int ILOAD = 0x15;
+    private static final int ISTORE_3 = 0x3E;
+    private static final int ISTORE = 0x36;
+    private static final int IINC = 0x84;
+    private static final int LDC_W = 0x13;
+    private static final int IFEQ = 0x99;
+    private static final int IFNE = 0x9A;
+    private static final int IFGE = 0x9C;
+    private static final int IF_ICMPGE = 0xA2;
+    private static final int GOTO = 0xA7;
+    private static final int TABLESWITCH = 0xAA;
+    private static final int DUP = 0x59;
+    private static final int AALOAD = 0x32;
+    private static final int AASTORE = 0x53;
+    private static final int ANEWARRAY = 0xBD;
+    private static final int CHECKCAST = 0xC0;
+    private static final int INVOKEVIRTUAL = 0xB6;
+    private static final int IFNONNULL = 0xC7;
+    private static final int GETSTATIC = 0xB2;
+    private static final int PUTSTATIC = 0xB3;
+    private static final int INVOKESPECIAL = 0xB7;
+    private static final int INVOKESTATIC = 0xB8;
+    private static final int INVOKEINTERFACE = 0xB9;
+    private static final int RETURN = 0xB1;
+    private static final int VALUE = 4;
+    private static final int SORTED_EMPTY = 4;
+    private static final int INDEX = 5;
+    private static final int ITERATOR = 6;
+    private static final int ENTRY = 7;
+    private static final int KEY = 8;
+    private static final int SORTED_VALUE = 9;
+    private static final int COMPARISON = 10;
+    private final Bytes pool = new Bytes();
+    private final Map<String, Integer> constants = new HashMap<>();
+    private final String name;
+    private final String[] names;
+    private final RuleEncoder[] rules;
+
+    /**
+     * Create a new instance of {@code PlanWriter}.
+     *
+     * @param name  specifies the binary name of the class
+     * @param rules specifies the rules sorted by field name
+     */
+    PlanWriter(String name, SortedMap<String, RuleEncoder> rules) {
+      this.name = name.replace('.', '/');
+      this.names = rules.keySet().toArray(new String[rules.size()]);
+      this.rules = rules.values().toArray(new RuleEncoder[rules.size()]);
+    }
+
+    /**
+     * Writes the class file.
+     *
+     * @return the bytes of the class file
+     * @throws PlanTooLargeException if there are too many rules for a single class
+     */
+    byte[] toByteArray() {
+      int thisClass = classRef(name);
+      int superClass = classRef(BASE);
+      Bytes initializer = initializer();
+      Bytes constructor = new Bytes().u1(ALOAD_0).u1(INVOKESPECIAL)
+          .u2(memberRef(10, BASE, "<init>", "()V")).u1(RETURN);
+      Bytes encodeFields = encodeFields();
+      Bytes encodeSorted = encodeSorted();
+      Bytes methods = new Bytes();
+      method(methods, 0x0008, "<clinit>", "()V", initializer, 8, 0);
+      method(methods, 0x0001, "<init>", "()V", constructor, 1, 1);
+      method(methods, 0x0004, "encodeFields", "(Ljava/util/Map;Ljava/lang/Appendable;)V",
+          encodeFields, 5, 5);
+      method(methods, 0x0004, "encodeSorted",
+          "(Ljava/util/SortedMap;Ljava/lang/Appendable;Z)V", encodeSorted, 5, 11);
+      Bytes fields = new Bytes();
+      for (int i = 0; i < names.length; i++) {
+        fields.u2(0x001A).u2(utf8("F" + i)).u2(utf8(FIELD)).u2(0);
+      }
+      fields.u2(0x001A).u2(utf8("NAMES")).u2(utf8(NAMES)).u2(0);
+      if (constants.size() >= MAX_CONSTANTS) {
+        throw new PlanTooLargeException("Rules are too many to be generated.");
+      }
+      Bytes file = new Bytes().u4(0xCAFEBABE).u2(0).u2(VERSION).u2(constants.size() + 1)
+          .append(pool).u2(0x0031).u2(thisClass).u2(superClass).u2(0)
+          .u2(names.length + 1).append(fields).u2(4).append(methods).u2(0);
+      return Arrays.copyOf(file.data, file.length);
+    }
+
+    /**
+     * Writes the static initializer, which builds the encoder of every field from constants.
+     *
+     * @return the code of the initializer
+     */
+    private Bytes initializer() {
+      Bytes code = new Bytes();
+      int field = memberRef(10, BASE, "field", FIELD_DESCRIPTOR);
+      code.u1(LDC_W).u2(integer(names.length)).u1(ANEWARRAY).u2(classRef("java/lang/String"));
+      for (int i = 0; i < names.length; i++) {
+        code.u1(DUP).u1(LDC_W).u2(integer(i)).u1(LDC_W).u2(string(names[i])).u1(AASTORE);
+      }
+      code.u1(PUTSTATIC).u2(memberRef(9, name, "NAMES", NAMES));
+      for (int i = 0; i < names.length; i++) {
+        RuleEncoder rule = rules[i];
+        code.u1(LDC_W).u2(classRef(name))
+            .u1(LDC_W).u2(string(names[i]))
+            .u1(LDC_W).u2(integer(rule.getStyle().ordinal()))
+            .u1(LDC_W).u2(integer(rule.getWidth()))
+            .u1(LDC_W).u2(integer(rule.getArrayWidth()))
+            .u1(LDC_W).u2(integer(rule.getUnit().ordinal()))
+            .u1(LDC_W).u2(integer(rule.isUrlSafe() ? 1 : 0))
+            .u1(LDC_W).u2(integer(rule.getPriority()))
+            .u1(INVOKESTATIC).u2(field)
+            .u1(PUTSTATIC).u2(memberRef(9, name, "F" + i, FIELD));
+      }
+      return code.u1(RETURN);
+    }
+
+    /**
+     * Writes the method that probes and writes every field.
+     *
+     * @return the code of the method
+     */
+    private Bytes encodeFields() {
+      Bytes code = new Bytes().u1(ICONST_1).u1(ISTORE_3);
+      int get = memberRef(11, "java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;");
+      int containsKey = memberRef(11, "java/util/Map", "containsKey", "(Ljava/lang/Object;)Z");
+      int write = memberRef(10, BASE, "write", WRITE_DESCRIPTOR);
+      for (int i = 0; i < names.length; i++) {
+        int key = string(names[i]);
+        code.u1(ALOAD_1).u1(LDC_W).u2(key).u1(INVOKEINTERFACE).u2(get).u1(2).u1(0)
+            .u1(ASTORE).u1(VALUE)
+            .u1(ALOAD).u1(VALUE);
+        int ifNonNull = code.length;
+        code.u1(IFNONNULL).u2(0)
+            .u1(ALOAD_1).u1(LDC_W).u2(key).u1(INVOKEINTERFACE).u2(containsKey).u1(2).u1(0);
+        int ifEq = code.length;
+        code.u1(IFEQ).u2(0);
+        code.patch(ifNonNull + 1, code.length - ifNonNull);
+        code.u1(ALOAD_0).u1(GETSTATIC).u2(memberRef(9, name, "F" + i, FIELD))
+            .u1(ALOAD).u1(VALUE).u1(ILOAD_3).u1(ALOAD_2)
+            .u1(INVOKEVIRTUAL).u2(write)
+            .u1(ISTORE_3);
+        code.patch(ifEq + 1, code.length - ifEq);
+      }
+      return code.u1(RETURN);
+    }
+
+    /**
+     * Writes the method that walks the sorted parameters in step with the names of the rules.
+     * Every field is written by its own call site, which the JIT compiler sees with a constant
+     * encoder.
+     *
+     * @return the code of the method
+     */
+    private Bytes encodeSorted() {
+      Bytes code = new Bytes().u1(ICONST_1).u1(ISTORE).u1(SORTED_EMPTY)
+          .u1(ICONST_0).u1(ISTORE).u1(INDEX)
+          .u1(ALOAD_1).u1(INVOKEINTERFACE)
+          .u2(memberRef(11, "java/util/Map", "entrySet", "()Ljava/util/Set;")).u1(1).u1(0)
+          .u1(INVOKEINTERFACE)
+          .u2(memberRef(11, "java/util/Set", "iterator", "()Ljava/util/Iterator;")).u1(1).u1(0)
+          .u1(ASTORE).u1(ITERATOR);
+      int loop = code.length;
+      code.u1(ALOAD).u1(ITERATOR).u1(INVOKEINTERFACE)
+          .u2(memberRef(11, "java/util/Iterator", "hasNext", "()Z")).u1(1).u1(0);
+      int toEnd = code.length;
+      code.u1(IFEQ).u2(0)
+          .u1(ALOAD).u1(ITERATOR).u1(INVOKEINTERFACE)
+          .u2(memberRef(11, "java/util/Iterator", "next", "()Ljava/lang/Object;")).u1(1).u1(0)
+          .u1(CHECKCAST).u2(classRef("java/util/Map$Entry")).u1(ASTORE).u1(ENTRY)
+          .u1(ALOAD).u1(ENTRY).u1(INVOKEINTERFACE)
+          .u2(memberRef(11, "java/util/Map$Entry", "getKey", "()Ljava/lang/Object;")).u1(1).u1(0)
+          .u1(CHECKCAST).u2(classRef("java/lang/String")).u1(ASTORE).u1(KEY)
+          .u1(ALOAD).u1(ENTRY).u1(INVOKEINTERFACE)
+          .u2(memberRef(11, "java/util/Map$Entry", "getValue", "()Ljava/lang/Object;")).u1(1)
+          .u1(0).u1(ASTORE).u1(SORTED_VALUE);
+      int advance = code.length;
+      code.u1(ILOAD).u1(INDEX).u1(LDC_W).u2(integer(names.length));
+      int toMissFromEnd = code.length;
+      code.u1(IF_ICMPGE).u2(0)
+          .u1(GETSTATIC).u2(memberRef(9, name, "NAMES", NAMES)).u1(ILOAD).u1(INDEX).u1(AALOAD)
+          .u1(ALOAD).u1(KEY).u1(INVOKEVIRTUAL)
+          .u2(memberRef(10, "java/lang/String", "compareTo", "(Ljava/lang/String;)I"))
+          .u1(ISTORE).u1(COMPARISON)
+          .u1(ILOAD).u1(COMPARISON);
+      int toCheck = code.length;
+      code.u1(IFGE).u2(0)
+          .u1(IINC).u1(INDEX).u1(1);
+      goTo(code, advance);
+      code.patch(toCheck + 1, code.length - toCheck);
+      code.u1(ILOAD).u1(COMPARISON);
+      int toMissFromCheck = code.length;
+      code.u1(IFNE).u2(0);
+      int write = memberRef(10, BASE, "write", WRITE_DESCRIPTOR);
+      int toMissFromSwitch = -1;
+      if (names.length > 0) {
+        code.u1(ILOAD).u1(INDEX);
+        toMissFromSwitch = code.length;
+        code.u1(TABLESWITCH);
+        while (code.length % 4 != 0) {
+          code.u1(0);
+        }
+        int table = code.length;
+        code.u4(0).u4(0).u4(names.length - 1);
+        for (int i = 0; i < names.length; i++) {
+          code.u4(0);
+        }
+        for (int i = 0; i < names.length; i++) {
+          code.patch4(table + 12 + i * 4, code.length - toMissFromSwitch);
+          code.u1(ALOAD_0).u1(GETSTATIC).u2(memberRef(9, name, "F" + i, FIELD))
+              .u1(ALOAD).u1(SORTED_VALUE).u1(ILOAD).u1(SORTED_EMPTY).u1(ALOAD_2)
+              .u1(INVOKEVIRTUAL).u2(write)
+              .u1(ISTORE).u1(SORTED_EMPTY);
+          goTo(code, loop);
+        }
+        code.patch4(table, code.length - toMissFromSwitch);
+      }
+      int miss = code.length;
+      code.patch(toMissFromEnd + 1, miss - toMissFromEnd);
+      code.patch(toMissFromCheck + 1, miss - toMissFromCheck);
+      code.u1(ILOAD_3);
+      int toLoopFromMiss = code.length;
+      code.u1(IFEQ).u2(0);
+      code.patch(toLoopFromMiss + 1, loop - toLoopFromMiss);
+      code.u1(ALOAD_0).u1(ALOAD).u1(SORTED_VALUE).u1(INVOKEVIRTUAL)
+          .u2(memberRef(10, BASE, "verify", "(Ljava/lang/Object;)V"));
+      goTo(code, loop);
+      code.patch(toEnd + 1, code.length - toEnd);
+      return code.u1(RETURN);
+    }
+
+    /**
+     * Writes a jump to a position already written.
+     *
+     * @param code   specifies the code where the jump will be written
+     * @param target specifies the position of the target
+     */
+    private static void goTo(Bytes code, int target) {
+      code.u1(GOTO).u2(target - code.length + 1);
+    }
+
+    /**
+     * Writes a method with its code attribute.
+     *
+     * @param methods   specifies where the method will be written
+     * @param access    specifies the access flags of the method
+     * @param name      specifies the name of the method
+     * @param type      specifies the descriptor of the method
+     * @param code      specifies the bytecode of the method
+     * @param maxStack  specifies the max depth of the operand stack
+     * @param maxLocals specifies the number of local variables, including the parameters
+     * @throws PlanTooLargeException if the code is too long for a single method
+     */
+    private void method(Bytes methods, int access, String name, String type, Bytes code,
+                        int maxStack, int maxLocals) {
+      if (code.length > MAX_CODE_LENGTH) {
+        throw new PlanTooLargeException("Rules are too many to be generated.");
+      }
+      methods.u2(access).u2(utf8(name)).u2(utf8(type)).u2(1)
+          .u2(utf8("Code")).u4(12 + code.length).u2(maxStack).u2(maxLocals).u4(code.length)
+          .append(code).u2(0).u2(0);
+    }
+
+    /**
+     * Provides the index of a UTF-8 constant, adding it to the pool the first time.
+     *
+     * @param value specifies the value of the constant
+     * @return the index of the constant
+     */
+    private int utf8(String value) {
+      Integer index = constants.get("1:" + value);
+      if (index == null) {
+        pool.u1(1).utf(value);
+        index = add("1:" + value);
+      }
+      return index;
+    }
+
+    /**
+     * Provides the index of an integer constant, adding it to the pool the first time.
+     *
+     * @param value specifies the value of the constant
+     * @return the index of the constant
+     */
+    private int integer(int value) {
+      Integer index = constants.get("3:" + value);
+      if (index == null) {
+        pool.u1(3).u4(value);
+        index = add("3:" + value);
+      }
+      return index;
+    }
+
+    /**
+     * Provides the index of a class constant, adding it to the pool the first time.
+     *
+     * @param internalName specifies the internal name of the class
+     * @return the index of the constant
+     */
+    private int classRef(String internalName) {
+      int utf8 = utf8(internalName);
+      return constant("7:" + internalName, new Bytes().u1(7).u2(utf8));
+    }
+
+    /**
+     * Provides the index of a string constant, adding it to the pool the first time.
+     *
+     * @param value specifies the value of the constant
+     * @return the index of the constant
+     */
+    private int string(String value) {
+      int utf8 = utf8(value);
+      return constant("8:" + value, new Bytes().u1(8).u2(utf8));
+    }
+
+    /**
+     * Provides the index of a field, method or interface method constant, adding it to the pool
+     * the first time.
+     *
+     * @param tag    specifies the tag of the constant
+     * @param owner  specifies the internal name of the class that declares the member
+     * @param member specifies the name of the member
+     * @param type   specifies the descriptor of the member
+     * @return the index of the constant
+     */
+    private int memberRef(int tag, String owner, String member, String type) {
+      int owned = classRef(owner);
+      int nameUtf8 = utf8(member);
+      int typeUtf8 = utf8(type);
+      int nameAndType =
+          constant("12:" + member + ":" + type, new Bytes().u1(12).u2(nameUtf8).u2(typeUtf8));
+      return constant(tag + ":" + owner + "." + member + ":" + type,
+          new Bytes().u1(tag).u2(owned).u2(nameAndType));
+    }
+
+    /**
+     * Provides the index of a constant, adding its entry to the pool the first time.
+     *
+     * @param key   specifies the key that identifies the constant
+     * @param entry specifies the entry of the constant
+     * @return the index of the constant
+     */
+    private int constant(String key, Bytes entry) {
+      Integer index = constants.get(key);
+      if (index == null) {
+        pool.append(entry);
+        index = add(key);
+      }
+      return index;
+    }
+
+    /**
+     * Assigns the next index of the pool to a constant.
+     *
+     * @param key specifies the key that identifies the constant
+     * @return the index of the constant
+     */
+    private int add(String key) {
+      int index = constants.size() + 1;
+      constants.put(key, index);
+      return index;
+    }
+
+    /**
+     * Provides the internal name of a class, with slashes instead of dots.
+     *
+     * @param type specifies the class
+     * @return the internal name of the class
+     */
+    private static String internal(Class<?> type) {
+      return type.getName().replace('.', '/');
+    }
+  }
+
+  /**
+   * Specifies a growable array of big-endian bytes.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  static final class Bytes {
+
+    private byte[] data = new byte[64];
+    private int length;
+
+    /**
+     * Writes a byte.
+     *
+     * @param value specifies the byte, in its lowest 8 bits
+     * @return this {@code Bytes} object
+     */
+    Bytes u1(int value) {
+      ensure(1);
+      data[length++] = (byte) value;
+      return this;
+    }
+
+    /**
+     * Writes two bytes.
+     *
+     * @param value specifies the bytes, in their lowest 16 bits
+     * @return this {@code Bytes} object
+     */
+    Bytes u2(int value) {
+      return u1(value >>> 8).u1(value);
+    }
+
+    /**
+     * Writes four bytes.
+     *
+     * @param value specifies the bytes
+     * @return this {@code Bytes} object
+     */
+    Bytes u4(int value) {
+      return u2(value >>> 16).u2(value);
+    }
+
+    /**
+     * Writes a string in modified UTF-8, preceded by its length, as stored in a class file.
+     *
+     * @param value specifies the string
+     * @return this {@code Bytes} object
+     * @throws PlanTooLargeException if the string is too long
+     */
+    Bytes utf(String value) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length() + 2);
+      try {
+        new DataOutputStream(bytes).writeUTF(value);
+      } catch (IOException e) {
+        throw new PlanTooLargeException("Field name is too long.");
+      }
+      byte[] utf = bytes.toByteArray();
+      ensure(utf.length);
+      System.arraycopy(utf, 0, data, length, utf.length);
+      length += utf.length;
+      return this;
+    }
+
+    /**
+     * Writes the content of other bytes.
+     *
+     * @param bytes specifies the bytes to be written
+     * @return this {@code Bytes} object
+     */
+    Bytes append(Bytes bytes) {
+      ensure(bytes.length);
+      System.arraycopy(bytes.data, 0, data, length, bytes.length);
+      length += bytes.length;
+      return this;
+    }
+
+    /**
+     * Overwrites two bytes already written, such as the offset of a branch.
+     *
+     * @param index specifies the position of the first byte
+     * @param value specifies the bytes, in their lowest 16 bits
+     */
+    void patch(int index, int value) {
+      data[index] = (byte) (value >>> 8);
+      data[index + 1] = (byte) value;
+    }
+
+    /**
+     * Overwrites four bytes already written, such as the offset of a switch.
+     *
+     * @param index specifies the position of the first byte
+     * @param value specifies the bytes
+     */
+    void patch4(int index, int value) {
+      patch(index, value >>> 16);
+      patch(index + 2, value);
+    }
+
+    /**
+     * Grows the array, if needed, to hold more bytes.
+     *
+     * @param more specifies the number of bytes to be written
+     */
+    private void ensure(int more) {
+      if (length + more > data.length) {
+        data = Arrays.copyOf(data, Math.max(data.length * 2, length + more));
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Specifies an encoder for parameters that change by a few fields between encodings. It keeps the
+ * encoded segment, <b>name=value</b>, of every field of the last encoding, so when only some
+ * fields change, only those fields are encoded again and the segments are joined back together.
+ * The cost of an update depends on the changed fields instead of on the size of the parameters.
+ *
+ * <p>The encoding is the same as the one of the given {@link CompiledParamEncoder}. An instance
+ * keeps the state of a single collection of parameters and is not safe for concurrent use.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class IncrementalParamEncoder {
+
+  private static final char AND = '&';
+  private final CompiledParamEncoder encoder;
+  private final StringBuilder scratch = new StringBuilder();
+  private TreeMap<String, String> segments;
+  private String encoded = "";
+
+  /**
+   * Create a new instance of {@code IncrementalParamEncoder}.
+   *
+   * @param encoder specifies the encoder whose rules will be used to encode each field
+   */
+  public IncrementalParamEncoder(CompiledParamEncoder encoder) {
+    this.encoder = checkNotNull(encoder, "CompiledParamEncoder is missing.");
+  }
+
+  /**
+   * Performs the encoding of every field of a collection of {@link SortedMap} fields, keeping
+   * the segment of each field for later updates.
+   *
+   * @param data the collections of parameters that will be encoded
+   * @return the equivalent encoded {@link String}
+   */
+  public String encode(SortedMap<String, Object> data) {
+    checkNotNull(data, "SortedMap is missing.");
+    TreeMap<String, String> encodedSegments = new TreeMap<>(data.comparator());
+    for (Entry<String, Object> entry : data.entrySet()) {
+      String segment = segment(entry.getKey(), entry.getValue());
+      if (!segment.isEmpty()) {
+        encodedSegments.put(entry.getKey(), segment);
+      }
+    }
+    segments = encodedSegments;
+    encoded = join();
+    return encoded;
+  }
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields that changed since the last
+   * encoding, encoding again only the given fields. A changed field can be added, modified or
+   * removed. Every field is encoded if there is no previous encoding or if the parameters are
+   * sorted differently. The changed fields are all encoded before any segment is replaced, so if
+   * one of them cannot be encoded, the previous encoding is kept as it was.
+   *
+   * @param data        the collections of parameters that will be encoded
+   * @param changedKeys the names of the fields that changed since the last encoding
+   * @return the equivalent encoded {@link String}
+   */
+  public String update(SortedMap<String, Object> data, Collection<String> changedKeys) {
+    checkNotNull(data, "SortedMap is missing.");
+    checkNotNull(changedKeys, "Changed keys are missing.");
+    if (segments == null || !Objects.equals(segments.comparator(), data.comparator())) {
+      return encode(data);
+    }
+    Map<String, String> updated = new LinkedHashMap<>();
+    for (String key : changedKeys) {
+      updated.put(key, data.containsKey(key) ? segment(key, data.get(key)) : "");
+    }
+    boolean changed = false;
+    for (Entry<String, String> entry : updated.entrySet()) {
+      String segment = entry.getValue();
+      String previous = segment.isEmpty()
+          ? segments.remove(entry.getKey()) : segments.put(entry.getKey(), segment);
+      changed |= !segment.equals(previous == null ? "" : previous);
+    }
+    if (changed) {
+      encoded = join();
+    }
+    return encoded;
+  }
+
+  /**
+   * Encodes the segment of a single field.
+   *
+   * @param key   specifies the name of the field
+   * @param value specifies the value of the field
+   * @return the segment <b>name=value</b>, or an empty string if the field has no encoding
+   */
+  private String segment(String key, Object value) {
+    FieldEncoder field = encoder.fieldEncoder(key);
+    if (field == null) {
+      if (!encoder.isRuleDriven()) {
+        FieldEncoder.checkSupported(value);
+      }
+      return "";
+    }
+    if (!field.hasEncoding(value)) {
+      return "";
+    }
+    scratch.setLength(0);
+    try {
+      field.encodeTo(value, true, scratch);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return scratch.toString();
+  }
+
+  /**
+   * Joins the segments of all the fields.
+   *
+   * @return the encoded parameters
+   */
+  private String join() {
+    int length = 0;
+    for (String segment : segments.values()) {
+      length += segment.length() + 1;
+    }
+    StringBuilder resultString = new StringBuilder(length);
+    for (String segment : segments.values()) {
+      if (resultString.length() > 0) {
+        resultString.append(AND);
+      }
+      resultString.append(segment);
+    }
+    return resultString.toString();
+  }
+}
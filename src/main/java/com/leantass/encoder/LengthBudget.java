@@ -0,0 +1,103 @@
+package com.leantass.encoder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies the allocation of a length budget for a whole encoding. Each field is measured once;
+ * if the fields do not fit, they are visited from the lowest priority up, and among fields of the
+ * same priority from the last one written back. A string field is truncated by the exceeding
+ * length when it still keeps at least a character; any other field is dropped, so an array is
+ * always dropped whole rather than losing elements. The visit stops as soon as the fields fit, so
+ * the allocation is greedy and never encodes a field more than once.
+ *
+ * <p>The budget is measured either in UTF-16 characters or in UTF-8 bytes, the length of the
+ * encoding once written by {@link Utf8Appendable}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+final class LengthBudget {
+
+  private LengthBudget() {
+  }
+
+  /**
+   * Writes the given fields, truncating or dropping fields so the encoding takes at most the
+   * given length.
+   *
+   * @param fields    specifies the encoders of the fields to be written, in the order they are
+   *                  written; narrowed and dropped fields are replaced in place
+   * @param values    specifies the values of the fields, each with a non-empty encoding
+   * @param count     specifies the number of fields
+   * @param maxLength specifies the maximum length of the encoding
+   * @param unit      specifies the unit of the length, {@link WidthUnit#CHARS} or
+   *                  {@link WidthUnit#UTF8_BYTES}
+   * @param out       specifies the sink where the fields will be written
+   * @throws IOException if the sink cannot be written
+   */
+  static void encodeTo(final FieldEncoder[] fields, Object[] values, int count, int maxLength,
+                       WidthUnit unit, Appendable out) throws IOException {
+    int[] lengths = new int[count];
+    long overflow = -maxLength - 1L;
+    for (int i = 0; i < count; i++) {
+      lengths[i] = length(fields[i], values[i], unit);
+      overflow += lengths[i] + 1L;
+    }
+    int kept = count;
+    if (overflow > 0) {
+      Integer[] order = new Integer[count];
+      for (int i = 0; i < count; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer first, Integer second) {
+          int priority = Integer.compare(fields[first].getRule().getPriority(),
+              fields[second].getRule().getPriority());
+          return priority != 0 ? priority : Integer.compare(second, first);
+        }
+      });
+      for (int i = 0; i < count && overflow > 0; i++) {
+        int index = order[i];
+        FieldEncoder narrowed = ParamEncoderArray.isArray(values[index]) ? null : fields[index]
+            .narrow((int) (lengths[index] - fields[index].prefixLength(unit) - overflow), unit);
+        if (narrowed != null && narrowed.hasEncoding(values[index])) {
+          int length = length(narrowed, values[index], unit);
+          overflow -= lengths[index] - length;
+          fields[index] = narrowed;
+          lengths[index] = length;
+        } else {
+          overflow -= lengths[index] + (kept > 1 ? 1 : 0);
+          fields[index] = null;
+          kept--;
+        }
+      }
+    }
+    boolean first = true;
+    for (int i = 0; i < count; i++) {
+      if (fields[i] != null) {
+        fields[i].encodeTo(values[i], first, out);
+        first = false;
+      }
+    }
+  }
+
+  /**
+   * Measures the <b>name=value</b> segment of a field.
+   *
+   * @param field specifies the encoder of the field
+   * @param value specifies the value of the field
+   * @param unit  specifies the unit of the length
+   * @return the length of the segment
+   * @throws IOException if the sink cannot be written
+   */
+  private static int length(FieldEncoder field, Object value, WidthUnit unit)
+      throws IOException {
+    EncodedLength length = new EncodedLength();
+    field.encodeTo(value, true, length);
+    return unit == WidthUnit.CHARS ? length.chars() : length.bytes();
+  }
+}
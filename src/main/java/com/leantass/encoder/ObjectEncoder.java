@@ -0,0 +1,32 @@
+package com.leantass.encoder;
+
+import java.io.IOException;
+
+/**
+ * Specifies the behavior to encode the fields of an object, such as the encoders generated by
+ * {@link EncodedFieldProcessor}. The encoding is the same as the one of a {@link ParamEncoder}
+ * given the fields of the object as parameters.
+ *
+ * @param <T> the type of the encoded objects
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public interface ObjectEncoder<T> {
+
+  /**
+   * Performs the encoding of the fields of an object.
+   *
+   * @param value the object whose fields will be encoded
+   * @return the equivalent encoded {@link String}
+   */
+  String encode(T value);
+
+  /**
+   * Performs the encoding of the fields of an object, writing the result straight into the given
+   * sink.
+   *
+   * @param value the object whose fields will be encoded
+   * @param out   the sink where the encoded fields will be written
+   * @throws IOException if the sink cannot be written
+   */
+  void encodeTo(T value, Appendable out) throws IOException;
+}
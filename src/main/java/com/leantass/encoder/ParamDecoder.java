@@ -0,0 +1,364 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+
+import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Specifies the behavior to decode the parameters encoded by a {@link ParamEncoder}, for instance
+ * <b>int2=99&amp;array1=[AB,CD]</b>. The values are typed according to the rule of each field:
+ *
+ * <ul>
+ *   <li>{@link ParamEncoder.TruncationStyle#INTEGER} values are decoded as {@link Integer}, or as
+ *   {@link Long} or {@link BigInteger} if they do not fit</li>
+ *   <li>String values are decoded as {@link String}</li>
+ *   <li>Arrays are decoded as {@code long[]} with the
+ *   {@link ParamEncoder.TruncationStyle#INTEGER} style and as {@code String[]} otherwise</li>
+ *   <li>Fields without a rule are decoded as {@link String}, or {@code String[]} if their value
+ *   is enclosed in square brackets</li>
+ * </ul>
+ *
+ * Names and values of {@link RuleEncoder#isUrlSafe() URL-safe} rules are percent-decoded. Values
+ * encoded without escaping that contain <b>&amp;</b>, or <b>,</b> within an array, cannot be told
+ * apart from the delimiters and are not decoded back as they were.
+ *
+ * <p>The encoding is tokenized in place, without copying it, and only the decoded names and
+ * values are created. {@link #view(CharSequence)} goes further and only decodes the values that
+ * are actually accessed.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class ParamDecoder {
+
+  private static final int MAX_SAFE_DIGITS = 18;
+  private final ImmutableMap<String, RuleEncoder> rules;
+
+  /**
+   * Create a new instance of {@code ParamDecoder}.
+   *
+   * @param rules specifies the rules used to encode the parameters, by field name
+   */
+  public ParamDecoder(Map<String, RuleEncoder> rules) {
+    this.rules = ImmutableMap.copyOf(checkNotNull(rules, "Rules are missing."));
+  }
+
+  /**
+   * Performs the decoding of all the fields of an encoding.
+   *
+   * @param encoded the encoded parameters
+   * @return the decoded parameters, sorted by name
+   * @throws IllegalArgumentException if the encoding is malformed
+   */
+  public SortedMap<String, Object> decode(CharSequence encoded) {
+    checkNotNull(encoded, "Encoding is missing.");
+    SortedMap<String, Object> decoded = new TreeMap<>();
+    ParamTokenizer tokenizer = new ParamTokenizer(encoded);
+    while (tokenizer.next()) {
+      String key = decodeKey(encoded, tokenizer.keyStart(), tokenizer.keyEnd());
+      decoded.put(key, decodeValue(encoded, tokenizer.valueStart(), tokenizer.valueEnd(),
+          rules.get(key)));
+    }
+    return decoded;
+  }
+
+  /**
+   * Provides a lazy view of the fields of an encoding. The encoding is tokenized once, keeping
+   * only the bounds of each field, and a value is decoded the first time it is accessed. The
+   * view is unmodifiable and not safe for concurrent use, and the encoding should not change
+   * while the view is in use.
+   *
+   * @param encoded the encoded parameters
+   * @return a lazy view of the decoded parameters, in the order they were encoded
+   * @throws IllegalArgumentException if the encoding is malformed
+   */
+  public Map<String, Object> view(CharSequence encoded) {
+    checkNotNull(encoded, "Encoding is missing.");
+    return new LazyView(encoded);
+  }
+
+  /**
+   * Decodes the name of a field, which is percent-decoded only if it belongs to a URL-safe rule.
+   *
+   * @param encoded specifies the encoded parameters
+   * @param start   specifies the index of the first character of the name
+   * @param end     specifies the index that follows the last character of the name
+   * @return the decoded name
+   */
+  private String decodeKey(CharSequence encoded, int start, int end) {
+    String key = encoded.subSequence(start, end).toString();
+    if (!rules.containsKey(key) && ParamTokenizer.indexOf(encoded, '%', start, end) < end) {
+      String unescaped = PercentEncoding.decode(encoded, start, end);
+      RuleEncoder rule = rules.get(unescaped);
+      if (rule != null && rule.isUrlSafe()) {
+        return unescaped;
+      }
+    }
+    return key;
+  }
+
+  /**
+   * Decodes the value of a field.
+   *
+   * @param encoded specifies the encoded parameters
+   * @param start   specifies the index of the first character of the value
+   * @param end     specifies the index that follows the last character of the value
+   * @param rule    specifies the rule of the field, if any
+   * @return the decoded value
+   */
+  private static Object decodeValue(CharSequence encoded, int start, int end, RuleEncoder rule) {
+    boolean array = ParamTokenizer.isArray(encoded, start, end)
+        && (rule == null || rule.getArrayWidth() > 0);
+    if (rule != null && rule.getStyle() == INTEGER) {
+      return array ? decodeNumbers(encoded, start, end) : decodeInteger(encoded, start, end);
+    }
+    boolean urlSafe = rule != null && rule.isUrlSafe();
+    return array ? decodeStrings(encoded, start, end, urlSafe)
+        : decodeString(encoded, start, end, urlSafe);
+  }
+
+  /**
+   * Decodes a string, percent-decoding it if it was encoded by a URL-safe rule.
+   *
+   * @param encoded specifies the encoded parameters
+   * @param start   specifies the index of the first character of the string
+   * @param end     specifies the index that follows the last character of the string
+   * @param urlSafe specifies whether the string is percent-encoded
+   * @return the decoded string
+   */
+  private static String decodeString(CharSequence encoded, int start, int end, boolean urlSafe) {
+    return urlSafe ? PercentEncoding.decode(encoded, start, end)
+        : encoded.subSequence(start, end).toString();
+  }
+
+  /**
+   * Decodes an array of strings, including its brackets.
+   *
+   * @param encoded specifies the encoded parameters
+   * @param start   specifies the index of the opening bracket
+   * @param end     specifies the index that follows the closing bracket
+   * @param urlSafe specifies whether the elements are percent-encoded
+   * @return the decoded elements
+   */
+  private static String[] decodeStrings(CharSequence encoded, int start, int end,
+                                        boolean urlSafe) {
+    String[] elements = new String[ParamTokenizer.countElements(encoded, start, end)];
+    int elementStart = start + 1;
+    for (int i = 0; i < elements.length; i++) {
+      int elementEnd = ParamTokenizer.indexOf(encoded, ParamTokenizer.DELIMITER, elementStart,
+          end - 1);
+      elements[i] = decodeString(encoded, elementStart, elementEnd, urlSafe);
+      elementStart = elementEnd + 1;
+    }
+    return elements;
+  }
+
+  /**
+   * Decodes an array of numbers, including its brackets.
+   *
+   * @param encoded specifies the encoded parameters
+   * @param start   specifies the index of the opening bracket
+   * @param end     specifies the index that follows the closing bracket
+   * @return the decoded elements
+   */
+  private static long[] decodeNumbers(CharSequence encoded, int start, int end) {
+    long[] elements = new long[ParamTokenizer.countElements(encoded, start, end)];
+    int elementStart = start + 1;
+    for (int i = 0; i < elements.length; i++) {
+      int elementEnd = ParamTokenizer.indexOf(encoded, ParamTokenizer.DELIMITER, elementStart,
+          end - 1);
+      Object element = decodeInteger(encoded, elementStart, elementEnd);
+      checkArgument(!(element instanceof BigInteger), "Encoding is malformed.");
+      elements[i] = ((Number) element).longValue();
+      elementStart = elementEnd + 1;
+    }
+    return elements;
+  }
+
+  /**
+   * Decodes an integer straight from its digits. Only integers with more than 18 digits, which
+   * might not fit in a long, go through a {@link String}.
+   *
+   * @param encoded specifies the encoded parameters
+   * @param start   specifies the index of the first character of the integer
+   * @param end     specifies the index that follows the last character of the integer
+   * @return the decoded {@link Integer}, {@link Long} or {@link BigInteger}
+   * @throws IllegalArgumentException if the range is not an integer
+   */
+  static Object decodeInteger(CharSequence encoded, int start, int end) {
+    boolean negative = start < end && encoded.charAt(start) == '-';
+    int first = negative ? start + 1 : start;
+    checkArgument(first < end, "Encoding is malformed.");
+    if (end - first > MAX_SAFE_DIGITS) {
+      BigInteger value;
+      try {
+        value = new BigInteger(encoded.subSequence(start, end).toString());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Encoding is malformed.", e);
+      }
+      return value.bitLength() < Long.SIZE ? (Object) value.longValue() : value;
+    }
+    long value = 0;
+    for (int i = first; i < end; i++) {
+      int digit = encoded.charAt(i) - '0';
+      checkArgument(digit >= 0 && digit <= 9, "Encoding is malformed.");
+      value = value * 10 + digit;
+    }
+    value = negative ? -value : value;
+    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+      return (int) value;
+    }
+    return value;
+  }
+
+  /**
+   * Lazy view of the fields of an encoding.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  private final class LazyView extends AbstractMap<String, Object> {
+
+    private static final int KEY_START = 0;
+    private static final int KEY_END = 1;
+    private static final int VALUE_START = 2;
+    private static final int VALUE_END = 3;
+    private static final int BOUNDS = 4;
+    private final CharSequence encoded;
+    private final int[] bounds;
+    private final String[] keys;
+    private final Object[] values;
+    private final boolean[] decoded;
+
+    private LazyView(CharSequence encoded) {
+      this.encoded = encoded;
+      int size = ParamTokenizer.countFields(encoded);
+      this.bounds = new int[size * BOUNDS];
+      this.keys = new String[size];
+      this.values = new Object[size];
+      this.decoded = new boolean[size];
+      ParamTokenizer tokenizer = new ParamTokenizer(encoded);
+      for (int i = 0; tokenizer.next(); i++) {
+        bounds[i * BOUNDS + KEY_START] = tokenizer.keyStart();
+        bounds[i * BOUNDS + KEY_END] = tokenizer.keyEnd();
+        bounds[i * BOUNDS + VALUE_START] = tokenizer.valueStart();
+        bounds[i * BOUNDS + VALUE_END] = tokenizer.valueEnd();
+      }
+    }
+
+    @Override
+    public int size() {
+      return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+      int index = indexOf(key);
+      return index < 0 ? null : value(index);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public int size() {
+          return keys.length;
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new Iterator<Entry<String, Object>>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+              return index < keys.length;
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              int current = index++;
+              return new SimpleImmutableEntry<>(key(current), value(current));
+            }
+
+            @Override
+            public void remove() {
+              throw new UnsupportedOperationException("Operation is not supported.");
+            }
+          };
+        }
+      };
+    }
+
+    /**
+     * Finds a field by name, comparing the name with the encoding in place.
+     *
+     * @param key specifies the name of the field
+     * @return the position of the field, or -1 if it is not found
+     */
+    private int indexOf(Object key) {
+      if (!(key instanceof String)) {
+        return -1;
+      }
+      String name = (String) key;
+      RuleEncoder rule = rules.get(name);
+      if (rule != null && rule.isUrlSafe()) {
+        name = PercentEncoding.escape(name);
+      }
+      for (int i = 0; i < keys.length; i++) {
+        if (ParamTokenizer.regionEquals(encoded, bounds[i * BOUNDS + KEY_START],
+            bounds[i * BOUNDS + KEY_END], name)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Provides the decoded name of a field, decoding it the first time.
+     *
+     * @param index specifies the position of the field
+     * @return the decoded name of the field
+     */
+    private String key(int index) {
+      if (keys[index] == null) {
+        keys[index] = decodeKey(encoded, bounds[index * BOUNDS + KEY_START],
+            bounds[index * BOUNDS + KEY_END]);
+      }
+      return keys[index];
+    }
+
+    /**
+     * Provides the decoded value of a field, decoding it the first time.
+     *
+     * @param index specifies the position of the field
+     * @return the decoded value of the field
+     */
+    private Object value(int index) {
+      if (!decoded[index]) {
+        values[index] = decodeValue(encoded, bounds[index * BOUNDS + VALUE_START],
+            bounds[index * BOUNDS + VALUE_END], rules.get(key(index)));
+        decoded[index] = true;
+      }
+      return values[index];
+    }
+  }
+}
@@ -1,11 +1,15 @@
 package com.leantass.encoder;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Map;
 import java.util.SortedMap;
 
 /**
  * Specifies the behavior to encode a {@link SortedMap} of parameters. The parameters could be
- * specified as {@link Integer} or {@link String}. For example, consider a field <b>x</b> with
- * maxWidth of 2 using this encoding:
+ * specified as {@link Integer}, {@link Long}, {@link java.math.BigInteger} or {@link String}. For
+ * example, consider a field <b>x</b> with maxWidth of 2 using this encoding:
  *
  * <ol>
  *   <li> Integer ({@link TruncationStyle#INTEGER}):
@@ -51,6 +55,10 @@ import java.util.SortedMap;
  *   all subsequent elements are dropped from the output</li>
  * </ul>
  *
+ * Arrays of numbers, specified as {@code int[]}, {@code long[]}, {@code Integer[]} or
+ * {@code Long[]}, are encoded the same way using the
+ * {@link ParamEncoder.TruncationStyle#INTEGER} truncation style for each element.
+ *
  * @author jovanimtzrico@gmail.com (Jovani Rico)
  */
 public interface ParamEncoder {
@@ -107,4 +115,114 @@ public interface ParamEncoder {
    * @return the equivalent encoded {@link String}
    */
   String encode(SortedMap<String, Object> data);
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields, writing the result straight
+   * into the given sink in a single pass, without creating intermediate strings.
+   *
+   * @param data the collections of parameters that will be encoded
+   * @param out  the sink where the encoded parameters will be written
+   * @throws IOException if the sink cannot be written
+   */
+  void encodeTo(SortedMap<String, Object> data, Appendable out) throws IOException;
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields, writing the result straight
+   * into the given buffer in a single pass, without creating intermediate strings.
+   *
+   * @param data the collections of parameters that will be encoded
+   * @param out  the buffer where the encoded parameters will be written
+   * @throws java.nio.BufferOverflowException if the buffer has not enough remaining space
+   */
+  void encodeTo(SortedMap<String, Object> data, CharBuffer out);
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields, writing the result straight
+   * into the given buffer as UTF-8 bytes in a single pass, without creating intermediate strings.
+   *
+   * @param data the collections of parameters that will be encoded
+   * @param out  the buffer where the encoded parameters will be written
+   * @throws java.nio.BufferOverflowException if the buffer has not enough remaining space
+   * @see Utf8Appendable
+   */
+  void encodeTo(SortedMap<String, Object> data, ByteBuffer out);
+
+  /**
+   * Computes the largest number of characters that an encoding can take with the current rules,
+   * when every field with a rule is present and takes its whole width.
+   *
+   * @return the worst-case number of characters
+   */
+  int maxLength();
+
+  /**
+   * Computes the largest number of UTF-8 bytes that an encoding can take with the current rules,
+   * for instance to reserve the space of a {@link ByteBuffer} ahead of encoding.
+   *
+   * @return the worst-case number of bytes
+   */
+  int maxByteLength();
+
+  /**
+   * Computes the exact number of characters of the encoding of a collection of
+   * {@link SortedMap} fields, without producing it.
+   *
+   * @param data the collections of parameters that will be measured
+   * @return the number of characters of the encoding
+   */
+  int encodedLength(SortedMap<String, Object> data);
+
+  /**
+   * Computes the exact number of UTF-8 bytes of the encoding of a collection of
+   * {@link SortedMap} fields, as written by {@link #encodeTo(SortedMap, ByteBuffer)}, without
+   * producing it.
+   *
+   * @param data the collections of parameters that will be measured
+   * @return the number of bytes of the encoding
+   */
+  int encodedByteLength(SortedMap<String, Object> data);
+
+  /**
+   * Performs the encoding of a collection of {@link Map} fields in any order. The fields are
+   * written in the natural order of their names, following the names of the rules, which are
+   * already sorted, so the parameters never need to be sorted.
+   *
+   * @param data the collections of parameters that will be encoded
+   * @return the equivalent encoded {@link String}
+   */
+  String encode(Map<String, Object> data);
+
+  /**
+   * Performs the encoding of a collection of {@link Map} fields in any order, writing the result
+   * straight into the given sink. The fields are written in the natural order of their names.
+   *
+   * @param data the collections of parameters that will be encoded
+   * @param out  the sink where the encoded parameters will be written
+   * @throws IOException if the sink cannot be written
+   */
+  void encodeTo(Map<String, Object> data, Appendable out) throws IOException;
+
+  /**
+   * Performs the encoding of fields given as parallel arrays of names and values in any order.
+   * The fields are written in the natural order of their names.
+   *
+   * @param keys   the names of the parameters that will be encoded
+   * @param values the values of the parameters, at the same position as their names
+   * @return the equivalent encoded {@link String}
+   * @throws IllegalArgumentException if the arrays have different lengths or a name is repeated
+   */
+  String encode(String[] keys, Object[] values);
+
+  /**
+   * Performs the encoding of fields given as parallel arrays of names and values in any order,
+   * writing the result straight into the given sink. The fields are written in the natural order
+   * of their names.
+   *
+   * @param keys   the names of the parameters that will be encoded
+   * @param values the values of the parameters, at the same position as their names
+   * @param out    the sink where the encoded parameters will be written
+   * @throws IOException              if the sink cannot be written
+   * @throws IllegalArgumentException if the arrays have different lengths or a name is repeated
+   */
+  void encodeTo(String[] keys, Object[] values, Appendable out) throws IOException;
 }
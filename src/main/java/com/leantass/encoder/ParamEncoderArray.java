@@ -2,17 +2,21 @@ package com.leantass.encoder;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.IOException;
 import java.util.Map.Entry;
 import java.util.Objects;
 
 import com.google.common.annotations.VisibleForTesting;
 
 /**
- * Specifies the behavior to encode arrays. The arrays are encoded as comma-separated values
- * enclosed by square brackets. Each element of the array is to be encoded in the given
+ * Specifies the behavior to encode arrays of {@link String}, or arrays of numbers such as
+ * {@code int[]}, {@code long[]}, {@code Integer[]} and {@code Long[]} using the
+ * {@link ParamEncoder.TruncationStyle#INTEGER} style. The arrays are encoded as comma-separated
+ * values enclosed by square brackets. Each element of the array is to be encoded in the given
  * TruncationStyle, with no element taking more than {@link RuleEncoder#getWidth()} characters.
  * The array as a whole, including the square brackets and the separator commas, should not take
  * more than {@link RuleEncoder#getArrayWidth()} characters. For example, consider an array field
@@ -34,7 +38,6 @@ public class ParamEncoderArray {
   private static final String START = "[";
   private static final String END = "]";
   private static final String DELIMITER = ",";
-  private static final String EMPTY_ENCODING = "[]";
   private final ParamEncoderObject paramEncoderObject;
 
   /**
@@ -68,7 +71,7 @@ public class ParamEncoderArray {
    */
   public String encode(Entry<String, Object> entry, @Nullable RuleEncoder rule) {
     checkNotNull(entry, "Entry is missing.");
-    checkArgument(isEncodingSupported(entry), "Encoding is not supported.");
+    checkArgument(isEncodingSupported(entry, rule), "Encoding is not supported.");
     String resultString = "";
     if (rule != null) {
       resultString = encodeArray(entry, rule);
@@ -77,15 +80,221 @@ public class ParamEncoderArray {
   }
 
   /**
-   * Verifies if a given {@code Entry<String, Object>} can be encoded.
+   * Encode the provided array using a given rule, writing the result straight into the given sink
+   * instead of creating a {@link String}. The length of each element is computed before it is
+   * written, so only the elements that fit in {@link RuleEncoder#getArrayWidth()} are written.
+   * Nothing is written if the rule is missing or the encoding is empty.
+   *
+   * @param entry specifies the array parameter to be encoded
+   * @param rule  specifies the rule that will be used to encode the array
+   * @param out   specifies the sink where the encoded array will be written
+   * @throws IOException if the sink cannot be written
+   */
+  public void encodeTo(Entry<String, Object> entry, @Nullable RuleEncoder rule, Appendable out)
+      throws IOException {
+    checkNotNull(out, "Appendable is missing.");
+    if (hasEncoding(entry, rule)) {
+      appendArray(entry.getValue(), rule, out);
+    }
+  }
+
+  /**
+   * Verifies if encoding a given {@code Entry<String, Object>} produces any output, that is, if
+   * a non-empty element fits in {@link RuleEncoder#getArrayWidth()} before the first element that
+   * does not fit.
+   *
+   * @param entry specifies the entry to be evaluated
+   * @param rule  specifies the rule that will be used to encode the array
+   * @return <b>true</b> if the encoding is not empty. Otherwise, will return <b>false</b>.
+   * @throws IllegalArgumentException if the entry cannot be encoded
+   */
+  boolean hasEncoding(Entry<String, Object> entry, @Nullable RuleEncoder rule) {
+    checkNotNull(entry, "Entry is missing.");
+    checkArgument(isEncodingSupported(entry, rule), "Encoding is not supported.");
+    if (rule == null) {
+      return false;
+    }
+    if (isNumericArray(entry.getValue())) {
+      return hasNumbers(entry.getValue(), rule);
+    }
+    for (String element : (String[]) entry.getValue()) {
+      int elementLength = elementLength(element, rule);
+      if (START.length() + elementLength + 2 > rule.getArrayWidth()) {
+        return false;
+      }
+      if (elementLength > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Computes the length of the encoding of a given element without producing it.
+   *
+   * @param element specifies the element to be measured
+   * @param rule    specifies the rule that will be used to encode the element
+   * @return the width of the encoded element, measured in the unit of the rule
+   */
+  private int elementLength(String element, RuleEncoder rule) {
+    checkNotNull(element, "Value is missing.");
+    return paramEncoderObject.encodedLength(element, rule);
+  }
+
+  /**
+   * Verifies if a given {@code Entry<String, Object>} can be encoded. Numeric arrays can only be
+   * encoded using the {@link ParamEncoder.TruncationStyle#INTEGER} style.
    *
    * @param entry specifies the entry to be evaluated
+   * @param rule  specifies the rule that will be used to encode the array
    * @return <b>true</b> if the given entry can be encoded. Otherwise, will return <b>false</b>.
    */
-  private boolean isEncodingSupported(Entry<String, Object> entry) {
+  private boolean isEncodingSupported(Entry<String, Object> entry, @Nullable RuleEncoder rule) {
+    if (isNumericArray(entry.getValue())) {
+      return rule == null || rule.getStyle() == INTEGER;
+    }
     return entry.getValue() instanceof String[];
   }
 
+  /**
+   * Verifies if a given value should be encoded as an array, that is, if it is an array of
+   * objects or an array of primitive {@code int} or {@code long}.
+   *
+   * @param value specifies the value to be evaluated
+   * @return <b>true</b> if the value is an array. Otherwise, will return <b>false</b>.
+   */
+  static boolean isArray(Object value) {
+    return value instanceof Object[] || value instanceof int[] || value instanceof long[];
+  }
+
+  /**
+   * Verifies if a given value is an array of numbers, either {@code int[]}, {@code long[]},
+   * {@code Integer[]} or {@code Long[]}.
+   *
+   * @param value specifies the value to be evaluated
+   * @return <b>true</b> if the value is an array of numbers. Otherwise, will return <b>false</b>.
+   */
+  static boolean isNumericArray(Object value) {
+    return value instanceof int[] || value instanceof long[] || value instanceof Integer[]
+        || value instanceof Long[];
+  }
+
+  /**
+   * Verifies if encoding a given array of numbers produces any output, that is, if its first
+   * element fits in {@link RuleEncoder#getArrayWidth()}.
+   *
+   * @param array specifies the array of numbers to be evaluated
+   * @param rule  specifies the rule that will be used to encode the array
+   * @return <b>true</b> if the encoding is not empty. Otherwise, will return <b>false</b>.
+   */
+  static boolean hasNumbers(Object array, RuleEncoder rule) {
+    return numericLength(array) > 0 && START.length()
+        + ParamEncoderObject.integerLength(ParamEncoderObject.clamp(numberAt(array, 0), rule))
+        + 2 <= rule.getArrayWidth();
+  }
+
+  /**
+   * Writes the elements of the given array of numbers that fit in
+   * {@link RuleEncoder#getArrayWidth()}, reading each one as a primitive {@code long} so neither
+   * boxing nor string conversion is needed.
+   *
+   * @param array specifies the array of numbers to be encoded
+   * @param rule  specifies the rule that will be used to encode the array
+   * @param out   specifies the sink where the encoded array will be written
+   * @throws IOException if the sink cannot be written
+   */
+  static void appendNumbers(Object array, RuleEncoder rule, Appendable out) throws IOException {
+    int length = START.length();
+    out.append(START);
+    int size = numericLength(array);
+    for (int i = 0; i < size && length + 3 <= rule.getArrayWidth(); i++) {
+      long value = ParamEncoderObject.clamp(numberAt(array, i), rule);
+      int elementLength = ParamEncoderObject.integerLength(value);
+      if (length + elementLength + 2 > rule.getArrayWidth()) {
+        break;
+      }
+      if (length > START.length()) {
+        out.append(DELIMITER);
+        length++;
+      }
+      ParamEncoderObject.appendInteger(value, out);
+      length += elementLength;
+    }
+    out.append(END);
+  }
+
+  /**
+   * Counts the elements of the given array that fit in {@link RuleEncoder#getArrayWidth()}, that
+   * is, the elements that are written when the array is encoded.
+   *
+   * @param array specifies the array to be evaluated
+   * @param rule  specifies the rule that will be used to encode the array
+   * @return the number of elements written
+   */
+  int keptElements(Object array, RuleEncoder rule) {
+    int length = START.length();
+    int size = size(array);
+    boolean numeric = isNumericArray(array);
+    int kept = 0;
+    while (kept < size && length + 3 <= rule.getArrayWidth()) {
+      int elementLength = numeric
+          ? ParamEncoderObject.integerLength(ParamEncoderObject.clamp(numberAt(array, kept), rule))
+          : elementLength(((String[]) array)[kept], rule);
+      if (length + elementLength + 2 > rule.getArrayWidth()) {
+        break;
+      }
+      if (length > START.length()) {
+        length++;
+      }
+      length += elementLength;
+      kept++;
+    }
+    return kept;
+  }
+
+  /**
+   * Provides the number of elements of an array of strings or numbers.
+   *
+   * @param array specifies the array
+   * @return the number of elements of the array
+   */
+  static int size(Object array) {
+    return isNumericArray(array) ? numericLength(array) : ((Object[]) array).length;
+  }
+
+  /**
+   * Provides the number of elements of an array of numbers.
+   *
+   * @param array specifies the array of numbers
+   * @return the number of elements of the array
+   */
+  private static int numericLength(Object array) {
+    if (array instanceof int[]) {
+      return ((int[]) array).length;
+    }
+    if (array instanceof long[]) {
+      return ((long[]) array).length;
+    }
+    return ((Object[]) array).length;
+  }
+
+  /**
+   * Provides an element of an array of numbers as a primitive {@code long}.
+   *
+   * @param array specifies the array of numbers
+   * @param index specifies the position of the element
+   * @return the element at the given position
+   */
+  private static long numberAt(Object array, int index) {
+    if (array instanceof int[]) {
+      return ((int[]) array)[index];
+    }
+    if (array instanceof long[]) {
+      return ((long[]) array)[index];
+    }
+    return checkNotNull((Number) ((Object[]) array)[index], "Value is missing.").longValue();
+  }
+
   /**
    * Encode the provided array using a given rule.
    *
@@ -95,25 +304,65 @@ public class ParamEncoderArray {
    */
   private String encodeArray(Entry<String, Object> entry, RuleEncoder rule) {
     checkNotNull(rule, "Rule is missing.");
-    StringBuilder resultString = new StringBuilder(START);
-    String[] array = (String[]) entry.getValue();
-    for (String string : array) {
-      String result =
-          paramEncoderObject.encode(new ElementEntry(entry.getKey(), string), rule);
-      if (resultString.length() + result.length() + 2 <= rule.getArrayWidth()) {
-        if (resultString.length() > 1) {
-          resultString.append(DELIMITER);
-        }
-        resultString.append(result);
-      } else {
+    if (!hasEncoding(entry, rule)) {
+      return "";
+    }
+    StringBuilder resultString = new StringBuilder(rule.getArrayWidth());
+    try {
+      appendArray(entry.getValue(), rule, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  /**
+   * Writes the elements of the given array that fit in {@link RuleEncoder#getArrayWidth()}.
+   *
+   * @param array specifies the array to be encoded
+   * @param rule  specifies the rule that will be used to encode the array
+   * @param out   specifies the sink where the encoded array will be written
+   * @throws IOException if the sink cannot be written
+   */
+  private void appendArray(Object array, RuleEncoder rule, Appendable out) throws IOException {
+    if (isNumericArray(array)) {
+      appendNumbers(array, rule, out);
+    } else {
+      appendStrings((String[]) array, rule, out);
+    }
+  }
+
+  /**
+   * Writes the elements of the given array of strings that fit in
+   * {@link RuleEncoder#getArrayWidth()}. The length of each element is computed arithmetically
+   * before it is written, and the scanning stops as soon as the remaining width cannot hold even a
+   * one-character element.
+   *
+   * @param array specifies the array to be encoded
+   * @param rule  specifies the rule that will be used to encode the array
+   * @param out   specifies the sink where the encoded array will be written
+   * @throws IOException if the sink cannot be written
+   */
+  private void appendStrings(String[] array, RuleEncoder rule, Appendable out)
+      throws IOException {
+    int length = START.length();
+    out.append(START);
+    for (String element : array) {
+      if (length + 3 > rule.getArrayWidth()) {
         break;
       }
+      int elementLength = elementLength(element, rule);
+      if (length + elementLength + 2 > rule.getArrayWidth()) {
+        break;
+      }
+      if (length > START.length()) {
+        out.append(DELIMITER);
+        length++;
+      }
+      paramEncoderObject.appendValue(element, rule, out);
+      length += elementLength;
     }
-    String encodedString = resultString.append(END).toString();
-    if (encodedString.equals(EMPTY_ENCODING)) {
-      encodedString = "";
-    }
-    return encodedString;
+    out.append(END);
   }
 
   /**
@@ -1,15 +1,33 @@
 package com.leantass.encoder;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
 
+import com.google.common.collect.Maps;
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
 /**
- * Specifies the implementation to encode a collection {@link SortedMap} parameters.
+ * Specifies the implementation to encode a collection {@link SortedMap} parameters. In URL-safe
+ * mode every rule is applied as {@link RuleEncoder#isUrlSafe() URL-safe}, so names and values are
+ * percent-encoded while the <b>&amp; = [ , ]</b> delimiters are written as they are.
+ *
+ * <p>An {@link EncodingListener} can be set to observe the truncations, clamps, dropped elements
+ * and skipped fields of each encoding. While no listener is set, nothing is measured.
+ *
+ * <p>In rule-driven mode the fields without a rule are ignored instead of verified, and when the
+ * parameters hold many more fields than there are rules, only the fields of the rules are looked
+ * up in the parameters.
  *
  * @author jovanimtzrico@gmail.com (Jovani Rico)
  */
@@ -20,6 +38,12 @@ public class ParamEncoderImpl implements ParamEncoder {
   private final Map<String, RuleEncoder> rules = new HashMap<>();
   private final ParamEncoderObject paramEncoderObject;
   private final ParamEncoderArray paramEncoderArray;
+  private boolean urlSafe;
+  private EncodingListener listener;
+  private SortedKeys sortedKeys;
+  private int maxLength = -1;
+  private int maxByteLength = -1;
+  private boolean ruleDriven;
 
   /**
    * Create a new instance of {@code ParamEncoderImpl}.
@@ -27,6 +51,7 @@ public class ParamEncoderImpl implements ParamEncoder {
    * @param paramEncoderObject specifies the encoder that will be used to encode {@link Integer}
    *                           and {@link String}
    * @param paramEncoderArray specifies the encoded that will be used to encode {@code String[]}
+   *                          and arrays of numbers
    */
   @Inject
   public ParamEncoderImpl(ParamEncoderObject paramEncoderObject,
@@ -40,6 +65,7 @@ public class ParamEncoderImpl implements ParamEncoder {
                                      int maxWidth) {
     RuleEncoder newRule = RuleEncoder.Builder.builder(style).width(maxWidth).build();
     rules.put(fieldName, newRule);
+    invalidate();
   }
 
   @Override
@@ -48,26 +74,571 @@ public class ParamEncoderImpl implements ParamEncoder {
     RuleEncoder newRule = RuleEncoder.Builder.builder(elemStyle).width(maxElemWidth)
         .arrayWidth(maxArrayWidth).build();
     rules.put(fieldName, newRule);
+    invalidate();
+  }
+
+  /**
+   * Specifies a rule built with {@link RuleEncoder.Builder} for a given field, for instance one
+   * whose widths are measured in bytes.
+   *
+   * @param fieldName specifies the name of the field in which the rule will be applied
+   * @param rule      specifies the rule to be applied
+   */
+  public void addTruncationRule(String fieldName, RuleEncoder rule) {
+    rules.put(fieldName, checkNotNull(rule, "Rule is missing."));
+    invalidate();
+  }
+
+  /**
+   * Specifies whether every rule, including the ones added afterwards, will be applied as
+   * URL-safe, percent-encoding the names and values of the fields in a single pass.
+   *
+   * @param urlSafe specifies whether the encoding will be URL-safe
+   */
+  public void setUrlSafe(boolean urlSafe) {
+    this.urlSafe = urlSafe;
+    invalidate();
+  }
+
+  /**
+   * Specifies whether the encoding will be driven by the rules. Fields without a rule are then
+   * ignored without being verified, so values that cannot be encoded do not fail as long as their
+   * fields have no rule.
+   *
+   * @param ruleDriven specifies whether the encoding will be driven by the rules
+   */
+  public void setRuleDriven(boolean ruleDriven) {
+    this.ruleDriven = ruleDriven;
+    invalidate();
+  }
+
+  /**
+   * Specifies the listener of the events of the encodings, or <b>null</b> to stop observing them.
+   *
+   * @param listener specifies the listener to be invoked for every encoded field
+   */
+  public void setEncodingListener(@Nullable EncodingListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Compiles the rules added so far into an immutable encoder. Rules added afterwards do not
+   * affect the compiled encoder.
+   *
+   * @return a new {@link CompiledParamEncoder} with the current rules
+   */
+  public CompiledParamEncoder compile() {
+    return new CompiledParamEncoder(effectiveRules(), ruleDriven);
+  }
+
+  /**
+   * Generates an immutable encoder for the rules added so far, whose plan is a class defined at
+   * runtime with the names and widths of the rules as constants, so the JIT compiler can inline
+   * the whole encoding. This suits rules only known at runtime, which are encoded many times. The
+   * class of a set of rules is generated once and shared. When classes cannot be defined at
+   * runtime, the encoder of {@link #compile()} is returned instead. Rules added afterwards do not
+   * affect the generated encoder.
+   *
+   * @return a new {@link ParamEncoder} with the current rules
+   */
+  public ParamEncoder generate() {
+    return GeneratedParamEncoder.of(effectiveRules(), ruleDriven);
+  }
+
+  /**
+   * Create a decoder for the encodings produced with the rules added so far.
+   *
+   * @return a new {@link ParamDecoder} with the current rules
+   */
+  public ParamDecoder decoder() {
+    return new ParamDecoder(effectiveRules());
   }
 
   @Override
   public String encode(SortedMap<String, Object> data) {
     checkNotNull(data, "SortedMap is missing.");
-    StringBuilder resultString = new StringBuilder();
+    if (ruleDriven) {
+      StringBuilder resultString = presized();
+      try {
+        encodeTo(data, resultString);
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+      return resultString.toString();
+    }
+    StringBuilder resultString = presized();
+    EncodingListener listener = this.listener;
+    boolean timed = listener != null && listener.isTimed();
     for (Entry<String, Object> entry : data.entrySet()) {
+      long start = timed ? System.nanoTime() : 0L;
       String tmp = null;
-      if (entry.getValue() instanceof Object[]) {
-        tmp = paramEncoderArray.encode(entry, rules.get(entry.getKey()));
+      RuleEncoder rule = ruleFor(entry.getKey());
+      if (ParamEncoderArray.isArray(entry.getValue())) {
+        tmp = paramEncoderArray.encode(entry, rule);
       } else {
-        tmp = paramEncoderObject.encode(entry, rules.get(entry.getKey()));
+        tmp = paramEncoderObject.encode(entry, rule);
       }
       if (tmp.length() > 0) {
         if (resultString.length() > 0) {
           resultString.append(AND);
         }
-        resultString.append(entry.getKey()).append(EQUAL).append(tmp);
+        resultString.append(keyOf(entry.getKey(), rule)).append(EQUAL).append(tmp);
       }
+      if (listener != null) {
+        report(listener, entry, rule, timed ? System.nanoTime() - start : -1L);
+      }
+    }
+    return resultString.toString();
+  }
+
+  /**
+   * Performs the encoding of a collection of {@link SortedMap} fields within a length budget. If
+   * the fields do not fit, the ones with the lowest {@link RuleEncoder#getPriority() priority} are
+   * truncated, when they are strings, or dropped first; arrays are dropped whole. The budget is
+   * measured in UTF-16 characters; {@link CompiledParamEncoder} also accepts a budget in UTF-8
+   * bytes.
+   *
+   * <p>The listener sees the fields as they are written within the budget: a narrowed string is
+   * reported as truncated to the length it keeps, and a dropped field only through
+   * {@link EncodingListener#fieldDropped(String, TruncationStyle)}. The encoding times are not
+   * measured when the fields do not fit, since each field is measured before it is written.
+   *
+   * @param data      the collections of parameters that will be encoded
+   * @param maxLength the maximum number of characters of the encoding
+   * @return the equivalent encoded {@link String}
+   * @see LengthBudget
+   */
+  public String encode(SortedMap<String, Object> data, int maxLength) {
+    checkNotNull(data, "SortedMap is missing.");
+    checkArgument(maxLength >= 0, "max length cannot be less than zero.");
+    if (maxLength() <= maxLength) {
+      return encode(data);
+    }
+    StringBuilder resultString =
+        new StringBuilder(CompiledParamEncoder.initialCapacity(maxLength));
+    try {
+      encodeWithin(data, maxLength, resultString, listener);
+    } catch (IOException e) {
+      throw new AssertionError(e);
     }
     return resultString.toString();
   }
-}
\ No newline at end of file
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, Appendable out) throws IOException {
+    checkNotNull(data, "SortedMap is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    encodeTo(data, out, listener);
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, CharBuffer out) {
+    try {
+      encodeTo(data, (Appendable) out);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public void encodeTo(SortedMap<String, Object> data, ByteBuffer out) {
+    try {
+      Utf8Appendable utf8 = new Utf8Appendable(out);
+      encodeTo(data, utf8);
+      utf8.flush();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public String encode(Map<String, Object> data) {
+    StringBuilder resultString = new StringBuilder();
+    try {
+      encodeTo(data, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  @Override
+  public void encodeTo(Map<String, Object> data, Appendable out) throws IOException {
+    checkNotNull(data, "Map is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    EncodingListener listener = this.listener;
+    if (!ruleDriven) {
+      for (Entry<String, Object> entry : data.entrySet()) {
+        if (!rules.containsKey(entry.getKey())) {
+          encodeField(entry, null, true, out, listener);
+        }
+      }
+    }
+    encodeFields(data, out, listener);
+  }
+
+  @Override
+  public String encode(String[] keys, Object[] values) {
+    StringBuilder resultString = new StringBuilder();
+    try {
+      encodeTo(keys, values, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  @Override
+  public void encodeTo(String[] keys, Object[] values, Appendable out) throws IOException {
+    checkNotNull(keys, "Keys are missing.");
+    checkNotNull(values, "Values are missing.");
+    checkNotNull(out, "Appendable is missing.");
+    checkArgument(keys.length == values.length, "Keys and values do not match.");
+    EncodingListener listener = this.listener;
+    String[] sortedKeys = sortedKeys();
+    int[] positions = new int[sortedKeys.length];
+    for (int i = 0; i < keys.length; i++) {
+      int found = Arrays.binarySearch(sortedKeys, checkNotNull(keys[i], "Key is missing."));
+      if (found < 0) {
+        if (!ruleDriven) {
+          encodeField(Maps.immutableEntry(keys[i], values[i]), null, true, out, listener);
+        }
+      } else {
+        checkArgument(positions[found] == 0, "Key is repeated.");
+        positions[found] = i + 1;
+      }
+    }
+    boolean empty = true;
+    for (int i = 0; i < sortedKeys.length; i++) {
+      if (positions[i] > 0) {
+        empty = encodeField(Maps.immutableEntry(sortedKeys[i], values[positions[i] - 1]),
+            ruleFor(sortedKeys[i]), empty, out, listener);
+      }
+    }
+  }
+
+  @Override
+  public int maxLength() {
+    int length = maxLength;
+    if (length < 0) {
+      length = EncodedLength.maxChars(effectiveRules());
+      maxLength = length;
+    }
+    return length;
+  }
+
+  @Override
+  public int maxByteLength() {
+    int length = maxByteLength;
+    if (length < 0) {
+      length = EncodedLength.maxBytes(effectiveRules());
+      maxByteLength = length;
+    }
+    return length;
+  }
+
+  @Override
+  public int encodedLength(SortedMap<String, Object> data) {
+    return measure(data).chars();
+  }
+
+  @Override
+  public int encodedByteLength(SortedMap<String, Object> data) {
+    return measure(data).bytes();
+  }
+
+  /**
+   * Create the buffer of an encoding, sized for its worst-case length up to
+   * {@link CompiledParamEncoder#PRESIZE_LIMIT} characters. A longer encoding lets the buffer grow
+   * instead of being encoded twice to measure it first.
+   *
+   * @return an empty buffer with the initial capacity of an encoding
+   */
+  private StringBuilder presized() {
+    return new StringBuilder(CompiledParamEncoder.initialCapacity(maxLength()));
+  }
+
+  /**
+   * Measures the encoding of a collection of {@link SortedMap} fields without producing it. The
+   * listener is not invoked, since nothing is encoded.
+   *
+   * @param data specifies the parameters to be measured
+   * @return the length of the encoding
+   */
+  private EncodedLength measure(SortedMap<String, Object> data) {
+    checkNotNull(data, "SortedMap is missing.");
+    EncodedLength length = new EncodedLength();
+    try {
+      encodeTo(data, length, null);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return length;
+  }
+
+  /**
+   * Writes the fields of a collection of {@link SortedMap} parameters, reporting them to the given
+   * listener.
+   *
+   * @param data     specifies the parameters to be encoded
+   * @param out      specifies the sink where the fields will be written
+   * @param listener specifies the listener of the fields, <b>null</b> if they are not reported
+   * @throws IOException if the sink cannot be written
+   */
+  private void encodeTo(SortedMap<String, Object> data, Appendable out,
+                        @Nullable EncodingListener listener) throws IOException {
+    if (ruleDriven && CompiledParamEncoder.shouldProbe(data, rules.size())) {
+      encodeFields(data, out, listener);
+      return;
+    }
+    boolean empty = true;
+    for (Entry<String, Object> entry : data.entrySet()) {
+      RuleEncoder rule = ruleFor(entry.getKey());
+      if (rule != null || !ruleDriven) {
+        empty = encodeField(entry, rule, empty, out, listener);
+      }
+    }
+  }
+
+  /**
+   * Discards what is computed from the rules, after they change.
+   */
+  private void invalidate() {
+    sortedKeys = null;
+    maxLength = -1;
+    maxByteLength = -1;
+  }
+
+  /**
+   * Writes the fields of a collection of {@link SortedMap} parameters within a length budget in
+   * UTF-16 characters, see {@link LengthBudget}, reporting them to the given listener once the
+   * budget is allocated.
+   *
+   * @param data      specifies the parameters to be encoded
+   * @param maxLength specifies the maximum number of characters of the encoding
+   * @param out       specifies the sink where the fields will be written
+   * @param listener  specifies the listener of the fields, <b>null</b> if they are not reported
+   * @throws IOException if the sink cannot be written
+   */
+  private void encodeWithin(SortedMap<String, Object> data, int maxLength, Appendable out,
+                            @Nullable EncodingListener listener) throws IOException {
+    FieldEncoder[] present = new FieldEncoder[Math.min(data.size(), rules.size())];
+    Object[] values = new Object[present.length];
+    int count = 0;
+    for (Entry<String, Object> entry : data.entrySet()) {
+      RuleEncoder rule = ruleFor(entry.getKey());
+      FieldEncoder field = rule == null ? null : FieldEncoder.of(entry.getKey(), rule);
+      if (field != null && field.hasEncoding(entry.getValue())) {
+        present[count] = field;
+        values[count++] = entry.getValue();
+      } else if (rule != null || !ruleDriven) {
+        if (rule == null) {
+          FieldEncoder.checkSupported(entry.getValue());
+        }
+        if (listener != null) {
+          report(listener, entry, rule, -1L);
+        }
+      }
+    }
+    FieldEncoder[] requested = Arrays.copyOf(present, count);
+    LengthBudget.encodeTo(present, values, count, maxLength, WidthUnit.CHARS, out);
+    if (listener != null) {
+      for (int i = 0; i < count; i++) {
+        String key = requested[i].getName();
+        if (present[i] == null) {
+          listener.fieldDropped(key, requested[i].getRule().getStyle());
+        } else {
+          report(listener, Maps.immutableEntry(key, values[i]), present[i].getRule(), -1L);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the fields of the rules found in the given parameters, in the natural order of their
+   * names.
+   *
+   * @param data     specifies the parameters to be probed
+   * @param out      specifies the sink where the fields will be written
+   * @param listener specifies the listener of the fields, <b>null</b> if they are not reported
+   * @throws IOException if the sink cannot be written
+   */
+  private void encodeFields(Map<String, Object> data, Appendable out,
+                            @Nullable EncodingListener listener) throws IOException {
+    boolean empty = true;
+    for (String key : sortedKeys()) {
+      Object value = data.get(key);
+      if (value != null || data.containsKey(key)) {
+        empty = encodeField(Maps.immutableEntry(key, value), ruleFor(key), empty, out,
+            listener);
+      }
+    }
+  }
+
+  /**
+   * Writes a field if its encoding is not empty, reporting it to the listener if there is one. A
+   * field without a rule is only verified.
+   *
+   * @param entry    specifies the field to be encoded
+   * @param rule     specifies the rule of the field, <b>null</b> if it has none
+   * @param empty    specifies whether nothing has been written yet
+   * @param out      specifies the sink where the field will be written
+   * @param listener specifies the listener of the field, <b>null</b> if it is not reported
+   * @return <b>true</b> if nothing has been written yet, including this field. Otherwise, will
+   * return <b>false</b>.
+   * @throws IOException if the sink cannot be written
+   */
+  private boolean encodeField(Entry<String, Object> entry, @Nullable RuleEncoder rule,
+                              boolean empty, Appendable out, @Nullable EncodingListener listener)
+      throws IOException {
+    boolean timed = listener != null && listener.isTimed();
+    long start = timed ? System.nanoTime() : 0L;
+    boolean written = false;
+    if (ParamEncoderArray.isArray(entry.getValue())) {
+      if (paramEncoderArray.hasEncoding(entry, rule)) {
+        appendKey(keyOf(entry.getKey(), rule), empty, out);
+        paramEncoderArray.encodeTo(entry, rule, out);
+        written = true;
+      }
+    } else if (paramEncoderObject.hasEncoding(entry, rule)) {
+      appendKey(keyOf(entry.getKey(), rule), empty, out);
+      paramEncoderObject.encodeTo(entry, rule, out);
+      written = true;
+    }
+    if (listener != null) {
+      report(listener, entry, rule, timed ? System.nanoTime() - start : -1L);
+    }
+    return empty && !written;
+  }
+
+  /**
+   * Provides the names of the fields with rules in their natural order, sorting them only once
+   * after the rules change. The names are sorted before they are published, so an encoder shared
+   * by several threads never reads them unsorted.
+   *
+   * @return the sorted names of the fields with rules
+   */
+  private String[] sortedKeys() {
+    SortedKeys sorted = sortedKeys;
+    if (sorted == null) {
+      sorted = new SortedKeys(rules.keySet().toArray(new String[rules.size()]));
+      sortedKeys = sorted;
+    }
+    return sorted.keys;
+  }
+
+  /**
+   * Reports the events of the encoding of a field to the given listener.
+   *
+   * @param listener specifies the listener to be invoked
+   * @param entry    specifies the encoded field
+   * @param rule     specifies the rule of the field, <b>null</b> if it was skipped
+   * @param nanos    specifies the encoding time in nanoseconds, negative if it was not measured
+   */
+  private void report(EncodingListener listener, Entry<String, Object> entry,
+                      @Nullable RuleEncoder rule, long nanos) {
+    String key = entry.getKey();
+    if (rule == null) {
+      listener.fieldSkipped(key);
+      return;
+    }
+    TruncationStyle style = rule.getStyle();
+    Object value = entry.getValue();
+    listener.fieldEncoded(key, style);
+    if (ParamEncoderArray.isArray(value)) {
+      int dropped = ParamEncoderArray.size(value) - paramEncoderArray.keptElements(value, rule);
+      if (dropped > 0) {
+        listener.elementsDropped(key, style, dropped);
+      }
+    } else if (style == TruncationStyle.INTEGER) {
+      if (ParamEncoderObject.isClamped(value, rule)) {
+        listener.integerClamped(key);
+      }
+    } else {
+      int removed = ParamEncoderObject.truncatedLength(value, rule);
+      if (removed > 0) {
+        listener.stringTruncated(key, style, removed);
+      }
+    }
+    if (nanos >= 0) {
+      listener.fieldTimed(key, style, nanos);
+    }
+  }
+
+  /**
+   * Provides the rules as they are applied, in their URL-safe version when the encoding is
+   * URL-safe.
+   *
+   * @return the applied rules by field name
+   */
+  private Map<String, RuleEncoder> effectiveRules() {
+    if (!urlSafe) {
+      return rules;
+    }
+    Map<String, RuleEncoder> urlSafeRules = new HashMap<>();
+    for (Entry<String, RuleEncoder> rule : rules.entrySet()) {
+      urlSafeRules.put(rule.getKey(), rule.getValue().toUrlSafe());
+    }
+    return urlSafeRules;
+  }
+
+  /**
+   * Provides the rule of a given field, in its URL-safe version when the encoding is URL-safe.
+   *
+   * @param key specifies the name of the field
+   * @return the rule of the field, <b>null</b> if it has none
+   */
+  private RuleEncoder ruleFor(String key) {
+    RuleEncoder rule = rules.get(key);
+    return urlSafe && rule != null ? rule.toUrlSafe() : rule;
+  }
+
+  /**
+   * Provides the name of a field as it will be written, percent-encoded if its rule is URL-safe.
+   *
+   * @param key  specifies the name of the field
+   * @param rule specifies the rule of the field
+   * @return the name of the field to be written
+   */
+  private static String keyOf(String key, RuleEncoder rule) {
+    return rule != null && rule.isUrlSafe() ? PercentEncoding.escape(key) : key;
+  }
+
+  /**
+   * Writes the name of a field followed by the equal sign, preceded by the separator if it is not
+   * the first field.
+   *
+   * @param key   specifies the name of the field
+   * @param first specifies whether it is the first field written
+   * @param out   specifies the sink where the name will be written
+   * @throws IOException if the sink cannot be written
+   */
+  private void appendKey(String key, boolean first, Appendable out) throws IOException {
+    if (!first) {
+      out.append(AND);
+    }
+    out.append(key).append(EQUAL);
+  }
+
+  /**
+   * Specifies the names of the fields with rules in their natural order. They are sorted when it
+   * is created and held by a final field, so they are seen sorted by any thread that reads the
+   * instance, even without synchronization.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  private static final class SortedKeys {
+
+    private final String[] keys;
+
+    /**
+     * Create a new instance of {@code SortedKeys}.
+     *
+     * @param keys specifies the names to be sorted, which are sorted in place
+     */
+    SortedKeys(String[] keys) {
+      Arrays.sort(keys);
+      this.keys = keys;
+    }
+  }
+}
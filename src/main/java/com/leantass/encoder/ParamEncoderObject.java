@@ -2,12 +2,18 @@ package com.leantass.encoder;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
 
 import com.leantass.encoder.ParamEncoder.TruncationStyle;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.math.BigInteger;
 import java.util.Map.Entry;
 
+import com.google.common.base.Strings;
+
 /**
  * Specifies the behavior to encode objects. For example, consider a field <i>x</i> with maximum
  * width ({@link RuleEncoder#getWidth()}) of 2 using this encoding:
@@ -48,9 +54,17 @@ import java.util.Map.Entry;
  */
 public class ParamEncoderObject {
 
+  static final int MAX_INTEGER_DIGITS = 10;
+  static final int MAX_LONG_DIGITS = 19;
+  private static final long[] POWERS_OF_TEN = {
+      1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+      10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+      1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+  };
+
   /**
    * Encode the provided parameter as an {@code Entry<String, Object>} using a specific rule. It
-   * encodes a {@link String} or {@link Integer} parameter using:
+   * encodes a {@link String}, {@link Integer}, {@link Long} or {@link BigInteger} parameter using:
    *
    * <ul>
    *   <li>Integer width</li>
@@ -72,6 +86,104 @@ public class ParamEncoderObject {
     return resultString;
   }
 
+  /**
+   * Encode the provided parameter as an {@code Entry<String, Object>} using a specific rule,
+   * writing the result straight into the given sink instead of creating a {@link String}. Nothing
+   * is written if the rule is missing.
+   *
+   * @param entry specifies the parameter to be encoded
+   * @param rule  specifies the rule that will be used to encode the given parameter
+   * @param out   specifies the sink where the encoded parameter will be written
+   * @throws IOException if the sink cannot be written
+   */
+  public void encodeTo(Entry<String, Object> entry, @Nullable RuleEncoder rule, Appendable out)
+      throws IOException {
+    checkNotNull(entry, "Entry is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    checkArgument(isEncodingSupported(entry), "Encoding is not supported.");
+    if (rule != null) {
+      appendValue(entry.getValue(), rule, out);
+    }
+  }
+
+  /**
+   * Verifies if encoding a given {@code Entry<String, Object>} produces any output.
+   *
+   * @param entry specifies the entry to be evaluated
+   * @param rule  specifies the rule that will be used to encode the given parameter
+   * @return <b>true</b> if the encoding is not empty. Otherwise, will return <b>false</b>.
+   * @throws IllegalArgumentException if the entry cannot be encoded
+   */
+  boolean hasEncoding(Entry<String, Object> entry, @Nullable RuleEncoder rule) {
+    checkNotNull(entry, "Entry is missing.");
+    checkArgument(isEncodingSupported(entry), "Encoding is not supported.");
+    return rule != null && encodedLength(entry.getValue(), rule) > 0;
+  }
+
+  /**
+   * Computes the length of the encoding of a given value without producing it.
+   *
+   * @param value specifies the {@link String} or {@link Integer} value to be measured
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @return the width of the encoded value, measured in the unit of the rule
+   */
+  int encodedLength(Object value, RuleEncoder rule) {
+    if (rule.getStyle() == INTEGER) {
+      return integerValueLength(value, rule);
+    }
+    if (rule.getStyle() == STRING_LEFT) {
+      return StringTruncation.leftWidth(value.toString(), rule.getWidth(), rule.getUnit());
+    }
+    return StringTruncation.rightWidth(value.toString(), rule.getWidth(), rule.getUnit());
+  }
+
+  /**
+   * Writes the encoding of a given value into the given sink.
+   *
+   * @param value specifies the {@link String} or {@link Integer} value to be encoded
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @param out   specifies the sink where the encoded value will be written
+   * @throws IOException if the sink cannot be written
+   */
+  void appendValue(Object value, RuleEncoder rule, Appendable out) throws IOException {
+    switch (rule.getStyle()) {
+      case INTEGER:
+        appendIntegerValue(value, rule, out);
+        break;
+      case STRING_LEFT:
+        String left = value.toString();
+        appendString(left, StringTruncation.leftStart(left, rule.getWidth(), rule.getUnit()),
+            left.length(), rule, out);
+        break;
+      case STRING_RIGHT:
+        String right = value.toString();
+        appendString(right, 0, StringTruncation.rightEnd(right, rule.getWidth(), rule.getUnit()),
+            rule, out);
+        break;
+      default:
+        throw new UnsupportedOperationException("Operation not supported.");
+    }
+  }
+
+  /**
+   * Writes the kept range of a string value, percent-encoded if the rule is URL-safe.
+   *
+   * @param value specifies the value to be written
+   * @param start specifies the index of the first character kept
+   * @param end   specifies the index that follows the last character kept
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @param out   specifies the sink where the range will be written
+   * @throws IOException if the sink cannot be written
+   */
+  static void appendString(String value, int start, int end, RuleEncoder rule, Appendable out)
+      throws IOException {
+    if (rule.isUrlSafe()) {
+      PercentEncoding.append(value, start, end, out);
+    } else {
+      out.append(value, start, end);
+    }
+  }
+
   /**
    * Verifies if a given {@code Entry<String, Object>} can be encoded.
    *
@@ -79,8 +191,21 @@ public class ParamEncoderObject {
    * @return <b>true</b> if the given entry can be encoded. Otherwise, will return <b>false</b>.
    */
   private boolean isEncodingSupported(Entry<String, Object> entry) {
-    return entry.getValue() instanceof String
-        || entry.getValue() instanceof Integer;
+    return isScalar(entry.getValue());
+  }
+
+  /**
+   * Verifies if a given value is a scalar that can be encoded, that is, a {@link String},
+   * {@link Integer}, {@link Long} or {@link BigInteger}.
+   *
+   * @param value specifies the value to be evaluated
+   * @return <b>true</b> if the given value can be encoded. Otherwise, will return <b>false</b>.
+   */
+  static boolean isScalar(Object value) {
+    return value instanceof String
+        || value instanceof Integer
+        || value instanceof Long
+        || value instanceof BigInteger;
   }
 
   /**
@@ -93,16 +218,15 @@ public class ParamEncoderObject {
   private String encodeObject(Entry<String, Object> entry, RuleEncoder rule) {
     checkNotNull(rule, "Rule is missing.");
     String encoded = null;
-    String value = entry.getValue().toString();
     switch (rule.getStyle()) {
       case INTEGER:
-        encoded = encodeInteger(value, rule.getWidth());
+        encoded = encodeInteger(entry.getValue(), rule);
         break;
       case STRING_LEFT:
-        encoded = encodeStringLeft(value, rule.getWidth());
+        encoded = encodeStringLeft(entry.getValue().toString(), rule);
         break;
       case STRING_RIGHT:
-        encoded = encodeStringRight(value, rule.getWidth());
+        encoded = encodeStringRight(entry.getValue().toString(), rule);
         break;
       default:
         throw new UnsupportedOperationException("Operation not supported.");
@@ -111,8 +235,29 @@ public class ParamEncoderObject {
   }
 
   /**
-   * Encode a given parameter that contains an {@link Integer}. For example, consider a
-   * integer field <i>x</i> with maximum width of 2 using this encoding:
+   * Encode a given parameter that contains an {@link Integer}, {@link Long}, {@link BigInteger} or
+   * a {@link String} representation of an integer.
+   *
+   * @param value the desired parameter to be encoded
+   * @param rule  the rule that provides the bounds used to encode the parameter
+   * @return an encoded representation of the provided parameter
+   * @throws NumberFormatException if the value is a {@link String} that is not an integer
+   */
+  private String encodeInteger(Object value, RuleEncoder rule) {
+    StringBuilder resultString = new StringBuilder(MAX_LONG_DIGITS + 1);
+    try {
+      appendIntegerValue(value, rule, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  /**
+   * Encode a primitive integer writing its digits straight into the given buffer, without
+   * creating any intermediate object. The value is clamped against the bounds precomputed by the
+   * rule for its width. For example, consider a integer field <i>x</i> with maximum width of 2
+   * using this encoding:
    * <ul>
    *   <li>A value of 1 will be encoded as 1</li>
    *   <li>A value of 12 will be encoded as 12</li>
@@ -123,60 +268,285 @@ public class ParamEncoderObject {
    *   can be encoded with 2 characters.</li>
    * </ul>
    *
-   * @param value the desired parameter to be encoded
-   * @param width the desired upper bound that will be used to encode the parameter
-   * @return an encoded representation of the provided parameter
+   * @param value  the desired parameter to be encoded
+   * @param rule   the rule that provides the bounds used to encode the parameter
+   * @param buffer the buffer where the encoded digits will be written, it should have room for
+   *               at least {@link RuleEncoder#getWidth()} characters after the offset
+   * @param offset the position of the buffer where the first character will be written
+   * @return the position of the buffer that follows the last written character
+   * @throws ArrayIndexOutOfBoundsException if the buffer is too small to hold the encoding
    */
-  private String encodeInteger(String value, int width) {
-    String resultString = "";
-    if (isNegative(value)) {
-      resultString += "-";
-      width--;
-      value = value.replace("-", "");
+  public int encodeInteger(int value, RuleEncoder rule, char[] buffer, int offset) {
+    checkNotNull(rule, "Rule is missing.");
+    checkNotNull(buffer, "Buffer is missing.");
+    value = clamp(value, rule);
+    if (value < 0) {
+      buffer[offset++] = '-';
+      return writeDigits(value, buffer, offset);
+    }
+    return writeDigits(-value, buffer, offset);
+  }
+
+  /**
+   * Encode a primitive long writing its digits straight into the given buffer, without creating
+   * any intermediate object. The value is clamped against the bounds precomputed by the rule for
+   * its width, using exact integer arithmetic for widths up to 19 digits and beyond.
+   *
+   * @param value  the desired parameter to be encoded
+   * @param rule   the rule that provides the bounds used to encode the parameter
+   * @param buffer the buffer where the encoded digits will be written, it should have room for
+   *               at least {@link RuleEncoder#getWidth()} characters after the offset
+   * @param offset the position of the buffer where the first character will be written
+   * @return the position of the buffer that follows the last written character
+   * @throws ArrayIndexOutOfBoundsException if the buffer is too small to hold the encoding
+   */
+  public int encodeLong(long value, RuleEncoder rule, char[] buffer, int offset) {
+    checkNotNull(rule, "Rule is missing.");
+    checkNotNull(buffer, "Buffer is missing.");
+    value = clamp(value, rule);
+    if (value < 0) {
+      buffer[offset++] = '-';
+      return writeDigits(value, buffer, offset);
+    }
+    return writeDigits(-value, buffer, offset);
+  }
+
+  /**
+   * Computes the length of the encoding of an integer value using the
+   * {@link ParamEncoder.TruncationStyle#INTEGER} style.
+   *
+   * @param value specifies the {@link Integer}, {@link Long}, {@link BigInteger} or {@link String}
+   *              value to be measured
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @return the number of characters of the encoded value
+   */
+  static int integerValueLength(Object value, RuleEncoder rule) {
+    if (isBeyondLong(value)) {
+      return hugeInteger((BigInteger) value, rule).length();
     }
-    if (isBeyondUpperBound(value, width)) {
-      resultString += getLargestUpperBound(width);
+    return integerLength(clamp(toLong(value), rule));
+  }
+
+  /**
+   * Writes the encoding of an integer value using the {@link ParamEncoder.TruncationStyle#INTEGER}
+   * style.
+   *
+   * @param value specifies the {@link Integer}, {@link Long}, {@link BigInteger} or {@link String}
+   *              value to be encoded
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @param out   specifies the sink where the encoded value will be written
+   * @throws IOException if the sink cannot be written
+   */
+  static void appendIntegerValue(Object value, RuleEncoder rule, Appendable out)
+      throws IOException {
+    if (isBeyondLong(value)) {
+      out.append(hugeInteger((BigInteger) value, rule));
     } else {
-      resultString += value;
+      appendInteger(clamp(toLong(value), rule), out);
     }
-    return resultString;
   }
 
   /**
-   * Evaluates if the given parameter is a negative integer.
+   * Verifies if encoding a given integer value using the
+   * {@link ParamEncoder.TruncationStyle#INTEGER} style clamps it to the bounds of the rule.
    *
-   * @param number the parameter that will be evaluated
-   * @return <b>true</b> if the provided parameter is negative. Otherwise, will return <b>false</b>
+   * @param value specifies the {@link Integer}, {@link Long}, {@link BigInteger} or {@link String}
+   *              value to be evaluated
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @return <b>true</b> if the value is clamped. Otherwise, will return <b>false</b>.
    */
-  private boolean isNegative(String number) {
-    return Integer.valueOf(number) < 0;
+  static boolean isClamped(Object value, RuleEncoder rule) {
+    if (isBeyondLong(value)) {
+      return !hugeInteger((BigInteger) value, rule).equals(value.toString());
+    }
+    long number = toLong(value);
+    return clamp(number, rule) != number;
+  }
+
+  /**
+   * Computes the number of characters removed when a given string value is truncated.
+   *
+   * @param value specifies the value to be evaluated
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @return the number of characters removed, zero if the value fits
+   */
+  static int truncatedLength(Object value, RuleEncoder rule) {
+    String string = value.toString();
+    if (rule.getStyle() == STRING_LEFT) {
+      return StringTruncation.leftStart(string, rule.getWidth(), rule.getUnit());
+    }
+    return string.length() - StringTruncation.rightEnd(string, rule.getWidth(), rule.getUnit());
   }
 
   /**
-   * Evaluates if the given parameter if beyond the desired bound.
+   * Verifies if a given value is a {@link BigInteger} that cannot be represented as a long.
    *
-   * @param value the parameter that will be evaluated
-   * @param bound the desired upper limit
-   * @return <b>true</b> if the provided parameter exceeds the upper limit. Otherwise, will
-   * return <b>false</b>
+   * @param value specifies the value to be evaluated
+   * @return <b>true</b> if the value is beyond the range of a long. Otherwise, will return
+   * <b>false</b>.
    */
-  private boolean isBeyondUpperBound(String value, int bound) {
-    Integer intValue = Integer.valueOf(value);
-    Double limit = Math.log10(intValue);
-    return (limit.intValue() + 1) > bound;
+  private static boolean isBeyondLong(Object value) {
+    return value instanceof BigInteger && ((BigInteger) value).bitLength() >= Long.SIZE;
   }
 
   /**
-   * Provides the largest value of a given upper limit. For instance if the bound is two, the
-   * largest number that can be represented will be 100 and this method will return (100 - 1)
-   * <b>99</b> as the largest value below the bound.
+   * Encode a {@link BigInteger} that cannot be represented as a long. This is the only integer
+   * encoding that goes through a {@link String}, since such values have more digits than any
+   * primitive can hold.
    *
-   * @param bound specifies the desired bound
-   * @return the largest value that can be represented and is below the bound
+   * @param value specifies the value to be encoded
+   * @param rule  specifies the rule that will be used to encode the given value
+   * @return an encoded representation of the provided value
    */
-  private String getLargestUpperBound(int bound) {
-    Double limit = Math.pow(10, bound);
-    return limit.intValue() - 1 + "";
+  private static String hugeInteger(BigInteger value, RuleEncoder rule) {
+    String digits = value.abs().toString();
+    String sign = value.signum() < 0 ? "-" : "";
+    int available = rule.getWidth() - sign.length();
+    if (available <= 0) {
+      return "0";
+    }
+    if (digits.length() > available) {
+      digits = Strings.repeat("9", available);
+    }
+    return sign + digits;
+  }
+
+  /**
+   * Converts a given {@link Integer}, {@link Long}, {@link BigInteger} or {@link String} value to
+   * a primitive long.
+   *
+   * @param value the value to be converted
+   * @return the equivalent primitive long
+   * @throws NumberFormatException if the value is a {@link String} that is not an integer
+   */
+  static long toLong(Object value) {
+    if (value instanceof Number) {
+      return ((Number) value).longValue();
+    }
+    return Long.parseLong(value.toString());
+  }
+
+  /**
+   * Clamps a primitive integer against the bounds precomputed by the given rule.
+   *
+   * @param value the value to be clamped
+   * @param rule  the rule that provides the bounds
+   * @return the closest value to the given one that can be encoded
+   */
+  static int clamp(int value, RuleEncoder rule) {
+    return Math.max(Math.min(value, rule.getIntegerUpperBound()), rule.getIntegerLowerBound());
+  }
+
+  /**
+   * Clamps a primitive long against the bounds precomputed by the given rule.
+   *
+   * @param value the value to be clamped
+   * @param rule  the rule that provides the bounds
+   * @return the closest value to the given one that can be encoded
+   */
+  static long clamp(long value, RuleEncoder rule) {
+    return Math.max(Math.min(value, rule.getLongUpperBound()), rule.getLongLowerBound());
+  }
+
+  /**
+   * Writes an already clamped integer into the given sink one character at a time, from the most
+   * significant digit, so no intermediate buffer is needed.
+   *
+   * @param value the clamped integer to be written
+   * @param out   the sink where the integer will be written
+   * @throws IOException if the sink cannot be written
+   */
+  static void appendInteger(long value, Appendable out) throws IOException {
+    if (value < 0) {
+      out.append('-');
+    } else {
+      value = -value;
+    }
+    for (int digit = digitCount(value) - 1; digit >= 0; digit--) {
+      out.append((char) ('0' - value / POWERS_OF_TEN[digit] % 10));
+    }
+  }
+
+  /**
+   * Computes the number of characters of an integer, including its sign.
+   *
+   * @param value the integer to be measured
+   * @return the number of characters of the given integer
+   */
+  static int integerLength(long value) {
+    return value < 0 ? digitCount(value) + 1 : digitCount(-value);
+  }
+
+  /**
+   * Writes the digits of a non-positive integer without its sign. Working with the negated value
+   * allows {@link Integer#MIN_VALUE} to be written without overflowing.
+   *
+   * @param value  the non-positive integer whose digits will be written
+   * @param buffer the buffer where the digits will be written
+   * @param offset the position of the buffer where the first digit will be written
+   * @return the position of the buffer that follows the last written digit
+   */
+  private static int writeDigits(int value, char[] buffer, int offset) {
+    int end = offset + digitCount(value);
+    int position = end;
+    do {
+      buffer[--position] = (char) ('0' - value % 10);
+      value /= 10;
+    } while (value != 0);
+    return end;
+  }
+
+  /**
+   * Writes the digits of a non-positive long without its sign. Working with the negated value
+   * allows {@link Long#MIN_VALUE} to be written without overflowing.
+   *
+   * @param value  the non-positive long whose digits will be written
+   * @param buffer the buffer where the digits will be written
+   * @param offset the position of the buffer where the first digit will be written
+   * @return the position of the buffer that follows the last written digit
+   */
+  private static int writeDigits(long value, char[] buffer, int offset) {
+    int end = offset + digitCount(value);
+    int position = end;
+    do {
+      buffer[--position] = (char) ('0' - value % 10);
+      value /= 10;
+    } while (value != 0);
+    return end;
+  }
+
+  /**
+   * Counts the digits of a non-positive integer.
+   *
+   * @param value the non-positive integer to be evaluated
+   * @return the number of digits of the given value
+   */
+  static int digitCount(long value) {
+    for (int digits = 1; digits < MAX_LONG_DIGITS; digits++) {
+      if (value > -POWERS_OF_TEN[digits]) {
+        return digits;
+      }
+    }
+    return MAX_LONG_DIGITS;
+  }
+
+  /**
+   * Provides the largest value of a given number of digits. For instance if the number of digits
+   * is two, the largest number that can be represented will be 100 and this method will return
+   * (100 - 1) <b>99</b> as the largest value below the bound.
+   *
+   * @param digits specifies the desired number of digits
+   * @return the largest value that can be represented, or {@link Long#MAX_VALUE} if any long
+   * can be represented
+   */
+  static long largestLong(int digits) {
+    if (digits <= 0) {
+      return 0;
+    }
+    if (digits >= MAX_LONG_DIGITS) {
+      return Long.MAX_VALUE;
+    }
+    return POWERS_OF_TEN[digits] - 1;
   }
 
   /**
@@ -188,19 +558,16 @@ public class ParamEncoderObject {
    *   <li>A value of ABC will be encoded as BC, truncating on the left</li>
    *   <li>A value of ABCD will be encoded as CD, truncating on the left</li>
    * </ul>
+   * A surrogate pair is never split, so a code point that does not fit whole is dropped.
    *
    * @param value specifies the parameter to be encoded
-   * @param width specifies the maximum length of the newly encoded string
+   * @param rule  specifies the rule that provides the maximum width of the newly encoded string
    * @return an equivalent encoded {@link String} of the given parameter
    */
-  private String encodeStringLeft(String value, int width) {
-    String resultString;
-    if (value.length() > width) {
-      resultString = value.substring(value.length() - width);
-    } else {
-      resultString = value;
-    }
-    return resultString;
+  private String encodeStringLeft(String value, RuleEncoder rule) {
+    String encoded =
+        value.substring(StringTruncation.leftStart(value, rule.getWidth(), rule.getUnit()));
+    return rule.isUrlSafe() ? PercentEncoding.escape(encoded) : encoded;
   }
 
   /**
@@ -212,18 +579,15 @@ public class ParamEncoderObject {
    *   <li>A value of ABC will be encoded as AB, truncating on the right</li>
    *   <li>A value of ABCD will be encoded as AB, truncating on the right</li>
    * </ul>
+   * A surrogate pair is never split, so a code point that does not fit whole is dropped.
    *
    * @param value specifies the parameter to be encoded
-   * @param width specifies the maximum length of the newly encoded string
+   * @param rule  specifies the rule that provides the maximum width of the newly encoded string
    * @return an equivalent encoded {@link String} of the given parameter
    */
-  private String encodeStringRight(String value, int width) {
-    String resultString;
-    if (value.length() > width) {
-      resultString = value.substring(0, width);
-    } else {
-      resultString = value;
-    }
-    return resultString;
+  private String encodeStringRight(String value, RuleEncoder rule) {
+    String encoded =
+        value.substring(0, StringTruncation.rightEnd(value, rule.getWidth(), rule.getUnit()));
+    return rule.isUrlSafe() ? PercentEncoding.escape(encoded) : encoded;
   }
 }
\ No newline at end of file
@@ -0,0 +1,275 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Specifies the fields of a fixed set of rules, addressed by index, so parameters can be given as
+ * a reusable {@link Record} instead of a {@link java.util.Map}. Indexes follow the natural order
+ * of the names of the fields, which is also the order in which they are written. Integers are
+ * kept as primitives, so filling a record and writing it with {@link #encodeTo(Record, Appendable)}
+ * into a reused sink does not box them; {@link #encode(Record)} still allocates the resulting
+ * {@link String} and its builder.
+ *
+ * <p>A schema is immutable and can be shared between threads; each thread should fill its own
+ * records. A schema is created with {@link CompiledParamEncoder#schema()}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public final class ParamSchema {
+
+  private final String[] names;
+  private final FieldEncoder[] fields;
+
+  /**
+   * Create a new instance of {@code ParamSchema}.
+   *
+   * @param names  specifies the names of the fields in natural order
+   * @param fields specifies the encoders of the fields, at the same position as their names
+   */
+  ParamSchema(String[] names, FieldEncoder[] fields) {
+    this.names = names;
+    this.fields = fields;
+  }
+
+  /**
+   * Specifies the number of fields of the schema.
+   *
+   * @return the number of fields
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Provides the index of a given field, to be resolved once and reused for every record.
+   *
+   * @param name specifies the name of the field
+   * @return the index of the field
+   * @throws IllegalArgumentException if the schema has no such field
+   */
+  public int indexOf(String name) {
+    int index = Arrays.binarySearch(names, checkNotNull(name, "Field name is missing."));
+    checkArgument(index >= 0, "Field is not defined.");
+    return index;
+  }
+
+  /**
+   * Provides the name of the field at a given index.
+   *
+   * @param index specifies the index of the field
+   * @return the name of the field
+   */
+  public String getName(int index) {
+    return names[checkElementIndex(index, names.length)];
+  }
+
+  /**
+   * Create a new empty record of this schema.
+   *
+   * @return a new {@link Record} with no field set
+   */
+  public Record newRecord() {
+    return new Record(this);
+  }
+
+  /**
+   * Performs the encoding of the fields set in a given record.
+   *
+   * @param record the record that will be encoded
+   * @return the equivalent encoded {@link String}
+   */
+  public String encode(Record record) {
+    StringBuilder resultString = new StringBuilder();
+    try {
+      encodeTo(record, resultString);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return resultString.toString();
+  }
+
+  /**
+   * Performs the encoding of the fields set in a given record, writing the result straight into
+   * the given sink.
+   *
+   * @param record the record that will be encoded
+   * @param out    the sink where the encoded parameters will be written
+   * @throws IOException if the sink cannot be written
+   */
+  public void encodeTo(Record record, Appendable out) throws IOException {
+    checkNotNull(record, "Record is missing.");
+    checkNotNull(out, "Appendable is missing.");
+    checkArgument(record.schema == this, "Record belongs to another schema.");
+    boolean empty = true;
+    for (int i = 0; i < fields.length; i++) {
+      if (record.kinds[i] == Record.NUMBER) {
+        fields[i].encodeTo(record.numbers[i], empty, out);
+        empty = false;
+      } else if (record.kinds[i] == Record.VALUE && fields[i].hasEncoding(record.values[i])) {
+        fields[i].encodeTo(record.values[i], empty, out);
+        empty = false;
+      }
+    }
+  }
+
+  /**
+   * Specifies a reusable set of values for the fields of a {@link ParamSchema}, addressed by the
+   * index of each field. A field that is not set is not written. A record is not safe for
+   * concurrent use.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  public static final class Record {
+
+    private static final byte UNSET = 0;
+    private static final byte NUMBER = 1;
+    private static final byte VALUE = 2;
+    private final ParamSchema schema;
+    private final byte[] kinds;
+    private final long[] numbers;
+    private final Object[] values;
+
+    private Record(ParamSchema schema) {
+      this.schema = schema;
+      this.kinds = new byte[schema.size()];
+      this.numbers = new long[schema.size()];
+      this.values = new Object[schema.size()];
+    }
+
+    /**
+     * Specifies the value of an integer field.
+     *
+     * @param index specifies the index of the field
+     * @param value specifies the value of the field
+     * @return this {@code Record} object
+     * @throws IllegalArgumentException if the field does not use the
+     *                                  {@link ParamEncoder.TruncationStyle#INTEGER} style
+     */
+    public Record setInt(int index, int value) {
+      return setLong(index, value);
+    }
+
+    /**
+     * Specifies the value of an integer field as a long.
+     *
+     * @param index specifies the index of the field
+     * @param value specifies the value of the field
+     * @return this {@code Record} object
+     * @throws IllegalArgumentException if the field does not use the
+     *                                  {@link ParamEncoder.TruncationStyle#INTEGER} style
+     */
+    public Record setLong(int index, long value) {
+      kinds[checkInteger(index)] = NUMBER;
+      numbers[index] = value;
+      values[index] = null;
+      return this;
+    }
+
+    /**
+     * Specifies the value of a string field. It can be given to a field of any style, the
+     * {@link ParamEncoder.TruncationStyle#INTEGER} style parses it when the record is encoded.
+     *
+     * @param index specifies the index of the field
+     * @param value specifies the value of the field
+     * @return this {@code Record} object
+     */
+    public Record setString(int index, String value) {
+      return setValue(index, checkNotNull(value, "Value is missing."));
+    }
+
+    /**
+     * Specifies the value of an array field of strings. It can be given to a field of any style,
+     * the {@link ParamEncoder.TruncationStyle#INTEGER} style parses every element when the record
+     * is encoded.
+     *
+     * @param index specifies the index of the field
+     * @param value specifies the value of the field
+     * @return this {@code Record} object
+     */
+    public Record setStringArray(int index, String[] value) {
+      return setValue(index, checkNotNull(value, "Value is missing."));
+    }
+
+    /**
+     * Specifies the value of an array field of integers.
+     *
+     * @param index specifies the index of the field
+     * @param value specifies the value of the field
+     * @return this {@code Record} object
+     * @throws IllegalArgumentException if the field does not use the
+     *                                  {@link ParamEncoder.TruncationStyle#INTEGER} style
+     */
+    public Record setIntArray(int index, int[] value) {
+      return setValue(checkInteger(index), checkNotNull(value, "Value is missing."));
+    }
+
+    /**
+     * Specifies the value of an array field of longs.
+     *
+     * @param index specifies the index of the field
+     * @param value specifies the value of the field
+     * @return this {@code Record} object
+     * @throws IllegalArgumentException if the field does not use the
+     *                                  {@link ParamEncoder.TruncationStyle#INTEGER} style
+     */
+    public Record setLongArray(int index, long[] value) {
+      return setValue(checkInteger(index), checkNotNull(value, "Value is missing."));
+    }
+
+    /**
+     * Removes the value of a field, so it is not written.
+     *
+     * @param index specifies the index of the field
+     * @return this {@code Record} object
+     */
+    public Record clear(int index) {
+      kinds[checkElementIndex(index, kinds.length)] = UNSET;
+      values[index] = null;
+      return this;
+    }
+
+    /**
+     * Removes the values of every field, so the record can be reused.
+     *
+     * @return this {@code Record} object
+     */
+    public Record clear() {
+      Arrays.fill(kinds, UNSET);
+      Arrays.fill(values, null);
+      return this;
+    }
+
+    /**
+     * Specifies the value of a field that is kept as an object.
+     *
+     * @param index specifies the index of the field
+     * @param value specifies the value of the field
+     * @return this {@code Record} object
+     */
+    private Record setValue(int index, Object value) {
+      kinds[checkElementIndex(index, kinds.length)] = VALUE;
+      values[index] = value;
+      return this;
+    }
+
+    /**
+     * Verifies that a field uses the {@link ParamEncoder.TruncationStyle#INTEGER} style.
+     *
+     * @param index specifies the index of the field
+     * @return the index of the field
+     * @throws IllegalArgumentException if the field does not use the
+     *                                  {@link ParamEncoder.TruncationStyle#INTEGER} style
+     */
+    private int checkInteger(int index) {
+      checkArgument(schema.fields[checkElementIndex(index, kinds.length)].getRule().getStyle()
+          == INTEGER, "Encoding is not supported.");
+      return index;
+    }
+  }
+}
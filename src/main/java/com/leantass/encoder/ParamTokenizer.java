@@ -0,0 +1,196 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Specifies a tokenizer of encoded parameters, such as <b>key=value&amp;key=[a,b]</b>. It walks
+ * the {@link CharSequence} in place and only exposes the bounds of the current field, so moving
+ * from one field to the next creates no object at all.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+final class ParamTokenizer {
+
+  static final char AND = '&';
+  static final char EQUAL = '=';
+  static final char START = '[';
+  static final char END = ']';
+  static final char DELIMITER = ',';
+  private final CharSequence input;
+  private int position;
+  private int keyStart;
+  private int keyEnd;
+  private int valueStart;
+  private int valueEnd;
+
+  /**
+   * Create a new instance of {@code ParamTokenizer}.
+   *
+   * @param input specifies the encoded parameters to be tokenized
+   */
+  ParamTokenizer(CharSequence input) {
+    this.input = input;
+  }
+
+  /**
+   * Moves to the next field.
+   *
+   * @return <b>true</b> if there is a next field. Otherwise, will return <b>false</b>.
+   * @throws IllegalArgumentException if the field has no equal sign or the encoding ends with an
+   *                                  ampersand
+   */
+  boolean next() {
+    int length = input.length();
+    if (position >= length) {
+      return false;
+    }
+    keyStart = position;
+    keyEnd = indexOf(EQUAL, keyStart, length);
+    int end = indexOf(AND, keyStart, length);
+    checkArgument(keyEnd < end && end != length - 1, "Encoding is malformed.");
+    valueStart = keyEnd + 1;
+    valueEnd = end;
+    position = end + 1;
+    return true;
+  }
+
+  /**
+   * Specifies the position of the first character of the name of the current field.
+   *
+   * @return the index of the first character of the name of the current field
+   */
+  int keyStart() {
+    return keyStart;
+  }
+
+  /**
+   * Specifies the position that follows the last character of the name of the current field.
+   *
+   * @return the index that follows the last character of the name of the current field
+   */
+  int keyEnd() {
+    return keyEnd;
+  }
+
+  /**
+   * Specifies the position of the first character of the value of the current field.
+   *
+   * @return the index of the first character of the value of the current field
+   */
+  int valueStart() {
+    return valueStart;
+  }
+
+  /**
+   * Specifies the position that follows the last character of the value of the current field.
+   *
+   * @return the index that follows the last character of the value of the current field
+   */
+  int valueEnd() {
+    return valueEnd;
+  }
+
+  /**
+   * Counts the fields of an encoding without tokenizing it. Since the tokenizer rejects empty
+   * fields, the count is exact for every encoding it accepts.
+   *
+   * @param input specifies the encoded parameters
+   * @return the number of fields
+   */
+  static int countFields(CharSequence input) {
+    return input.length() == 0 ? 0 : count(input, AND, 0, input.length()) + 1;
+  }
+
+  /**
+   * Verifies if a range holds an array, that is, it is enclosed in square brackets.
+   *
+   * @param input specifies the encoded parameters
+   * @param start specifies the index of the first character of the range
+   * @param end   specifies the index that follows the last character of the range
+   * @return <b>true</b> if the range holds an array. Otherwise, will return <b>false</b>.
+   */
+  static boolean isArray(CharSequence input, int start, int end) {
+    return end - start >= 2 && input.charAt(start) == START && input.charAt(end - 1) == END;
+  }
+
+  /**
+   * Counts the elements of an array range, including its brackets.
+   *
+   * @param input specifies the encoded parameters
+   * @param start specifies the index of the opening bracket
+   * @param end   specifies the index that follows the closing bracket
+   * @return the number of elements of the array
+   */
+  static int countElements(CharSequence input, int start, int end) {
+    return end - start == 2 ? 0 : count(input, DELIMITER, start + 1, end - 1) + 1;
+  }
+
+  /**
+   * Provides the index of the first occurrence of a character within a range.
+   *
+   * @param input specifies the encoded parameters
+   * @param c     specifies the character to be found
+   * @param start specifies the index where the search starts
+   * @param end   specifies the index where the search ends
+   * @return the index of the character, or the end if it is not found
+   */
+  static int indexOf(CharSequence input, char c, int start, int end) {
+    int index = start;
+    while (index < end && input.charAt(index) != c) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Verifies if a range matches a given string, without creating a copy of the range.
+   *
+   * @param input  specifies the encoded parameters
+   * @param start  specifies the index of the first character of the range
+   * @param end    specifies the index that follows the last character of the range
+   * @param string specifies the string to be compared
+   * @return <b>true</b> if the range is equal to the string. Otherwise, will return <b>false</b>.
+   */
+  static boolean regionEquals(CharSequence input, int start, int end, String string) {
+    if (end - start != string.length()) {
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      if (input.charAt(i) != string.charAt(i - start)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Provides the index of the first occurrence of a character within a range of the input.
+   *
+   * @param c     specifies the character to be found
+   * @param start specifies the index where the search starts
+   * @param end   specifies the index where the search ends
+   * @return the index of the character, or the end if it is not found
+   */
+  private int indexOf(char c, int start, int end) {
+    return indexOf(input, c, start, end);
+  }
+
+  /**
+   * Counts the occurrences of a character within a range.
+   *
+   * @param input specifies the encoded parameters
+   * @param c     specifies the character to be counted
+   * @param start specifies the index where the count starts
+   * @param end   specifies the index where the count ends
+   * @return the number of occurrences of the character
+   */
+  private static int count(CharSequence input, char c, int start, int end) {
+    int count = 0;
+    for (int i = start; i < end; i++) {
+      if (input.charAt(i) == c) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,169 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Specifies the percent-encoding used by the URL-safe output mode, as defined by RFC 3986. The
+ * unreserved characters, that is letters, digits and <b>- . _ ~</b>, are written as they are.
+ * Every other character is written as the <b>%XX</b> escape of each byte of its UTF-8 encoding,
+ * so a space becomes <b>%20</b> and <b>&amp;</b> becomes <b>%26</b>. An unpaired surrogate is
+ * escaped as its <b>?</b> replacement, <b>%3F</b>.
+ *
+ * <p>Both the set of unreserved characters and the escape of every byte are precomputed, so
+ * escaping a value is a table lookup per character, and runs of unreserved characters are copied
+ * with a single call to the sink.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+final class PercentEncoding {
+
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+  private static final boolean[] UNRESERVED = new boolean[128];
+  private static final String[] ESCAPES = new String[256];
+  private static final int REPLACEMENT = '?';
+
+  static {
+    for (char c = '0'; c <= '9'; c++) {
+      UNRESERVED[c] = true;
+    }
+    for (char c = 'A'; c <= 'Z'; c++) {
+      UNRESERVED[c] = true;
+      UNRESERVED[Character.toLowerCase(c)] = true;
+    }
+    UNRESERVED['-'] = true;
+    UNRESERVED['.'] = true;
+    UNRESERVED['_'] = true;
+    UNRESERVED['~'] = true;
+    for (int b = 0; b < ESCAPES.length; b++) {
+      ESCAPES[b] = new String(new char[]{'%', HEX[b >> 4], HEX[b & 0xF]});
+    }
+  }
+
+  private PercentEncoding() {
+  }
+
+  /**
+   * Verifies if a given code point is written as it is.
+   *
+   * @param codePoint specifies the code point to be evaluated
+   * @return <b>true</b> if the code point is an unreserved character. Otherwise, will return
+   * <b>false</b>.
+   */
+  static boolean isUnreserved(int codePoint) {
+    return codePoint < UNRESERVED.length && UNRESERVED[codePoint];
+  }
+
+  /**
+   * Writes the percent-encoding of a range of a value into the given sink.
+   *
+   * @param value specifies the value to be escaped
+   * @param start specifies the index of the first character of the range
+   * @param end   specifies the index that follows the last character of the range
+   * @param out   specifies the sink where the escaped range will be written
+   * @throws IOException if the sink cannot be written
+   */
+  static void append(CharSequence value, int start, int end, Appendable out) throws IOException {
+    int index = start;
+    while (index < end) {
+      int run = index;
+      while (index < end && isUnreserved(value.charAt(index))) {
+        index++;
+      }
+      if (index > run) {
+        out.append(value, run, index);
+      }
+      if (index < end) {
+        char c = value.charAt(index);
+        if (Character.isHighSurrogate(c) && index + 1 < end
+            && Character.isLowSurrogate(value.charAt(index + 1))) {
+          appendEscaped(Character.toCodePoint(c, value.charAt(index + 1)), out);
+          index += 2;
+        } else {
+          appendEscaped(Character.isSurrogate(c) ? REPLACEMENT : c, out);
+          index++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Provides the percent-encoding of a whole value.
+   *
+   * @param value specifies the value to be escaped
+   * @return the escaped value, the same instance if nothing needs to be escaped
+   */
+  static String escape(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (!isUnreserved(value.charAt(i))) {
+        StringBuilder escaped = new StringBuilder(value.length() + 16);
+        try {
+          append(value, 0, value.length(), escaped);
+        } catch (IOException e) {
+          throw new AssertionError(e);
+        }
+        return escaped.toString();
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Provides the value of a percent-encoded range, the reverse of
+   * {@link #append(CharSequence, int, int, Appendable)}.
+   *
+   * @param value specifies the escaped value
+   * @param start specifies the index of the first character of the range
+   * @param end   specifies the index that follows the last character of the range
+   * @return the unescaped range
+   * @throws IllegalArgumentException if the range is not a valid percent-encoding
+   */
+  static String decode(CharSequence value, int start, int end) {
+    int percent = start;
+    while (percent < end && value.charAt(percent) != '%') {
+      percent++;
+    }
+    if (percent == end) {
+      return value.subSequence(start, end).toString();
+    }
+    byte[] bytes = new byte[end - start];
+    int length = 0;
+    for (int i = start; i < end; i++) {
+      char c = value.charAt(i);
+      if (c == '%') {
+        checkArgument(i + 2 < end, "Encoding is malformed.");
+        int high = Character.digit(value.charAt(++i), 16);
+        int low = Character.digit(value.charAt(++i), 16);
+        checkArgument(high >= 0 && low >= 0, "Encoding is malformed.");
+        bytes[length++] = (byte) (high << 4 | low);
+      } else {
+        checkArgument(c < 0x80, "Encoding is malformed.");
+        bytes[length++] = (byte) c;
+      }
+    }
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes the escapes of the UTF-8 bytes of a code point.
+   *
+   * @param codePoint specifies the code point to be escaped
+   * @param out       specifies the sink where the escapes will be written
+   * @throws IOException if the sink cannot be written
+   */
+  private static void appendEscaped(int codePoint, Appendable out) throws IOException {
+    if (codePoint < 0x80) {
+      out.append(ESCAPES[codePoint]);
+    } else if (codePoint < 0x800) {
+      out.append(ESCAPES[0xC0 | codePoint >> 6]).append(ESCAPES[0x80 | codePoint & 0x3F]);
+    } else if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      out.append(ESCAPES[0xE0 | codePoint >> 12]).append(ESCAPES[0x80 | codePoint >> 6 & 0x3F])
+          .append(ESCAPES[0x80 | codePoint & 0x3F]);
+    } else {
+      out.append(ESCAPES[0xF0 | codePoint >> 18]).append(ESCAPES[0x80 | codePoint >> 12 & 0x3F])
+          .append(ESCAPES[0x80 | codePoint >> 6 & 0x3F]).append(ESCAPES[0x80 | codePoint & 0x3F]);
+    }
+  }
+}
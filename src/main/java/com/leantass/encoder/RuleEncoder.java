@@ -8,7 +8,17 @@ import java.util.Objects;
 import com.leantass.encoder.ParamEncoder.TruncationStyle;
 
 /**
- * Specifies the encoding rules.
+ * Specifies the encoding rules. The widths of a rule are measured in its {@link WidthUnit}, which
+ * is {@link WidthUnit#CHARS} unless a different one is given to the {@link Builder}. A URL-safe
+ * rule percent-encodes the name of its field and its values, and measures its widths on the
+ * escaped values. The priority of a rule decides which fields are truncated or dropped first when
+ * the whole encoding has to fit in a length budget.
+ *
+ * <p>The delimiters of an array are not escaped, even by a URL-safe rule, so that an array is
+ * still recognized when it is decoded. Its commas are sub-delimiters, which RFC 3986 allows in a
+ * query, but its square brackets are not, so an encoding with arrays is only URL-safe for the
+ * servers that accept brackets in a query, as most do. Each delimiter takes a single unit of the
+ * array width, since it is written as a single byte.
  *
  * @author jovanimtzrico@gmail.com (Jovani Rico)
  */
@@ -17,15 +27,52 @@ public final class RuleEncoder {
   private final TruncationStyle style;
   private final int width;
   private final int arrayWidth;
+  private final WidthUnit unit;
+  private final boolean urlSafe;
+  private final int priority;
+  private final long longUpperBound;
+  private final long longLowerBound;
+  private final int integerUpperBound;
+  private final int integerLowerBound;
+  private RuleEncoder urlSafeRule;
 
   private RuleEncoder(Builder builder) {
     this.style = builder.style;
     this.width = builder.width;
     this.arrayWidth = builder.arrayWidth;
+    this.urlSafe = builder.urlSafe;
+    this.priority = builder.priority;
+    this.unit = urlSafe ? WidthUnit.PERCENT_ENCODED_BYTES
+        : builder.unit == null ? WidthUnit.CHARS : builder.unit;
+    this.longUpperBound = ParamEncoderObject.largestLong(width);
+    this.longLowerBound = width - 1 < ParamEncoderObject.MAX_LONG_DIGITS
+        ? -ParamEncoderObject.largestLong(width - 1) : Long.MIN_VALUE;
+    this.integerUpperBound = (int) Math.min(longUpperBound, Integer.MAX_VALUE);
+    this.integerLowerBound = (int) Math.max(longLowerBound, Integer.MIN_VALUE);
+  }
+
+  /**
+   * Create the URL-safe version of a rule, with the same style, widths and priority.
+   *
+   * @param rule specifies the rule that is not URL-safe
+   */
+  private RuleEncoder(RuleEncoder rule) {
+    this.style = rule.style;
+    this.width = rule.width;
+    this.arrayWidth = rule.arrayWidth;
+    this.urlSafe = true;
+    this.priority = rule.priority;
+    this.unit = WidthUnit.PERCENT_ENCODED_BYTES;
+    this.longUpperBound = rule.longUpperBound;
+    this.longLowerBound = rule.longLowerBound;
+    this.integerUpperBound = rule.integerUpperBound;
+    this.integerLowerBound = rule.integerLowerBound;
+    this.urlSafeRule = this;
   }
 
   /**
-   * Specifies the max number of characters that should be used for encoding an object.
+   * Specifies the max number of characters that should be used for encoding an object, measured
+   * in {@link #getUnit()}.
    *
    * @return the max number of characters that should be used to encode and object
    */
@@ -34,7 +81,8 @@ public final class RuleEncoder {
   }
 
   /**
-   * Specifies max number of characters that should be used for encoding an array.
+   * Specifies max number of characters that should be used for encoding an array, measured in
+   * {@link #getUnit()}.
    *
    * @return the max number of characters that should be used for encoding an array
    */
@@ -42,6 +90,92 @@ public final class RuleEncoder {
     return arrayWidth;
   }
 
+  /**
+   * Specifies the unit in which {@link #getWidth()} and {@link #getArrayWidth()} are measured.
+   *
+   * @return the unit of the widths
+   */
+  public WidthUnit getUnit() {
+    return unit;
+  }
+
+  /**
+   * Specifies whether the name of the field and its values are percent-encoded. The widths of a
+   * URL-safe rule are always measured in {@link WidthUnit#PERCENT_ENCODED_BYTES}, which is the
+   * length of the escaped values. The brackets and commas of an array are not escaped.
+   *
+   * @return <b>true</b> if the rule is URL-safe. Otherwise, will return <b>false</b>.
+   */
+  public boolean isUrlSafe() {
+    return urlSafe;
+  }
+
+  /**
+   * Specifies the priority of the field when the encoding has to fit in a length budget. Fields
+   * with a lower priority are truncated or dropped first.
+   *
+   * @return the priority of the field, zero unless a different one was given
+   */
+  public int getPriority() {
+    return priority;
+  }
+
+  /**
+   * Provides the URL-safe version of this rule, with the same style and widths. It is created the
+   * first time it is needed; since a rule is immutable, concurrent callers may at worst create it
+   * more than once.
+   *
+   * @return the URL-safe rule, this same instance if it is already URL-safe
+   */
+  RuleEncoder toUrlSafe() {
+    RuleEncoder rule = urlSafeRule;
+    if (rule == null) {
+      rule = urlSafe ? this : new RuleEncoder(this);
+      urlSafeRule = rule;
+    }
+    return rule;
+  }
+
+  /**
+   * Specifies the largest positive integer that can be encoded within {@link #getWidth()}
+   * characters. For instance, with a width of 2 this will be <b>99</b>.
+   *
+   * @return the largest positive integer that can be encoded
+   */
+  int getIntegerUpperBound() {
+    return integerUpperBound;
+  }
+
+  /**
+   * Specifies the smallest negative integer that can be encoded within {@link #getWidth()}
+   * characters, including the sign. For instance, with a width of 2 this will be <b>-9</b>.
+   *
+   * @return the smallest negative integer that can be encoded
+   */
+  int getIntegerLowerBound() {
+    return integerLowerBound;
+  }
+
+  /**
+   * Specifies the largest positive long that can be encoded within {@link #getWidth()}
+   * characters.
+   *
+   * @return the largest positive long that can be encoded
+   */
+  long getLongUpperBound() {
+    return longUpperBound;
+  }
+
+  /**
+   * Specifies the smallest negative long that can be encoded within {@link #getWidth()}
+   * characters, including the sign.
+   *
+   * @return the smallest negative long that can be encoded
+   */
+  long getLongLowerBound() {
+    return longLowerBound;
+  }
+
   /**
    * Specifies the {@link TruncationStyle} that will be used to encode an object.
    *
@@ -53,7 +187,7 @@ public final class RuleEncoder {
 
   @Override
   public int hashCode() {
-    return Objects.hash(style, width, arrayWidth);
+    return Objects.hash(style, width, arrayWidth, unit, urlSafe, priority);
   }
 
   @Override
@@ -64,7 +198,35 @@ public final class RuleEncoder {
     RuleEncoder tmp = (RuleEncoder) obj;
     return Objects.equals(style, tmp.getStyle())
         && Objects.equals(width, tmp.getWidth())
-        && Objects.equals(arrayWidth, tmp.getArrayWidth());
+        && Objects.equals(arrayWidth, tmp.getArrayWidth())
+        && Objects.equals(unit, tmp.getUnit())
+        && urlSafe == tmp.isUrlSafe()
+        && priority == tmp.getPriority();
+  }
+
+  /**
+   * Specifies the unit in which the widths of a rule are measured. Integers are made of ASCII
+   * digits and a sign, so their width is the same in every unit; the unit only changes how
+   * strings are truncated and how much room each element takes in an array. The brackets and
+   * commas of an array always take one unit each.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  public enum WidthUnit {
+
+    /**
+     * Specifies that widths count UTF-16 characters
+     */
+    CHARS,
+    /**
+     * Specifies that widths count the bytes of the UTF-8 encoding
+     */
+    UTF8_BYTES,
+    /**
+     * Specifies that widths count the bytes of the UTF-8 encoding once percent-encoded, where
+     * every byte other than an unreserved ASCII character takes three bytes
+     */
+    PERCENT_ENCODED_BYTES
   }
 
   /**
@@ -77,6 +239,9 @@ public final class RuleEncoder {
     private TruncationStyle style;
     private int width;
     private int arrayWidth;
+    private WidthUnit unit;
+    private boolean urlSafe;
+    private int priority;
 
     /**
      * Create a new instance.
@@ -113,12 +278,53 @@ public final class RuleEncoder {
       return this;
     }
 
+    /**
+     * Specifies the unit in which the widths will be measured, {@link WidthUnit#CHARS} unless a
+     * different one is given. A URL-safe rule is always measured in
+     * {@link WidthUnit#PERCENT_ENCODED_BYTES}.
+     *
+     * @param unit specifies the desired unit of the widths
+     * @return this {@code Builder} object
+     */
+    public Builder unit(WidthUnit unit) {
+      this.unit = checkNotNull(unit, "WidthUnit is missing.");
+      return this;
+    }
+
+    /**
+     * Specifies whether the name of the field and its values will be percent-encoded, making the
+     * encoding safe to be used in a URL. The widths are then measured on the escaped values.
+     *
+     * @param urlSafe specifies whether the rule will be URL-safe
+     * @return this {@code Builder} object
+     */
+    public Builder urlSafe(boolean urlSafe) {
+      this.urlSafe = urlSafe;
+      return this;
+    }
+
+    /**
+     * Specifies the priority of the field when the encoding has to fit in a length budget.
+     *
+     * @param priority specifies the desired priority, fields with a lower one are truncated or
+     *                 dropped first
+     * @return this {@code Builder} object
+     */
+    public Builder priority(int priority) {
+      this.priority = priority;
+      return this;
+    }
+
     /**
      * Return a newly-created {@code Rule} based on the contents of the {@code Builder}.
      *
      * @return a new instance with the desired configuration
+     * @throws IllegalArgumentException if the rule is URL-safe and its unit is not
+     *                                  {@link WidthUnit#PERCENT_ENCODED_BYTES}
      */
     public RuleEncoder build() {
+      checkArgument(!urlSafe || unit == null || unit == WidthUnit.PERCENT_ENCODED_BYTES,
+          "URL-safe rule is measured in percent-encoded bytes.");
       return new RuleEncoder(this);
     }
 
@@ -0,0 +1,259 @@
+package com.leantass.encoder;
+
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Specifies the index computations behind the {@link ParamEncoder.TruncationStyle#STRING_LEFT}
+ * and {@link ParamEncoder.TruncationStyle#STRING_RIGHT} styles. Instead of creating a truncated
+ * copy, each method provides the bound of the range of the source {@link CharSequence} to be kept,
+ * so the range can be written straight into a sink with
+ * {@link Appendable#append(CharSequence, int, int)}.
+ *
+ * <p>Truncation never splits a surrogate pair: when the budget ends in the middle of a pair, the
+ * whole code point is dropped, so the kept range may be one character shorter than the budget.
+ * The budget is measured in a {@link WidthUnit}. Byte units are computed code point by code point
+ * while walking the value, so the value is never encoded to be measured, and the width of the
+ * kept range is found in the same walk as its bound. An unpaired surrogate counts as its
+ * <b>?</b> replacement, as written by {@link Utf8Appendable}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+final class StringTruncation {
+
+  private StringTruncation() {
+  }
+
+  /**
+   * Provides the start of the range kept by a left truncation.
+   *
+   * @param value specifies the value to be truncated
+   * @param width specifies the maximum width to be kept
+   * @param unit  specifies the unit in which the width is measured
+   * @return the index of the first character kept, the range ends at the end of the value
+   */
+  static int leftStart(CharSequence value, int width, WidthUnit unit) {
+    if (unit == WidthUnit.CHARS) {
+      return leftStart(value, width);
+    }
+    return (int) (leftRange(value, width, unit) >>> 32);
+  }
+
+  /**
+   * Provides the width of the range kept by a left truncation, found in the same walk as its
+   * start.
+   *
+   * @param value specifies the value to be truncated
+   * @param width specifies the maximum width to be kept
+   * @param unit  specifies the unit in which the width is measured
+   * @return the width of the range kept
+   */
+  static int leftWidth(CharSequence value, int width, WidthUnit unit) {
+    if (unit == WidthUnit.CHARS) {
+      return value.length() - leftStart(value, width);
+    }
+    return (int) leftRange(value, width, unit);
+  }
+
+  /**
+   * Provides the end of the range kept by a right truncation.
+   *
+   * @param value specifies the value to be truncated
+   * @param width specifies the maximum width to be kept
+   * @param unit  specifies the unit in which the width is measured
+   * @return the index that follows the last character kept, the range starts at zero
+   */
+  static int rightEnd(CharSequence value, int width, WidthUnit unit) {
+    if (unit == WidthUnit.CHARS) {
+      return rightEnd(value, width);
+    }
+    return (int) (rightRange(value, width, unit) >>> 32);
+  }
+
+  /**
+   * Provides the width of the range kept by a right truncation, found in the same walk as its
+   * end.
+   *
+   * @param value specifies the value to be truncated
+   * @param width specifies the maximum width to be kept
+   * @param unit  specifies the unit in which the width is measured
+   * @return the width of the range kept
+   */
+  static int rightWidth(CharSequence value, int width, WidthUnit unit) {
+    if (unit == WidthUnit.CHARS) {
+      return rightEnd(value, width);
+    }
+    return (int) rightRange(value, width, unit);
+  }
+
+  /**
+   * Walks a value from its end, keeping the code points that fit in a width measured in a byte
+   * unit.
+   *
+   * @param value specifies the value to be truncated
+   * @param width specifies the maximum width to be kept
+   * @param unit  specifies the unit in which the width is measured
+   * @return the index of the first character kept in the upper 32 bits, and the width kept in the
+   * lower 32 bits
+   */
+  private static long leftRange(CharSequence value, int width, WidthUnit unit) {
+    int start = value.length();
+    int used = 0;
+    while (start > 0) {
+      int codePoint = Character.codePointBefore(value, start);
+      int units = units(codePoint, unit);
+      if (used + units > width) {
+        break;
+      }
+      used += units;
+      start -= Character.charCount(codePoint);
+    }
+    return (long) start << 32 | used;
+  }
+
+  /**
+   * Walks a value from its start, keeping the code points that fit in a width measured in a byte
+   * unit.
+   *
+   * @param value specifies the value to be truncated
+   * @param width specifies the maximum width to be kept
+   * @param unit  specifies the unit in which the width is measured
+   * @return the index that follows the last character kept in the upper 32 bits, and the width
+   * kept in the lower 32 bits
+   */
+  private static long rightRange(CharSequence value, int width, WidthUnit unit) {
+    int length = value.length();
+    int end = 0;
+    int used = 0;
+    while (end < length) {
+      int codePoint = Character.codePointAt(value, end);
+      int units = units(codePoint, unit);
+      if (used + units > width) {
+        break;
+      }
+      used += units;
+      end += Character.charCount(codePoint);
+    }
+    return (long) end << 32 | used;
+  }
+
+  /**
+   * Computes the width of a range of a value.
+   *
+   * @param value specifies the value to be measured
+   * @param start specifies the index of the first character of the range
+   * @param end   specifies the index that follows the last character of the range
+   * @param unit  specifies the unit in which the width is measured
+   * @return the width of the range
+   */
+  static int width(CharSequence value, int start, int end, WidthUnit unit) {
+    if (unit == WidthUnit.CHARS) {
+      return end - start;
+    }
+    int used = 0;
+    int index = start;
+    while (index < end) {
+      int codePoint = value.charAt(index);
+      if (Character.isHighSurrogate((char) codePoint) && index + 1 < end
+          && Character.isLowSurrogate(value.charAt(index + 1))) {
+        codePoint = Character.toCodePoint((char) codePoint, value.charAt(index + 1));
+      }
+      used += units(codePoint, unit);
+      index += Character.charCount(codePoint);
+    }
+    return used;
+  }
+
+  /**
+   * Computes the width of a single code point.
+   *
+   * @param codePoint specifies the code point to be measured
+   * @param unit      specifies the unit in which the width is measured
+   * @return the width of the code point
+   */
+  static int units(int codePoint, WidthUnit unit) {
+    switch (unit) {
+      case CHARS:
+        return Character.charCount(codePoint);
+      case UTF8_BYTES:
+        return utf8Length(codePoint);
+      case PERCENT_ENCODED_BYTES:
+        if (PercentEncoding.isUnreserved(codePoint)) {
+          return 1;
+        }
+        return 3 * utf8Length(codePoint);
+      default:
+        throw new UnsupportedOperationException("Operation not supported.");
+    }
+  }
+
+  /**
+   * Computes the number of bytes of the UTF-8 encoding of a code point.
+   *
+   * @param codePoint specifies the code point to be measured
+   * @return the number of UTF-8 bytes, one for an unpaired surrogate
+   */
+  static int utf8Length(int codePoint) {
+    if (codePoint < 0x80) {
+      return 1;
+    }
+    if (codePoint < 0x800) {
+      return 2;
+    }
+    if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      return 4;
+    }
+    return Character.isSurrogate((char) codePoint) ? 1 : 3;
+  }
+
+  /**
+   * Provides the start of the range kept by a left truncation, measuring the width in characters.
+   *
+   * @param value specifies the value to be truncated
+   * @param width specifies the maximum number of characters to be kept
+   * @return the index of the first character kept, the range ends at the end of the value
+   */
+  private static int leftStart(CharSequence value, int width) {
+    int length = value.length();
+    if (length <= width) {
+      return 0;
+    }
+    int start = length - Math.max(width, 0);
+    if (isSplitPair(value, start)) {
+      start++;
+    }
+    return start;
+  }
+
+  /**
+   * Provides the end of the range kept by a right truncation, measuring the width in characters.
+   *
+   * @param value specifies the value to be truncated
+   * @param width specifies the maximum number of characters to be kept
+   * @return the index that follows the last character kept, the range starts at zero
+   */
+  private static int rightEnd(CharSequence value, int width) {
+    int length = value.length();
+    if (length <= width) {
+      return length;
+    }
+    int end = Math.max(width, 0);
+    if (isSplitPair(value, end)) {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * Verifies if a given index falls between the two halves of a surrogate pair.
+   *
+   * @param value specifies the value to be evaluated
+   * @param index specifies the index to be evaluated
+   * @return <b>true</b> if the index splits a surrogate pair. Otherwise, will return
+   * <b>false</b>.
+   */
+  private static boolean isSplitPair(CharSequence value, int index) {
+    return index > 0 && index < value.length()
+        && Character.isHighSurrogate(value.charAt(index - 1))
+        && Character.isLowSurrogate(value.charAt(index));
+  }
+}
@@ -0,0 +1,191 @@
+package com.leantass.encoder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Specifies a sink that writes characters as UTF-8 bytes straight into a {@link ByteBuffer}, so
+ * an encoding lands in an I/O buffer without first creating a {@link String} and converting it.
+ * ASCII characters, which include every delimiter and digit of an encoding, are copied with a
+ * single cast, and straight into the backing array when the buffer has one. A pooled
+ * {@code byte[]} can be used through {@link ByteBuffer#wrap(byte[])}.
+ *
+ * <p>Surrogate pairs are written as four-byte sequences, even when their halves are appended by
+ * separate calls, such as one character at a time. A high surrogate that ends an append is held
+ * until the next character is known. An unpaired surrogate is written as <b>?</b>, the same
+ * replacement used by {@link String#getBytes(java.nio.charset.Charset)}, and a high surrogate
+ * still held when the writing ends is written by {@link #flush()}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public final class Utf8Appendable implements Appendable {
+
+  private static final byte REPLACEMENT = '?';
+  private final ByteBuffer buffer;
+  private char pending;
+
+  /**
+   * Create a new instance of {@code Utf8Appendable}.
+   *
+   * @param buffer specifies the buffer where the bytes will be written, starting at its current
+   *               position
+   */
+  public Utf8Appendable(ByteBuffer buffer) {
+    this.buffer = checkNotNull(buffer, "ByteBuffer is missing.");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws BufferOverflowException if the buffer has not enough remaining space
+   */
+  @Override
+  public Utf8Appendable append(CharSequence csq) {
+    CharSequence chars = csq == null ? "null" : csq;
+    return append(chars, 0, chars.length());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws BufferOverflowException if the buffer has not enough remaining space
+   */
+  @Override
+  public Utf8Appendable append(CharSequence csq, int start, int end) {
+    CharSequence chars = csq == null ? "null" : csq;
+    checkPositionIndexes(start, end, chars.length());
+    int index = start;
+    if (pending != 0 && index < end && appendPending(chars.charAt(index))) {
+      index++;
+    }
+    while (index < end) {
+      index = appendAscii(chars, index, end);
+      if (index < end) {
+        index = appendNonAscii(chars, index, end);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws BufferOverflowException if the buffer has not enough remaining space
+   */
+  @Override
+  public Utf8Appendable append(char c) {
+    if (pending != 0 && appendPending(c)) {
+      return this;
+    }
+    if (c < 0x80) {
+      buffer.put((byte) c);
+    } else {
+      appendNonAscii(String.valueOf(c), 0, 1);
+    }
+    return this;
+  }
+
+  /**
+   * Writes the high surrogate held from the last append as <b>?</b>, since no low surrogate can
+   * follow it anymore. It must be called once the writing ends.
+   *
+   * @return this sink
+   * @throws BufferOverflowException if the buffer has not enough remaining space
+   */
+  public Utf8Appendable flush() {
+    if (pending != 0) {
+      pending = 0;
+      buffer.put(REPLACEMENT);
+    }
+    return this;
+  }
+
+  /**
+   * Writes the high surrogate held from the last append, paired with the given character when it
+   * is a low surrogate.
+   *
+   * @param c specifies the character that follows the held high surrogate
+   * @return whether the character was written as the low surrogate of the pair
+   */
+  private boolean appendPending(char c) {
+    char high = pending;
+    pending = 0;
+    if (Character.isLowSurrogate(c)) {
+      appendCodePoint(Character.toCodePoint(high, c));
+      return true;
+    }
+    buffer.put(REPLACEMENT);
+    return false;
+  }
+
+  /**
+   * Copies the run of ASCII characters that starts at the given position.
+   *
+   * @param chars specifies the characters to be written
+   * @param start specifies the position of the first character
+   * @param end   specifies the position that follows the last character
+   * @return the position of the first character that is not ASCII, or the end
+   */
+  private int appendAscii(CharSequence chars, int start, int end) {
+    int index = start;
+    if (buffer.hasArray()) {
+      byte[] array = buffer.array();
+      int offset = buffer.arrayOffset();
+      int position = buffer.position();
+      int limit = buffer.limit();
+      for (char c; index < end && (c = chars.charAt(index)) < 0x80; index++) {
+        if (position == limit) {
+          buffer.position(position);
+          throw new BufferOverflowException();
+        }
+        array[offset + position++] = (byte) c;
+      }
+      buffer.position(position);
+    } else {
+      for (char c; index < end && (c = chars.charAt(index)) < 0x80; index++) {
+        buffer.put((byte) c);
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Writes the multi-byte sequence of the non-ASCII character at the given position.
+   *
+   * @param chars specifies the characters to be written
+   * @param index specifies the position of the character
+   * @param end   specifies the position that follows the last character
+   * @return the position that follows the written character
+   */
+  private int appendNonAscii(CharSequence chars, int index, int end) {
+    char c = chars.charAt(index);
+    if (c < 0x800) {
+      buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+    } else if (!Character.isSurrogate(c)) {
+      buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F))
+          .put((byte) (0x80 | c & 0x3F));
+    } else if (Character.isHighSurrogate(c) && index + 1 == end) {
+      pending = c;
+    } else if (Character.isHighSurrogate(c)
+        && Character.isLowSurrogate(chars.charAt(index + 1))) {
+      appendCodePoint(Character.toCodePoint(c, chars.charAt(index + 1)));
+      return index + 2;
+    } else {
+      buffer.put(REPLACEMENT);
+    }
+    return index + 1;
+  }
+
+  /**
+   * Writes the four-byte sequence of a supplementary code point.
+   *
+   * @param codePoint specifies the code point to be written
+   */
+  private void appendCodePoint(int codePoint) {
+    buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+  }
+}
@@ -0,0 +1,90 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.common.collect.ImmutableSortedMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link BatchParamEncoder}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class BatchParamEncoderTest {
+
+  private ForkJoinPool pool;
+  private BatchParamEncoder instance;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    ParamEncoderImpl encoder =
+        new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    pool = new ForkJoinPool(4);
+    instance = new BatchParamEncoder(encoder.compile(), pool);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void shouldEncodeBatchPreservingOrder() {
+    List<SortedMap<String, Object>> batch = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      batch.add(ImmutableSortedMap.of("int2", (Object) i, "left2", (Object) ("AB" + i)));
+    }
+
+    List<String> results = instance.encodeAll(batch);
+    assertEquals(batch.size(), results.size());
+    for (int i = 0; i < batch.size(); i++) {
+      String left = "AB" + i;
+      left = left.substring(left.length() - 2);
+      assertEquals("int2=" + Math.min(i, 99) + "&left2=" + left, results.get(i));
+    }
+  }
+
+  @Test
+  public void shouldEncodeEmptyBatch() {
+    List<SortedMap<String, Object>> batch = Collections.emptyList();
+
+    assertTrue(instance.encodeAll(batch).isEmpty());
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionCannotEncodeBatch() {
+    List<SortedMap<String, Object>> batch = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      batch.add(ImmutableSortedMap.of("int2", i == 50 ? new Object() : (Object) i));
+    }
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    instance.encodeAll(batch);
+  }
+
+  @Test
+  public void shouldThrowNullPointerExceptionMissingBatch() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("Batch is missing.");
+    instance.encodeAll(null);
+  }
+}
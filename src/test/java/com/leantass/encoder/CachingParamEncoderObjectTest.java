@@ -0,0 +1,121 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Maps;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link CachingParamEncoderObject}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class CachingParamEncoderObjectTest {
+
+  private static final RuleEncoder RULE_INTEGER = RuleEncoder.Builder.builder(INTEGER).width(2)
+      .build();
+  private static final RuleEncoder RULE_LEFT = RuleEncoder.Builder.builder(STRING_LEFT).width(2)
+      .build();
+  private static final String PARAM = "param1";
+  private CachingParamEncoderObject instance;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    instance = new CachingParamEncoderObject(2);
+  }
+
+  @Test
+  public void shouldReturnSameInstanceForRepeatedValue() {
+    String first = instance.encode(entry(123), RULE_INTEGER);
+    String second = instance.encode(entry(123), RULE_INTEGER);
+
+    assertEquals("99", first);
+    assertSame(first, second);
+    CacheStats stats = instance.stats(RULE_INTEGER);
+    assertEquals(1, stats.hitCount());
+    assertEquals(1, stats.missCount());
+  }
+
+  @Test
+  public void shouldCacheEachRuleSeparately() {
+    assertEquals("12", instance.encode(entry("12"), RULE_INTEGER));
+    assertEquals("12", instance.encode(entry("12"), RULE_LEFT));
+    assertEquals("BC", instance.encode(entry("ABC"), RULE_LEFT));
+
+    assertEquals(1, instance.stats(RULE_INTEGER).missCount());
+    assertEquals(2, instance.stats(RULE_LEFT).missCount());
+    assertEquals(3, instance.stats().missCount());
+  }
+
+  @Test
+  public void shouldEvictValuesBeyondMaximumSize() {
+    instance.encode(entry("ABC"), RULE_LEFT);
+    instance.encode(entry("DEF"), RULE_LEFT);
+    instance.encode(entry("GHI"), RULE_LEFT);
+
+    assertEquals(1, instance.stats(RULE_LEFT).evictionCount());
+  }
+
+  @Test
+  public void shouldForgetValuesAfterInvalidating() {
+    instance.encode(entry("ABC"), RULE_LEFT);
+    instance.invalidateAll();
+    instance.encode(entry("ABC"), RULE_LEFT);
+
+    assertEquals(0, instance.stats().hitCount());
+  }
+
+  @Test
+  public void shouldNotEncodeMissingRule() {
+    assertEquals("", instance.encode(entry("ABC"), null));
+    assertEquals(0, instance.stats().requestCount());
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionEncodingNotSupported() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    instance.encode(entry('d'), RULE_INTEGER);
+  }
+
+  @Test
+  public void shouldHitCacheWhenWritingThroughEncoder() throws IOException {
+    ParamEncoderImpl encoder = new ParamEncoderImpl(instance, new ParamEncoderArray(instance));
+    encoder.addTruncationRule("int2", RULE_INTEGER);
+    encoder.addArrayTruncationRule("array", 10, STRING_LEFT, 2);
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("int2", 123);
+    data.put("array", new String[]{"ABC", "ABC"});
+
+    StringBuilder first = new StringBuilder();
+    encoder.encodeTo(data, first);
+    long misses = instance.stats().missCount();
+    StringBuilder second = new StringBuilder();
+    encoder.encodeTo(data, second);
+
+    assertEquals("array=[BC,BC]&int2=99", first.toString());
+    assertEquals(first.toString(), second.toString());
+    assertEquals(2, misses);
+    assertEquals(misses, instance.stats().missCount());
+    assertTrue(instance.stats().hitCount() > 0);
+  }
+
+  private static Entry<String, Object> entry(Object value) {
+    return Maps.immutableEntry(PARAM, value);
+  }
+}
@@ -0,0 +1,264 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.common.collect.ImmutableSortedMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link CompiledParamEncoder}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class CompiledParamEncoderTest {
+
+  private ParamEncoderImpl encoder;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    encoder = new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    encoder.addFieldTruncationRule("right2", STRING_RIGHT, 2);
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addArrayTruncationRule("array1", 10, STRING_RIGHT, 3);
+  }
+
+  @Test
+  public void shouldEncodeSameAsInterpretedEncoder() {
+    ImmutableSortedMap.Builder<String, Object> builder = ImmutableSortedMap.naturalOrder();
+    builder.put("array1", (Object) new String[]{"ABC", "EF", "IJ"})
+        .put("int2", 100)
+        .put("left2", "ABC")
+        .put("right2", "ABC")
+        .put("ignored", "1234");
+    SortedMap<String, Object> data = builder.build();
+
+    String result = encoder.compile().encode(data);
+    assertEquals("array1=[ABC,EF]&int2=99&left2=BC&right2=AB", result);
+    assertEquals(encoder.encode(data), result);
+  }
+
+  @Test
+  public void shouldEncodeMapWithReverseOrder() {
+    SortedMap<String, Object> data = new TreeMap<>(Collections.<String>reverseOrder());
+    data.put("int2", -100);
+    data.put("left2", "ABC");
+    data.put("ignored", "1234");
+
+    String result = encoder.compile().encode(data);
+    assertEquals("left2=BC&int2=-9", result);
+    assertEquals(encoder.encode(data), result);
+  }
+
+  @Test
+  public void shouldEncodeUnsortedMapInNaturalOrder() {
+    Map<String, Object> data = new HashMap<>();
+    data.put("right2", "ABC");
+    data.put("left2", "ABC");
+    data.put("ignored", "1234");
+    data.put("array1", new String[]{"ABC", "EF", "IJ"});
+    data.put("int2", 100);
+
+    String result = encoder.compile().encode(data);
+    assertEquals("array1=[ABC,EF]&int2=99&left2=BC&right2=AB", result);
+    assertEquals(encoder.encode(data), result);
+  }
+
+  @Test
+  public void shouldEncodeParallelArraysInNaturalOrder() {
+    String[] keys = {"right2", "ignored", "int2", "left2"};
+    Object[] values = {"ABC", "1234", -100, "ABC"};
+
+    String result = encoder.compile().encode(keys, values);
+    assertEquals("int2=-9&left2=BC&right2=AB", result);
+    assertEquals(encoder.encode(keys, values), result);
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionRepeatedKey() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Key is repeated.");
+    encoder.compile().encode(new String[]{"int2", "int2"}, new Object[]{1, 2});
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionKeysAndValuesDoNotMatch() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Keys and values do not match.");
+    encoder.compile().encode(new String[]{"int2"}, new Object[0]);
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionCannotEncodeUnsortedFieldWithoutRule() {
+    Map<String, Object> data = new HashMap<>();
+    data.put("int2", 1);
+    data.put("ignored", new Object());
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    encoder.compile().encode(data);
+  }
+
+  @Test
+  public void shouldProbeOnlyFieldsWithRules() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    for (int i = 0; i < 100; i++) {
+      data.put("field" + i, new Object());
+    }
+    data.put("int2", 100);
+    data.put("right2", "ABC");
+    encoder.setRuleDriven(true);
+
+    assertEquals("int2=99&right2=AB", encoder.compile().encode(data));
+    assertEquals("int2=99&right2=AB", encoder.encode(data));
+  }
+
+  @Test
+  public void shouldIgnoreFieldsWithoutRulesWhenRuleDriven() {
+    SortedMap<String, Object> data = new TreeMap<>(Collections.<String>reverseOrder());
+    data.put("int2", 100);
+    data.put("ignored", new Object());
+    encoder.setRuleDriven(true);
+
+    assertEquals("int2=99", encoder.compile().encode(data));
+    assertEquals("int2=99", encoder.encode(data));
+  }
+
+  @Test
+  public void shouldProbeWhenRulesAreFewerThanLookups() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    for (int i = 0; i < 200; i++) {
+      data.put("field" + i, i);
+    }
+
+    assertTrue(CompiledParamEncoder.shouldProbe(data, 15));
+    assertFalse(CompiledParamEncoder.shouldProbe(data, 50));
+    assertFalse(CompiledParamEncoder.shouldProbe(new TreeMap<String, Object>(
+        Collections.<String>reverseOrder()), 0));
+  }
+
+  @Test
+  public void shouldEncodeWithinLengthBudgetByPriority() {
+    encoder = new ParamEncoderImpl(new ParamEncoderObject(),
+        new ParamEncoderArray(new ParamEncoderObject()));
+    encoder.addTruncationRule("a", RuleEncoder.Builder.builder(STRING_RIGHT).width(10).build());
+    encoder.addTruncationRule("b",
+        RuleEncoder.Builder.builder(INTEGER).width(3).priority(5).build());
+    encoder.addTruncationRule("c",
+        RuleEncoder.Builder.builder(STRING_LEFT).width(10).priority(1).build());
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("a", "ABCDEFGHIJ");
+    data.put("b", 123);
+    data.put("c", "KLMNOPQRST");
+    data.put("ignored", "1234");
+    CompiledParamEncoder compiled = encoder.compile();
+
+    assertEquals("a=ABCDEFGHIJ&b=123&c=KLMNOPQRST", compiled.encode(data, 31));
+    assertEquals("a=ABCD&b=123&c=KLMNOPQRST", compiled.encode(data, 25));
+    assertEquals("b=123&c=ST", compiled.encode(data, 10));
+    assertEquals("", compiled.encode(data, 4));
+    assertEquals("b=123&c=ST", encoder.encode(data, 10));
+    assertEquals(encoder.encode(data), encoder.encode(data, 100));
+  }
+
+  @Test
+  public void shouldEncodeWithinByteBudget() {
+    encoder.addTruncationRule("a", RuleEncoder.Builder.builder(STRING_RIGHT).width(10).build());
+    encoder.addTruncationRule("b",
+        RuleEncoder.Builder.builder(INTEGER).width(3).priority(5).build());
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("a", "\u00e9\u00e9\u00e9\u00e9\u00e9");
+    data.put("b", 123);
+    CompiledParamEncoder compiled = encoder.compile();
+
+    ByteBuffer bytes = ByteBuffer.allocate(64);
+    compiled.encodeTo(data, 14, bytes);
+    assertEquals("a=\u00e9\u00e9\u00e9&b=123",
+        new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8));
+    assertEquals("a=\u00e9\u00e9\u00e9\u00e9\u00e9&b=123", compiled.encode(data, 14));
+    bytes.clear();
+    compiled.encodeTo(data, 6, bytes);
+    assertEquals("b=123", new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shouldDropArraysAndIntegersOverLengthBudget() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("array1", new String[]{"ABC", "EF", "IJ"});
+    data.put("int2", 100);
+    data.put("left2", "ABC");
+
+    assertEquals("array1=[ABC,EF]&int2=99", encoder.compile().encode(data, 25));
+    assertEquals("array1=[ABC,EF]", encoder.compile().encode(data, 16));
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionNegativeLengthBudget() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("max length cannot be less than zero.");
+    encoder.compile().encode(new TreeMap<String, Object>(), -1);
+  }
+
+  @Test
+  public void shouldNotBeAffectedByRulesAddedAfterCompiling() {
+    CompiledParamEncoder compiled = encoder.compile();
+    encoder.addFieldTruncationRule("ignored", STRING_LEFT, 2);
+    SortedMap<String, Object> data = ImmutableSortedMap.of("ignored", (Object) "1234");
+
+    assertEquals("", compiled.encode(data));
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionCannotEncodeFieldWithoutRule() {
+    SortedMap<String, Object> data = ImmutableSortedMap.of("ignored", new Object());
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    encoder.compile().encode(data);
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionCannotEncodeArrayOfCharacters() {
+    SortedMap<String, Object> data =
+        ImmutableSortedMap.of("array1", (Object) new Character[]{'A', 'B', 'C'});
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    encoder.compile().encode(data);
+  }
+
+  @Test
+  public void shouldThrowUnsupportedOperationExceptionAddingRule() {
+    CompiledParamEncoder compiled = encoder.compile();
+
+    thrown.expect(UnsupportedOperationException.class);
+    thrown.expectMessage("Operation is not supported.");
+    compiled.addFieldTruncationRule("int3", INTEGER, 3);
+  }
+
+  @Test
+  public void shouldThrowNullPointerExceptionMissingSortedMap() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("SortedMap is missing.");
+    encoder.compile().encode(null);
+  }
+}
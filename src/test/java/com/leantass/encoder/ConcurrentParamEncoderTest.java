@@ -0,0 +1,110 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link ConcurrentParamEncoder}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class ConcurrentParamEncoderTest {
+
+  private static final SortedMap<String, Object> DATA =
+      ImmutableSortedMap.of(
+          "array1", (Object) new String[]{"ABC", "EF", "IJ"},
+          "int2", (Object) 100,
+          "left2", (Object) "ABC");
+  private ConcurrentParamEncoder encoder;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    encoder = new ConcurrentParamEncoder();
+  }
+
+  @Test
+  public void shouldEncodeWithAddedRules() {
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    encoder.addArrayTruncationRule("array1", 10, STRING_RIGHT, 3);
+
+    assertEquals("array1=[ABC,EF]&int2=99&left2=BC", encoder.encode(DATA));
+  }
+
+  @Test
+  public void shouldReplaceExistingRule() {
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    encoder.addFieldTruncationRule("left2", STRING_RIGHT, 2);
+
+    assertEquals("left2=AB", encoder.encode(DATA));
+  }
+
+  @Test
+  public void shouldReplaceAllRules() {
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    encoder.replaceRules(ImmutableMap.of("int2",
+        RuleEncoder.Builder.builder(INTEGER).width(3).build()));
+
+    assertEquals("int2=100", encoder.encode(DATA));
+    assertEquals(ImmutableSet.of("int2"), encoder.getRules().keySet());
+  }
+
+  @Test
+  public void shouldEncodeWhileRulesAreUpdated() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Void>> readers = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        readers.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int j = 0; j < 2000; j++) {
+              String result = encoder.encode(DATA);
+              assertTrue(result, result.isEmpty() || result.startsWith("int2=")
+                  || result.startsWith("left2="));
+            }
+            return null;
+          }
+        }));
+      }
+      for (int i = 0; i < 200; i++) {
+        encoder.addFieldTruncationRule("int2", INTEGER, 1 + i % 3);
+        encoder.addFieldTruncationRule("left2", i % 2 == 0 ? STRING_LEFT : STRING_RIGHT, 2);
+      }
+      for (Future<Void> reader : readers) {
+        reader.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(ImmutableSet.of("int2", "left2"), encoder.getRules().keySet());
+  }
+
+  @Test
+  public void shouldThrowNullPointerExceptionMissingRules() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("Rules are missing.");
+    encoder.replaceRules(null);
+  }
+}
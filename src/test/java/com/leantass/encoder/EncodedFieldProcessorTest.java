@@ -0,0 +1,310 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Tests for class {@link EncodedFieldProcessor}, through the encoders generated for the annotated
+ * types of this test.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class EncodedFieldProcessorTest {
+
+  private ParamEncoderImpl encoder;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    encoder = new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    encoder.addArrayTruncationRule("array1", 10, STRING_RIGHT, 3);
+    encoder.addArrayTruncationRule("ints", 8, INTEGER, 2);
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    encoder.addFieldTruncationRule("long3", INTEGER, 3);
+    encoder.addFieldTruncationRule("middle5", STRING_LEFT, 5);
+    encoder.addFieldTruncationRule("number2", STRING_RIGHT, 2);
+    encoder.addFieldTruncationRule("big2", INTEGER, 2);
+  }
+
+  @Test
+  public void shouldEncodeSameAsParamEncoder() {
+    Sample sample = new Sample();
+    sample.array1 = new String[]{"ABC", "EF", "IJ"};
+    sample.int2 = 100;
+    sample.ints = new int[]{1, 200, 3};
+    sample.left2 = "ABC";
+    sample.long3 = -12345L;
+    sample.middle = "ABCDEFGH";
+    sample.number2 = 12345;
+    sample.big2 = BigInteger.TEN.pow(20);
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("array1", new String[]{"ABC", "EF", "IJ"});
+    data.put("int2", 100);
+    data.put("ints", new int[]{1, 200, 3});
+    data.put("left2", "ABC");
+    data.put("long3", -12345L);
+    data.put("middle5", "ABCDEFGH");
+    data.put("number2", 12345);
+    data.put("big2", BigInteger.TEN.pow(20));
+
+    assertEquals(encoder.encode(data),
+        new EncodedFieldProcessorTest_SampleParamEncoder().encode(sample));
+  }
+
+  @Test
+  public void shouldSkipNullMembers() {
+    Sample sample = new Sample();
+    sample.int2 = 7;
+    sample.long3 = 8;
+    sample.number2 = 9;
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("int2", 7);
+    data.put("long3", 8L);
+    data.put("number2", 9);
+
+    assertEquals("int2=7&long3=8&number2=9", encoder.encode(data));
+    assertEquals(encoder.encode(data),
+        new EncodedFieldProcessorTest_SampleParamEncoder().encode(sample));
+  }
+
+  @Test
+  public void shouldSkipEmptyMembers() {
+    Sample sample = new Sample();
+    sample.array1 = new String[0];
+    sample.left2 = "";
+    sample.int2 = 1;
+    sample.long3 = 2;
+    sample.number2 = 3;
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("array1", new String[0]);
+    data.put("left2", "");
+    data.put("int2", 1);
+    data.put("long3", 2L);
+    data.put("number2", 3);
+
+    assertEquals("int2=1&long3=2&number2=3", encoder.encode(data));
+    assertEquals(encoder.encode(data),
+        new EncodedFieldProcessorTest_SampleParamEncoder().encode(sample));
+  }
+
+  @Test
+  public void shouldEncodeGettersWithUrlSafeRules() throws IOException {
+    Getters getters = new Getters("a b", new Long[]{-1L, 22L, 333L});
+    StringBuilder out = new StringBuilder("x=1&");
+
+    new EncodedFieldProcessorTest_GettersParamEncoder().encodeTo(getters, out);
+
+    encoder.addTruncationRule("name", RuleEncoder.Builder.builder(STRING_RIGHT).width(5)
+        .urlSafe(true).build());
+    encoder.addTruncationRule("values", RuleEncoder.Builder.builder(INTEGER).width(3)
+        .arrayWidth(9).unit(WidthUnit.UTF8_BYTES).build());
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("name", "a b");
+    data.put("values", new Long[]{-1L, 22L, 333L});
+    assertEquals("x=1&" + encoder.encode(data), out.toString());
+  }
+
+  @Test
+  public void shouldNotEncodeMissingValue() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("Value is missing.");
+    new EncodedFieldProcessorTest_SampleParamEncoder().encode(null);
+  }
+
+  @Test
+  public void shouldNotEncodeNullElement() {
+    Sample sample = new Sample();
+    sample.array1 = new String[]{"A", null};
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("Value is missing.");
+    new EncodedFieldProcessorTest_SampleParamEncoder().encode(sample);
+  }
+
+  @Test
+  public void shouldReportPrivateMembers() throws IOException {
+    assertEquals(Collections.singletonList("Member cannot be private."),
+        compile("class Bad { @EncodedField(style = TruncationStyle.INTEGER, width = 2)"
+            + " private int value; }"));
+  }
+
+  @Test
+  public void shouldReportGettersWithParameters() throws IOException {
+    assertEquals(Collections.singletonList("Getter cannot have parameters."),
+        compile("class Bad { @EncodedField(style = TruncationStyle.INTEGER, width = 2)"
+            + " int value(int a) { return a; } }"));
+  }
+
+  @Test
+  public void shouldReportRepeatedNames() throws IOException {
+    assertEquals(Collections.singletonList("Field name is repeated."),
+        compile("class Bad { @EncodedField(style = TruncationStyle.INTEGER, width = 2)"
+            + " int value; @EncodedField(name = \"value\", style = TruncationStyle.INTEGER,"
+            + " width = 2) int getValue() { return 0; } }"));
+  }
+
+  @Test
+  public void shouldReportUrlSafeMemberWithOtherUnit() throws IOException {
+    assertEquals(Collections.singletonList("URL-safe member is measured in percent-encoded bytes."),
+        compile("class Bad { @EncodedField(style = TruncationStyle.STRING_LEFT, width = 2,"
+            + " unit = com.leantass.encoder.RuleEncoder.WidthUnit.UTF8_BYTES, urlSafe = true)"
+            + " String value; }"));
+  }
+
+  @Test
+  public void shouldReportUnsupportedTypes() throws IOException {
+    assertEquals(Arrays.asList("Type is not supported by @EncodedField.",
+        "Width cannot be less than one.",
+        "Numeric arrays can only be encoded with the INTEGER style."),
+        compile("class Bad { @EncodedField(style = TruncationStyle.INTEGER, width = 2)"
+            + " double a; @EncodedArray(arrayWidth = 5, style = TruncationStyle.STRING_LEFT,"
+            + " width = 2) int[] b; @EncodedField(style = TruncationStyle.INTEGER, width = 0)"
+            + " int c; }"));
+  }
+
+  @Test
+  public void shouldGenerateEncodersOfNestedTypes() throws IOException {
+    Path output = Files.createTempDirectory("processor");
+    assertEquals(Collections.<String>emptyList(),
+        compile(output, "class Good { static class Inner { @EncodedField(name = \"a\\\"b\","
+            + " style = TruncationStyle.STRING_RIGHT, width = 2) int a;"
+            + " @EncodedArray(arrayWidth = 5, style = TruncationStyle.INTEGER, width = 2)"
+            + " long[] b; } }"));
+    assertTrue(Files.exists(output.resolve("Good_InnerParamEncoder.class")));
+    assertFalse(Files.exists(output.resolve("GoodParamEncoder.class")));
+  }
+
+  /**
+   * Compiles a source in the default package, with the processor, and provides the messages of
+   * the reported errors.
+   *
+   * @param source specifies the declaration of the types to be compiled
+   * @return the messages of the errors, in the order they were reported
+   * @throws IOException if the output directory cannot be created
+   */
+  private static List<String> compile(String source) throws IOException {
+    return compile(Files.createTempDirectory("processor"), source);
+  }
+
+  /**
+   * Compiles a source in the default package, with the processor, into the given directory and
+   * provides the messages of the reported errors.
+   *
+   * @param output specifies the directory of the generated sources and classes
+   * @param source specifies the declaration of the types to be compiled
+   * @return the messages of the errors, in the order they were reported
+   */
+  private static List<String> compile(Path output, String source) {
+    final String content = "import com.leantass.encoder.*;\n"
+        + "import com.leantass.encoder.ParamEncoder.TruncationStyle;\n" + source;
+    JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///Source.java"),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return content;
+      }
+    };
+    String classpath = new File(EncodedField.class.getProtectionDomain().getCodeSource()
+        .getLocation().getPath()).getPath() + File.pathSeparator
+        + new File(com.google.common.base.Preconditions.class.getProtectionDomain()
+        .getCodeSource().getLocation().getPath()).getPath();
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+        Arrays.asList("-classpath", classpath, "-d", output.toString(), "-s",
+            output.toString()), null, Collections.singletonList(file));
+    task.setProcessors(Collections.singletonList(new EncodedFieldProcessor()));
+    task.call();
+    List<String> errors = new ArrayList<>();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+        errors.add(diagnostic.getMessage(null));
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Specifies a type whose encoder is generated when the tests are compiled.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  static class Sample {
+
+    @EncodedArray(arrayWidth = 10, style = STRING_RIGHT, width = 3)
+    String[] array1;
+    @EncodedField(style = INTEGER, width = 2)
+    int int2;
+    @EncodedArray(arrayWidth = 8, style = INTEGER, width = 2)
+    int[] ints;
+    @EncodedField(style = STRING_LEFT, width = 2)
+    String left2;
+    @EncodedField(style = INTEGER, width = 3)
+    long long3;
+    @EncodedField(name = "middle5", style = STRING_LEFT, width = 5)
+    String middle;
+    @EncodedField(style = STRING_RIGHT, width = 2)
+    int number2;
+    @EncodedField(style = INTEGER, width = 2)
+    BigInteger big2;
+  }
+
+  /**
+   * Specifies a type whose encoded members are getters.
+   *
+   * @author jovanimtzrico@gmail.com (Jovani Rico)
+   */
+  static class Getters {
+
+    private final String name;
+    private final Long[] values;
+
+    Getters(String name, Long[] values) {
+      this.name = name;
+      this.values = values;
+    }
+
+    @EncodedField(style = STRING_RIGHT, width = 5, urlSafe = true)
+    public String getName() {
+      return name;
+    }
+
+    @EncodedArray(arrayWidth = 9, style = INTEGER, width = 3, unit = WidthUnit.UTF8_BYTES)
+    public Long[] getValues() {
+      return values;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+import org.junit.Test;
+
+/**
+ * Tests for class {@link EncodedLength}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class EncodedLengthTest {
+
+  @Test
+  public void shouldCountCharsAndUtf8Bytes() {
+    EncodedLength instance = new EncodedLength();
+    instance.append("a=").append('\u00e9').append("x\ud83d\ude00y", 1, 3).append('\ud83d');
+
+    assertEquals(6, instance.chars());
+    assertEquals(2 + 2 + 4 + 1, instance.bytes());
+  }
+
+  @Test
+  public void shouldCountSurrogatePairSplitAcrossAppends() {
+    EncodedLength instance = new EncodedLength();
+    instance.append('\ud83d').append('\ude00').append("x\ud83d").append("\ude00\ud83d", 0, 1)
+        .append('\ude00').append('\ud83d').append("y");
+
+    assertEquals(8, instance.chars());
+    assertEquals(4 + 1 + 4 + 1 + 1 + 1, instance.bytes());
+  }
+
+  @Test
+  public void shouldComputeWorstCaseOfRules() {
+    Map<String, RuleEncoder> rules = ImmutableMap.of(
+        "int", RuleEncoder.Builder.builder(INTEGER).width(3).build(),
+        "array", RuleEncoder.Builder.builder(STRING_RIGHT).width(2).arrayWidth(10).build(),
+        "bytes", RuleEncoder.Builder.builder(STRING_RIGHT).width(4).unit(WidthUnit.UTF8_BYTES)
+            .build());
+
+    assertEquals("int=999&array=[AB,CD,EF]&bytes=ABCD".length(),
+        EncodedLength.maxChars(rules));
+    assertEquals(4 + 3 + 6 + 3 * 10 + 6 + 4 + 2, EncodedLength.maxBytes(rules));
+  }
+
+  @Test
+  public void shouldComputeWorstCaseOfUrlSafeName() {
+    Map<String, RuleEncoder> rules = ImmutableMap.of(
+        "a&b", RuleEncoder.Builder.builder(STRING_RIGHT).width(3).urlSafe(true).build());
+
+    assertEquals("a%26b=ABC".length(), EncodedLength.maxChars(rules));
+    assertEquals("a%26b=ABC".length(), EncodedLength.maxBytes(rules));
+  }
+
+  @Test
+  public void shouldComputeEmptyWorstCaseWithoutRules() {
+    assertEquals(0, EncodedLength.maxChars(ImmutableMap.<String, RuleEncoder>of()));
+  }
+}
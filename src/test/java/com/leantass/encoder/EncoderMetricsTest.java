@@ -0,0 +1,94 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link EncoderMetrics}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class EncoderMetricsTest {
+
+  private EncoderMetrics instance;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    instance = new EncoderMetrics(true);
+  }
+
+  @Test
+  public void shouldCountEventsPerFieldAndStyle() {
+    instance.fieldEncoded("left", STRING_LEFT);
+    instance.stringTruncated("left", STRING_LEFT, 3);
+    instance.stringTruncated("left", STRING_LEFT, 2);
+    instance.integerClamped("int");
+    instance.elementsDropped("array", STRING_RIGHT, 4);
+    instance.fieldSkipped("other");
+    instance.fieldDropped("int", INTEGER);
+
+    assertEquals(1, instance.forField("left").getEncodedFields());
+    assertEquals(2, instance.forField("left").getTruncatedStrings());
+    assertEquals(5, instance.forField("left").getTruncatedChars());
+    assertEquals(5, instance.forStyle(STRING_LEFT).getTruncatedChars());
+    assertEquals(1, instance.forStyle(INTEGER).getClampedIntegers());
+    assertEquals(4, instance.forStyle(STRING_RIGHT).getDroppedElements());
+    assertEquals(1, instance.forField("other").getSkippedFields());
+    assertEquals(1, instance.forStyle(INTEGER).getDroppedFields());
+    assertEquals(ImmutableSet.of("left", "int", "array", "other"), instance.getFields());
+  }
+
+  @Test
+  public void shouldRecordLatencies() {
+    instance.fieldTimed("int", INTEGER, 0);
+    instance.fieldTimed("int", INTEGER, 3);
+    instance.fieldTimed("int", INTEGER, 1000);
+
+    EncoderMetrics.LatencyHistogram latency = instance.forField("int").getLatency();
+    assertEquals(3, latency.getCount());
+    assertEquals(1003, latency.getTotalNanos());
+    assertEquals(1, latency.getBucketCount(0));
+    assertEquals(1, latency.getBucketCount(2));
+    assertEquals(1, latency.getBucketCount(10));
+    assertEquals(3, instance.forStyle(INTEGER).getLatency().getCount());
+  }
+
+  @Test
+  public void shouldProvideBucketOfLatency() {
+    assertEquals(0, EncoderMetrics.LatencyHistogram.bucketOf(0));
+    assertEquals(1, EncoderMetrics.LatencyHistogram.bucketOf(1));
+    assertEquals(2, EncoderMetrics.LatencyHistogram.bucketOf(3));
+    assertEquals(63, EncoderMetrics.LatencyHistogram.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void shouldReuseCountersOfField() {
+    assertSame(instance.forField("int"), instance.forField("int"));
+  }
+
+  @Test
+  public void shouldBeTimedOnlyWhenRequested() {
+    assertTrue(instance.isTimed());
+    assertFalse(new EncoderMetrics().isTimed());
+  }
+
+  @Test
+  public void shouldThrowNullPointerExceptionFieldMissing() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("Field is missing.");
+    instance.forField(null);
+  }
+}
@@ -0,0 +1,102 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.common.base.Strings;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link EncodingContext}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class EncodingContextTest {
+
+  private ParamEncoderImpl encoder;
+  private EncodingContext instance;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    encoder = new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addFieldTruncationRule("text", STRING_RIGHT, 1000);
+    instance = new EncodingContext();
+  }
+
+  @Test
+  public void shouldEncodeSameAsEncoder() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("int2", 100);
+    data.put("text", "ABC");
+    Map<String, Object> unsorted = new HashMap<>(data);
+
+    assertEquals(encoder.encode(data), instance.encode(encoder, data));
+    assertEquals(encoder.encode(data), instance.encode(encoder, unsorted));
+    CompiledParamEncoder compiled = encoder.compile();
+    ParamSchema schema = compiled.schema();
+    assertEquals("int2=99&text=ABC", instance.encode(schema,
+        schema.newRecord().setInt(0, 100).setString(1, "ABC")));
+  }
+
+  @Test
+  public void shouldKeepCapacityOnceLengthsAreSteady() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("text", Strings.repeat("A", 200));
+    instance.encode(encoder, data);
+    int capacity = instance.getCapacity();
+
+    for (int i = 0; i < 100; i++) {
+      instance.encode(encoder, data);
+    }
+    assertEquals(capacity, instance.getCapacity());
+    assertEquals(205, instance.getExpectedLength());
+  }
+
+  @Test
+  public void shouldDecayTowardsShorterEncodingsAndRelease() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("text", Strings.repeat("A", 900));
+    instance.encode(encoder, data);
+    data.put("text", "A");
+
+    for (int i = 0; i < 100; i++) {
+      instance.encode(encoder, data);
+    }
+    assertTrue(instance.getExpectedLength() < 100);
+    assertTrue(instance.getCapacity() < 900);
+  }
+
+  @Test
+  public void shouldProvideSameContextInSameThread() {
+    assertSame(EncodingContext.current(), EncodingContext.current());
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionExpectedLengthNegative() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("expected length cannot be less than zero.");
+    new EncodingContext(-1);
+  }
+
+  @Test
+  public void shouldThrowNullPointerExceptionMissingEncoder() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("ParamEncoder is missing.");
+    instance.encode(null, new TreeMap<String, Object>());
+  }
+}
@@ -0,0 +1,94 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link FieldEncoder}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class FieldEncoderTest {
+
+  private static final String PARAM = "param1";
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void shouldEncodeIntegerField() throws IOException {
+    FieldEncoder field = FieldEncoder.of(PARAM, RuleEncoder.Builder.builder(INTEGER).width(2)
+        .build());
+    StringBuilder out = new StringBuilder();
+
+    field.encodeTo(-123, true, out);
+    assertEquals("param1=-9", out.toString());
+  }
+
+  @Test
+  public void shouldEncodeStringLeftFieldAfterAnotherField() throws IOException {
+    FieldEncoder field = FieldEncoder.of(PARAM, RuleEncoder.Builder.builder(STRING_LEFT).width(2)
+        .build());
+    StringBuilder out = new StringBuilder();
+
+    field.encodeTo("ABCD", false, out);
+    assertEquals("&param1=CD", out.toString());
+  }
+
+  @Test
+  public void shouldEncodeStringRightArrayField() throws IOException {
+    FieldEncoder field = FieldEncoder.of(PARAM, RuleEncoder.Builder.builder(STRING_RIGHT).width(3)
+        .arrayWidth(10).build());
+    StringBuilder out = new StringBuilder();
+
+    field.encodeTo(new String[]{"ABCD", "EF", "GHI"}, true, out);
+    assertEquals("param1=[ABC,EF]", out.toString());
+  }
+
+  @Test
+  public void shouldEncodeIntegerArrayField() throws IOException {
+    FieldEncoder field = FieldEncoder.of(PARAM, RuleEncoder.Builder.builder(INTEGER).width(2)
+        .arrayWidth(8).build());
+    StringBuilder out = new StringBuilder();
+
+    field.encodeTo(new long[]{100L, -100L, 1L}, true, out);
+    assertEquals("param1=[99,-9]", out.toString());
+  }
+
+  @Test
+  public void shouldNotHaveEncodingForEmptyString() {
+    FieldEncoder field = FieldEncoder.of(PARAM, RuleEncoder.Builder.builder(STRING_RIGHT).width(3)
+        .build());
+
+    assertFalse(field.hasEncoding(""));
+    assertTrue(field.hasEncoding("A"));
+  }
+
+  @Test
+  public void shouldNotHaveEncodingForArrayWithoutFittingElements() {
+    FieldEncoder field = FieldEncoder.of(PARAM, RuleEncoder.Builder.builder(STRING_RIGHT).width(3)
+        .arrayWidth(4).build());
+
+    assertFalse(field.hasEncoding(new String[]{"ABC"}));
+    assertFalse(field.hasEncoding(new String[]{}));
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionEncodingNotSupported() {
+    FieldEncoder field = FieldEncoder.of(PARAM, RuleEncoder.Builder.builder(INTEGER).width(3)
+        .build());
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    field.hasEncoding('d');
+  }
+}
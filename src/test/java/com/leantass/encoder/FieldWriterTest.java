@@ -0,0 +1,66 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link FieldWriter}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class FieldWriterTest {
+
+  private final FieldWriter integer =
+      FieldWriter.of("int2", RuleEncoder.Builder.builder(INTEGER).width(2).build());
+  private final FieldWriter string =
+      FieldWriter.of("right3", RuleEncoder.Builder.builder(STRING_RIGHT).width(3).build());
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void shouldWritePrimitiveIntegers() throws IOException {
+    StringBuilder out = new StringBuilder();
+    assertFalse(integer.encodeTo(123L, true, out));
+    assertFalse(integer.encodeTo(-15L, false, out));
+    assertEquals("int2=99&int2=-9", out.toString());
+  }
+
+  @Test
+  public void shouldWriteObjects() throws IOException {
+    StringBuilder out = new StringBuilder();
+    assertFalse(string.encodeTo("ABCDE", true, out));
+    assertFalse(integer.encodeTo(Integer.valueOf(7), false, out));
+    assertEquals("right3=ABC&int2=7", out.toString());
+  }
+
+  @Test
+  public void shouldSkipNullAndEmptyValues() throws IOException {
+    StringBuilder out = new StringBuilder();
+    assertTrue(string.encodeTo(null, true, out));
+    assertTrue(string.encodeTo("", true, out));
+    assertFalse(string.encodeTo("", false, out));
+    assertEquals("", out.toString());
+  }
+
+  @Test
+  public void shouldNotWritePrimitiveIntegersWithStringStyle() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    string.encodeTo(1L, true, new StringBuilder());
+  }
+
+  @Test
+  public void shouldNotWriteUnsupportedValues() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    string.encodeTo(1.5d, true, new StringBuilder());
+  }
+}
@@ -0,0 +1,277 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.leantass.encoder.RuleEncoder.WidthUnit;
+
+/**
+ * Tests for class {@link GeneratedParamEncoder}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class GeneratedParamEncoderTest {
+
+  private ParamEncoderImpl encoder;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    encoder = new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    encoder.addFieldTruncationRule("right2", STRING_RIGHT, 2);
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addArrayTruncationRule("array1", 10, STRING_RIGHT, 3);
+    encoder.addArrayTruncationRule("ints", 8, INTEGER, 2);
+  }
+
+  @Test
+  public void shouldGenerateEncoder() {
+    assertTrue(encoder.generate() instanceof GeneratedParamEncoder);
+  }
+
+  @Test
+  public void shouldEncodeSameAsInterpretedEncoder() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("array1", new String[]{"ABC", "EF", "IJ"});
+    data.put("int2", 100);
+    data.put("ints", new long[]{1, 200, 3});
+    data.put("left2", "ABC");
+    data.put("right2", "ABC");
+    data.put("ignored", "1234");
+
+    String result = encoder.generate().encode(data);
+    assertEquals("array1=[ABC,EF]&int2=99&ints=[1,99,3]&left2=BC&right2=AB", result);
+    assertEquals(encoder.encode(data), result);
+  }
+
+  @Test
+  public void shouldSkipEmptyFields() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("array1", new String[0]);
+    data.put("left2", "");
+    data.put("right2", "A");
+
+    assertEquals("right2=A", encoder.generate().encode(data));
+  }
+
+  @Test
+  public void shouldEncodeMapWithReverseOrder() {
+    SortedMap<String, Object> data = new TreeMap<>(Collections.<String>reverseOrder());
+    data.put("int2", -100);
+    data.put("left2", "ABC");
+    data.put("ignored", "1234");
+
+    String result = encoder.generate().encode(data);
+    assertEquals("left2=BC&int2=-9", result);
+    assertEquals(encoder.encode(data), result);
+  }
+
+  @Test
+  public void shouldEncodeUnsortedMap() {
+    Map<String, Object> data = new HashMap<>();
+    data.put("right2", "ABC");
+    data.put("ignored", BigInteger.ONE);
+    data.put("int2", 100);
+
+    String result = encoder.generate().encode(data);
+    assertEquals("int2=99&right2=AB", result);
+    assertEquals(encoder.encode(data), result);
+  }
+
+  @Test
+  public void shouldNotWriteUnsortedMapWithUnsupportedFieldWithoutRule() throws IOException {
+    Map<String, Object> data = new HashMap<>();
+    data.put("int2", 100);
+    data.put("ignored", 1.5d);
+
+    StringBuilder out = new StringBuilder();
+    try {
+      encoder.generate().encodeTo(data, out);
+      fail("Unsupported field was encoded.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("", out.toString());
+    }
+  }
+
+  @Test
+  public void shouldEncodeWithUrlSafeAndUnitRules() throws IOException {
+    encoder.addTruncationRule("name", RuleEncoder.Builder.builder(STRING_RIGHT).width(5)
+        .urlSafe(true).priority(3).build());
+    encoder.addTruncationRule("utf8", RuleEncoder.Builder.builder(STRING_LEFT).width(3)
+        .unit(WidthUnit.UTF8_BYTES).build());
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("name", "a b&c");
+    data.put("utf8", "a\u00e9\u00e9");
+
+    StringBuilder out = new StringBuilder();
+    encoder.generate().encodeTo(data, out);
+    assertEquals(encoder.encode(data), out.toString());
+    ByteBuffer bytes = ByteBuffer.allocate(64);
+    encoder.generate().encodeTo(data, bytes);
+    assertEquals(encoder.encode(data),
+        new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shouldShareThePlanOfTheSameRules() throws ReflectiveOperationException {
+    SortedMap<String, RuleEncoder> rules = new TreeMap<>();
+    rules.put("a", RuleEncoder.Builder.builder(INTEGER).width(2).build());
+    SortedMap<String, RuleEncoder> other = new TreeMap<>(rules);
+    other.put("b", RuleEncoder.Builder.builder(INTEGER).width(2).build());
+
+    assertSame(GeneratedPlan.of(rules), GeneratedPlan.of(new TreeMap<>(rules)));
+    assertNotSame(GeneratedPlan.of(rules), GeneratedPlan.of(other));
+  }
+
+  @Test
+  public void shouldDefineEveryPlanWithItsOwnClassLoader() throws ReflectiveOperationException {
+    SortedMap<String, RuleEncoder> rules = new TreeMap<>();
+    rules.put("a", RuleEncoder.Builder.builder(INTEGER).width(3).build());
+    SortedMap<String, RuleEncoder> other = new TreeMap<>();
+    other.put("b", RuleEncoder.Builder.builder(INTEGER).width(3).build());
+
+    ClassLoader loader = GeneratedPlan.of(rules).getClass().getClassLoader();
+    assertTrue(loader instanceof GeneratedPlan.PlanLoader);
+    assertSame(GeneratedPlan.class.getClassLoader(), loader.getParent());
+    assertNotSame(loader, GeneratedPlan.of(other).getClass().getClassLoader());
+  }
+
+  @Test
+  public void shouldNotExtendPlanOutsideGeneratedClasses() {
+    thrown.expect(UnsupportedOperationException.class);
+    thrown.expectMessage("Operation is not supported.");
+    new GeneratedPlan() {
+      @Override
+      protected void encodeFields(Map<String, ?> data, Appendable out) {
+      }
+
+      @Override
+      protected void encodeSorted(SortedMap<String, ?> data, Appendable out, boolean verify) {
+      }
+    };
+  }
+
+  @Test
+  public void shouldNotCreateFieldOutsideGeneratedClasses() {
+    thrown.expect(UnsupportedOperationException.class);
+    thrown.expectMessage("Operation is not supported.");
+    GeneratedPlan.field(GeneratedParamEncoderTest.class, "a", INTEGER.ordinal(), 2, 0,
+        WidthUnit.CHARS.ordinal(), 0, 0);
+  }
+
+  @Test
+  public void shouldGeneratePlanWithoutRules() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("x", "1");
+
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    ParamEncoderImpl empty =
+        new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    assertEquals("", empty.generate().encode(data));
+  }
+
+  @Test
+  public void shouldGeneratePlanWithManyRules() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    for (int i = 0; i < 500; i++) {
+      encoder.addFieldTruncationRule("field" + i, INTEGER, 1 + i % 5);
+      data.put("field" + i, i * 1000);
+    }
+
+    ParamEncoder generated = encoder.generate();
+    assertTrue(generated instanceof GeneratedParamEncoder);
+    assertEquals(encoder.encode(data), generated.encode(data));
+  }
+
+  @Test
+  public void shouldFallBackToCompiledEncoderWhenRulesAreTooMany() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    for (int i = 0; i < 5000; i++) {
+      encoder.addFieldTruncationRule("field" + i, INTEGER, 1 + i % 5);
+      data.put("field" + i, i * 1000);
+    }
+
+    ParamEncoder generated = encoder.generate();
+    assertTrue(generated instanceof CompiledParamEncoder);
+    assertEquals(encoder.encode(data), generated.encode(data));
+  }
+
+  @Test
+  public void shouldNotEncodeUnsupportedFieldWithoutRule() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("int2", 1);
+    data.put("ignored", 1.5d);
+    thrown.expect(IllegalArgumentException.class);
+    encoder.generate().encode(data);
+  }
+
+  @Test
+  public void shouldIgnoreUnsupportedFieldWhenRuleDriven() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("int2", 1);
+    data.put("ignored", 1.5d);
+
+    encoder.setRuleDriven(true);
+    assertEquals("int2=1", encoder.generate().encode(data));
+  }
+
+  @Test
+  public void shouldProbeFewRulesWhenRuleDriven() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    for (int i = 0; i < 200; i++) {
+      data.put("other" + i, 1.5d);
+    }
+    data.put("int2", 100);
+    data.put("left2", "ABC");
+
+    encoder.setRuleDriven(true);
+    assertTrue(CompiledParamEncoder.shouldProbe(data, 5));
+    assertEquals("int2=99&left2=BC", encoder.generate().encode(data));
+  }
+
+  @Test
+  public void shouldNotEncodeNullValueWithRule() {
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("int2", null);
+    thrown.expect(RuntimeException.class);
+    encoder.generate().encode(data);
+  }
+
+  @Test
+  public void shouldNotAddRules() {
+    thrown.expect(UnsupportedOperationException.class);
+    thrown.expectMessage("Operation is not supported.");
+    encoder.generate().addFieldTruncationRule("other", INTEGER, 2);
+  }
+
+  @Test
+  public void shouldNotEncodeMissingMap() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("SortedMap is missing.");
+    encoder.generate().encode((SortedMap<String, Object>) null);
+  }
+}
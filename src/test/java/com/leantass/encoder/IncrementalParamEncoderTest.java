@@ -0,0 +1,116 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link IncrementalParamEncoder}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class IncrementalParamEncoderTest {
+
+  private CompiledParamEncoder compiled;
+  private IncrementalParamEncoder instance;
+  private SortedMap<String, Object> data;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    ParamEncoderImpl encoder =
+        new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    encoder.addArrayTruncationRule("array1", 10, STRING_RIGHT, 3);
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    compiled = encoder.compile();
+    instance = new IncrementalParamEncoder(compiled);
+    data = new TreeMap<>();
+    data.put("array1", new String[]{"ABC", "EF", "IJ"});
+    data.put("int2", 100);
+    data.put("left2", "ABC");
+    data.put("other", "ignored");
+  }
+
+  @Test
+  public void shouldEncodeAllFields() {
+    assertEquals("array1=[ABC,EF]&int2=99&left2=BC", instance.encode(data));
+  }
+
+  @Test
+  public void shouldEncodeOnlyChangedFields() {
+    instance.encode(data);
+    data.put("int2", 7);
+    data.remove("array1");
+
+    String encoded = instance.update(data, ImmutableList.of("int2", "array1"));
+    assertEquals("int2=7&left2=BC", encoded);
+    assertEquals(compiled.encode(data), encoded);
+  }
+
+  @Test
+  public void shouldAddChangedFieldThatHadNoEncoding() {
+    data.put("int2", new int[0]);
+    instance.encode(data);
+    data.put("int2", 5);
+
+    assertEquals("array1=[ABC,EF]&int2=5&left2=BC",
+        instance.update(data, Collections.singleton("int2")));
+  }
+
+  @Test
+  public void shouldReuseEncodingWithoutChanges() {
+    String encoded = instance.encode(data);
+    data.put("left2", "XBC");
+
+    assertSame(encoded, instance.update(data, Collections.singleton("left2")));
+  }
+
+  @Test
+  public void shouldEncodeAllFieldsWithoutPreviousEncoding() {
+    assertEquals(compiled.encode(data), instance.update(data, Collections.<String>emptyList()));
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionChangedFieldNotSupported() {
+    instance.encode(data);
+    data.put("other", new Object());
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    instance.update(data, Collections.singleton("other"));
+  }
+
+  @Test
+  public void shouldKeepPreviousEncodingWhenSecondChangedFieldNotSupported() {
+    instance.encode(data);
+    data.put("int2", 5);
+    data.put("other", new Object());
+    try {
+      instance.update(data, ImmutableList.of("int2", "other"));
+      fail("Unsupported field was encoded.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Encoding is not supported.", e.getMessage());
+    }
+
+    data.put("int2", 100);
+    data.put("other", "ignored");
+    data.put("left2", "XYZ");
+    assertEquals(compiled.encode(data), instance.update(data, Collections.singleton("left2")));
+  }
+}
@@ -0,0 +1,147 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.SortedMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link ParamDecoder}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class ParamDecoderTest {
+
+  private static final SortedMap<String, Object> DATA =
+      ImmutableSortedMap.<String, Object>naturalOrder()
+          .put("array1", new String[]{"ABC", "EF", "IJ"})
+          .put("big", new BigInteger("123456789012345678901"))
+          .put("ids", new int[]{1, -20, 300})
+          .put("int2", 100)
+          .put("left2", "ABC")
+          .put("long", 12345678901L)
+          .build();
+  private ParamEncoderImpl encoder;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    encoder = new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    encoder.addArrayTruncationRule("array1", 10, STRING_RIGHT, 3);
+    encoder.addFieldTruncationRule("big", INTEGER, 25);
+    encoder.addArrayTruncationRule("ids", 12, INTEGER, 3);
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    encoder.addFieldTruncationRule("long", INTEGER, 12);
+  }
+
+  @Test
+  public void shouldDecodeEncodedParameters() {
+    SortedMap<String, Object> decoded = encoder.decoder().decode(encoder.encode(DATA));
+
+    assertEquals(ImmutableList.of("array1", "big", "ids", "int2", "left2", "long"),
+        ImmutableList.copyOf(decoded.keySet()));
+    assertArrayEquals(new String[]{"ABC", "EF"}, (String[]) decoded.get("array1"));
+    assertEquals(new BigInteger("123456789012345678901"), decoded.get("big"));
+    assertArrayEquals(new long[]{1, -20, 300}, (long[]) decoded.get("ids"));
+    assertEquals(99, decoded.get("int2"));
+    assertEquals("BC", decoded.get("left2"));
+    assertEquals(12345678901L, decoded.get("long"));
+  }
+
+  @Test
+  public void shouldDecodeFieldsWithoutRule() {
+    ParamDecoder decoder = new ParamDecoder(ImmutableMap.<String, RuleEncoder>of());
+    SortedMap<String, Object> decoded = decoder.decode("a=12&b=[x,y]&c=");
+
+    assertEquals("12", decoded.get("a"));
+    assertArrayEquals(new String[]{"x", "y"}, (String[]) decoded.get("b"));
+    assertEquals("", decoded.get("c"));
+  }
+
+  @Test
+  public void shouldDecodeUrlSafeParameters() {
+    encoder.setUrlSafe(true);
+    encoder.addFieldTruncationRule("a&b", STRING_RIGHT, 20);
+    encoder.addArrayTruncationRule("array1", 20, STRING_RIGHT, 7);
+    SortedMap<String, Object> data = ImmutableSortedMap.of(
+        "a&b", (Object) "x=1&y z%",
+        "array1", (Object) new String[]{"a,b", "[c]"});
+
+    SortedMap<String, Object> decoded = encoder.decoder().decode(encoder.encode(data));
+    assertEquals("x=1&y z%", decoded.get("a&b"));
+    assertArrayEquals(new String[]{"a,b", "[c]"}, (String[]) decoded.get("array1"));
+  }
+
+  @Test
+  public void shouldDecodeLazily() {
+    String encoded = encoder.encode(DATA);
+    Map<String, Object> view = encoder.decoder().view(encoded);
+
+    assertEquals(6, view.size());
+    assertTrue(view.containsKey("left2"));
+    assertFalse(view.containsKey("missing"));
+    assertNull(view.get("missing"));
+    assertEquals(99, view.get("int2"));
+    assertEquals(encoder.decoder().decode(encoded).keySet(), view.keySet());
+  }
+
+  @Test
+  public void shouldDecodeEmptyEncoding() {
+    assertTrue(encoder.decoder().decode("").isEmpty());
+    assertTrue(encoder.decoder().view("").isEmpty());
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionMissingEqualSign() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is malformed.");
+    encoder.decoder().decode("int2=1&left2");
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionTrailingAmpersand() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is malformed.");
+    encoder.decoder().decode("int2=1&");
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionViewTrailingAmpersand() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is malformed.");
+    encoder.decoder().view("int2=1&");
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionIntegerMalformed() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is malformed.");
+    encoder.decoder().decode("int2=1a");
+  }
+
+  @Test
+  public void shouldThrowNullPointerExceptionMissingEncoding() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("Encoding is missing.");
+    encoder.decoder().decode(null);
+  }
+}
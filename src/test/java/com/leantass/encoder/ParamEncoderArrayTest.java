@@ -1,33 +1,32 @@
 package com.leantass.encoder;
 
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
 import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
 import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 
 import com.google.common.collect.ImmutableMap;
-import com.leantass.encoder.ParamEncoderArray.ElementEntry;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
-import org.junit.runner.RunWith;
-import org.mockito.Mock;
-import org.mockito.runners.MockitoJUnitRunner;
 
 /**
  * Tests for class {@link ParamEncoderArray}.
  *
  * @author jovanimtzrico@gmail.com (Jovani Rico)
  */
-@RunWith(MockitoJUnitRunner.class)
 public class ParamEncoderArrayTest {
 
   private static final String PARAM = "param1";
   private static final String[] ARRAY_THREE = new String[]{"ADBCDE", "GHIJK", "LMN"};
   private static final String[] ARRAY_FOUR = new String[]{"ADBCDE", "GHIJK", "LMN", "JK"};
+  private static final RuleEncoder RULE_INTEGER_TWO = RuleEncoder.Builder.builder(INTEGER)
+      .width(2).arrayWidth(10).build();
   private static final RuleEncoder RULE_LEFT_TWO = RuleEncoder.Builder.builder(STRING_LEFT).width(2)
       .arrayWidth(10).build();
   private static final RuleEncoder RULE_LEFT_FOUR = RuleEncoder.Builder.builder(STRING_LEFT)
@@ -36,25 +35,17 @@ public class ParamEncoderArrayTest {
       .width(2).arrayWidth(10).build();
   private static final RuleEncoder RULE_RIGHT_FOUR = RuleEncoder.Builder.builder(STRING_RIGHT)
       .width(4).arrayWidth(10).build();
-  @Mock
-  private ParamEncoderObject paramEncoderObject;
   private ParamEncoderArray instance;
   @Rule
   public final ExpectedException thrown = ExpectedException.none();
 
   @Before
   public void setUp() {
-    instance = new ParamEncoderArray(paramEncoderObject);
+    instance = new ParamEncoderArray(new ParamEncoderObject());
   }
 
   @Test
   public void shouldEncodeArrayOfThreeElementsWithLenghtOfTenAndhWidthOfTwoStringLeft() {
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[0]), RULE_LEFT_TWO))
-        .thenReturn("DE");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[1]), RULE_LEFT_TWO))
-        .thenReturn("JK");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[2]), RULE_LEFT_TWO))
-        .thenReturn("MN");
     Map<String, Object> map = ImmutableMap.of(PARAM, (Object) ARRAY_THREE);
     Map.Entry<String, Object> entry = map.entrySet().iterator().next();
 
@@ -64,14 +55,6 @@ public class ParamEncoderArrayTest {
 
   @Test
   public void shouldEncodeArrayOfFourElementsWithLenghtOfTenAndhWidthOfTwoStringLeft() {
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_FOUR[0]), RULE_LEFT_TWO))
-        .thenReturn("DE");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_FOUR[1]), RULE_LEFT_TWO))
-        .thenReturn("JK");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_FOUR[2]), RULE_LEFT_TWO))
-        .thenReturn("MN");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_FOUR[3]), RULE_LEFT_TWO))
-        .thenReturn("JK");
     Map<String, Object> map = ImmutableMap.of(PARAM, (Object) ARRAY_FOUR);
     Map.Entry<String, Object> entry = map.entrySet().iterator().next();
 
@@ -81,12 +64,6 @@ public class ParamEncoderArrayTest {
 
   @Test
   public void shouldEncodeArrayOfThreeElementsWithLenghtOfTenAndhWidthOfFourStringLeft() {
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[0]), RULE_LEFT_FOUR))
-        .thenReturn("BCDE");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[1]), RULE_LEFT_FOUR))
-        .thenReturn("HIJK");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[2]), RULE_LEFT_FOUR))
-        .thenReturn("LMN");
     Map<String, Object> map = ImmutableMap.of(PARAM, (Object) ARRAY_THREE);
     Map.Entry<String, Object> entry = map.entrySet().iterator().next();
 
@@ -96,12 +73,6 @@ public class ParamEncoderArrayTest {
 
   @Test
   public void shouldEncodeArrayOfThreeElementsWithLenghtOfTenAndhWidthOfTwoStringRight() {
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[0]), RULE_RIGHT_TWO))
-        .thenReturn("AD");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[1]), RULE_RIGHT_TWO))
-        .thenReturn("GH");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[2]), RULE_RIGHT_TWO))
-        .thenReturn("LM");
     Map<String, Object> map = ImmutableMap.of(PARAM, (Object) ARRAY_THREE);
     Map.Entry<String, Object> entry = map.entrySet().iterator().next();
 
@@ -111,12 +82,6 @@ public class ParamEncoderArrayTest {
 
   @Test
   public void shouldEncodeArrayOfThreeElementsWithLenghtOfTenAndhWidthOfFourStringRight() {
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[0]), RULE_RIGHT_FOUR))
-        .thenReturn("ADBC");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[1]), RULE_RIGHT_FOUR))
-        .thenReturn("GHIJ");
-    when(paramEncoderObject.encode(new ElementEntry(PARAM, ARRAY_THREE[2]), RULE_RIGHT_FOUR))
-        .thenReturn("LMN");
     Map<String, Object> map = ImmutableMap.of(PARAM, (Object) ARRAY_THREE);
     Map.Entry<String, Object> entry = map.entrySet().iterator().next();
 
@@ -124,6 +89,95 @@ public class ParamEncoderArrayTest {
     assertEquals("[ADBC]", encoded);
   }
 
+  @Test
+  public void shouldEncodeArrayOfFourElementsToAppendable() throws IOException {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) ARRAY_FOUR);
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+    StringBuilder out = new StringBuilder();
+
+    instance.encodeTo(entry, RULE_LEFT_TWO, out);
+    assertEquals("[DE,JK,MN]", out.toString());
+  }
+
+  @Test
+  public void shouldNotEncodeToAppendableArrayWithoutFittingElements() throws IOException {
+    RuleEncoder rule = RuleEncoder.Builder.builder(STRING_RIGHT).width(4).arrayWidth(4).build();
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) ARRAY_THREE);
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+    StringBuilder out = new StringBuilder();
+
+    instance.encodeTo(entry, rule, out);
+    assertEquals("", out.toString());
+  }
+
+  @Test
+  public void shouldStopEncodingLongArrayOnceWidthIsExhausted() {
+    String[] array = new String[10000];
+    Arrays.fill(array, "ABCDE");
+    array[array.length - 1] = null;
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) array);
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    String encoded = instance.encode(entry, RULE_RIGHT_TWO);
+    assertEquals("[AB,AB,AB]", encoded);
+  }
+
+  @Test
+  public void shouldSkipLeadingEmptyElements() {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) new String[]{"", "", "ABC", "D"});
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    String encoded = instance.encode(entry, RULE_RIGHT_TWO);
+    assertEquals("[AB,D]", encoded);
+  }
+
+  @Test
+  public void shouldEncodePrimitiveIntArray() {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) new int[]{123, -123, 5, 7});
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    String encoded = instance.encode(entry, RULE_INTEGER_TWO);
+    assertEquals("[99,-9,5]", encoded);
+  }
+
+  @Test
+  public void shouldEncodePrimitiveLongArray() {
+    Map<String, Object> map =
+        ImmutableMap.of(PARAM, (Object) new long[]{Long.MIN_VALUE, 12L, Long.MAX_VALUE});
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    String encoded = instance.encode(entry, RULE_INTEGER_TWO);
+    assertEquals("[-9,12,99]", encoded);
+  }
+
+  @Test
+  public void shouldEncodeBoxedIntegerArray() {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) new Integer[]{12, 3, 45, 6});
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    String encoded = instance.encode(entry, RULE_INTEGER_TWO);
+    assertEquals("[12,3,45]", encoded);
+  }
+
+  @Test
+  public void shouldNotEncodeEmptyPrimitiveIntArray() {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) new int[]{});
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    String encoded = instance.encode(entry, RULE_INTEGER_TWO);
+    assertEquals("", encoded);
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionEncodingPrimitiveArrayAsString() {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) new int[]{12, 3});
+    Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    instance.encode(entry, RULE_RIGHT_TWO);
+  }
+
   @Test
   public void shouldEncodeAnEmptyArray() {
     Map<String, Object> map = ImmutableMap.of(PARAM, (Object) new String[]{});
@@ -2,7 +2,21 @@ package com.leantass.encoder;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.google.common.collect.ImmutableSortedMap;
 import org.junit.Before;
@@ -17,7 +31,7 @@ import org.junit.rules.ExpectedException;
  */
 public class ParamEncoderIntegrationTest {
 
-  private ParamEncoder encoder;
+  private ParamEncoderImpl encoder;
   @Rule
   public final ExpectedException thrown = ExpectedException.none();
 
@@ -117,6 +131,297 @@ public class ParamEncoderIntegrationTest {
     assertEquals("array1=[ABC,EF]&int2=99&int3=100&left2=BC&left3=ABC&right2=AB&right3=ABC", res);
   }
 
+  @Test
+  public void shouldEncodeMixedParametersToAppendable() throws IOException {
+    encoder.addFieldTruncationRule("left2", ParamEncoder.TruncationStyle.STRING_LEFT, 2);
+    encoder.addFieldTruncationRule("right2", ParamEncoder.TruncationStyle.STRING_RIGHT, 2);
+    encoder.addFieldTruncationRule("int2", ParamEncoder.TruncationStyle.INTEGER, 2);
+    encoder.addFieldTruncationRule("empty", ParamEncoder.TruncationStyle.STRING_LEFT, 2);
+    encoder.addArrayTruncationRule("array1", 10, ParamEncoder.TruncationStyle.STRING_RIGHT, 3);
+    encoder.addArrayTruncationRule("array2", 4, ParamEncoder.TruncationStyle.STRING_RIGHT, 3);
+    ImmutableSortedMap.Builder<String, Object> builder = ImmutableSortedMap.naturalOrder();
+    builder.put("array1", (Object) new String[]{"ABC", "EF", "IJ"})
+        .put("array2", (Object) new String[]{"ABC", "EF"})
+        .put("empty", "")
+        .put("int2", -100)
+        .put("left2", "ABC")
+        .put("right2", "ABC")
+        .put("ignored", "1234");
+    StringBuilder out = new StringBuilder();
+    encoder.encodeTo(builder.build(), out);
+
+    assertEquals("array1=[ABC,EF]&int2=-9&left2=BC&right2=AB", out.toString());
+    assertEquals(encoder.encode(builder.build()), out.toString());
+  }
+
+  @Test
+  public void shouldEncodeParametersToCharBuffer() {
+    encoder.addFieldTruncationRule("int3", ParamEncoder.TruncationStyle.INTEGER, 3);
+    encoder.addArrayTruncationRule("array1", 10, ParamEncoder.TruncationStyle.STRING_LEFT, 2);
+    SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of(
+            "array1", (Object) new String[]{"ABC", "EF", "IJ", "KL"},
+            "int3", (Object) 1234);
+    CharBuffer out = CharBuffer.allocate(32);
+    encoder.encodeTo(immutableSortedMap, out);
+    out.flip();
+
+    assertEquals("array1=[BC,EF,IJ]&int3=999", out.toString());
+  }
+
+  @Test
+  public void shouldThrowBufferOverflowExceptionCharBufferTooSmall() {
+    encoder.addFieldTruncationRule("int3", ParamEncoder.TruncationStyle.INTEGER, 3);
+    SortedMap<String, Object> immutableSortedMap = ImmutableSortedMap.of("int3", (Object) 1234);
+
+    thrown.expect(BufferOverflowException.class);
+    encoder.encodeTo(immutableSortedMap, CharBuffer.allocate(4));
+  }
+
+  @Test
+  public void shouldEncodeParametersToByteBuffer() {
+    encoder.addFieldTruncationRule("left3", ParamEncoder.TruncationStyle.STRING_LEFT, 3);
+    encoder.addArrayTruncationRule("array1", 10, ParamEncoder.TruncationStyle.STRING_LEFT, 2);
+    SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of(
+            "array1", (Object) new String[]{"ABC", "EF", "IJ", "KL"},
+            "left3", (Object) "caf\u00e9\u20ac");
+    ByteBuffer out = ByteBuffer.allocate(64);
+    encoder.encodeTo(immutableSortedMap, out);
+
+    assertEquals(encoder.encode(immutableSortedMap),
+        new String(out.array(), 0, out.position(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shouldEncodeParametersWithByteWidths() {
+    encoder.addTruncationRule("left4", RuleEncoder.Builder
+        .builder(ParamEncoder.TruncationStyle.STRING_LEFT).width(4)
+        .unit(RuleEncoder.WidthUnit.UTF8_BYTES).build());
+    encoder.addTruncationRule("array1", RuleEncoder.Builder
+        .builder(ParamEncoder.TruncationStyle.STRING_RIGHT).width(4).arrayWidth(10)
+        .unit(RuleEncoder.WidthUnit.UTF8_BYTES).build());
+    SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of(
+            "array1", (Object) new String[]{"\u00e9\u00e9\u00e9", "ab", "c"},
+            "left4", (Object) "ab\u20ac\u00e9");
+
+    String encoded = encoder.encode(immutableSortedMap);
+    assertEquals("array1=[\u00e9\u00e9,ab]&left4=\u00e9", encoded);
+    assertEquals(encoded, encoder.compile().encode(immutableSortedMap));
+  }
+
+  @Test
+  public void shouldEncodeUrlSafeParameters() throws IOException {
+    encoder.setUrlSafe(true);
+    encoder.addFieldTruncationRule("a&b", ParamEncoder.TruncationStyle.STRING_RIGHT, 7);
+    encoder.addFieldTruncationRule("int2", ParamEncoder.TruncationStyle.INTEGER, 2);
+    encoder.addArrayTruncationRule("array1", 12, ParamEncoder.TruncationStyle.STRING_LEFT, 4);
+    SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of(
+            "a&b", (Object) "x=1&y z",
+            "array1", (Object) new String[]{"a,b", "[c]", "d"},
+            "int2", (Object) (-12));
+    StringBuilder out = new StringBuilder();
+    encoder.encodeTo(immutableSortedMap, out);
+
+    String encoded = encoder.encode(immutableSortedMap);
+    assertEquals("a%26b=x%3D1&array1=[%2Cb,c%5D]&int2=-9", encoded);
+    assertEquals(encoded, out.toString());
+    assertEquals(encoded, encoder.compile().encode(immutableSortedMap));
+  }
+
+  @Test
+  public void shouldEncodeNumericArrays() throws IOException {
+    encoder.addArrayTruncationRule("ids1", 10, ParamEncoder.TruncationStyle.INTEGER, 3);
+    encoder.addArrayTruncationRule("ids2", 10, ParamEncoder.TruncationStyle.INTEGER, 2);
+    encoder.addArrayTruncationRule("ids3", 10, ParamEncoder.TruncationStyle.INTEGER, 2);
+    SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of(
+            "ids1", (Object) new int[]{1, 1000, 10, 20},
+            "ids2", (Object) new long[]{-5L, 50L},
+            "ids3", (Object) new Integer[]{7});
+    StringBuilder out = new StringBuilder();
+    encoder.encodeTo(immutableSortedMap, out);
+
+    assertEquals("ids1=[1,999,10]&ids2=[-5,50]&ids3=[7]", encoder.encode(immutableSortedMap));
+    assertEquals(encoder.encode(immutableSortedMap), out.toString());
+  }
+
+  @Test
+  public void shouldMeasureEncodingWithoutProducingIt() {
+    encoder.addFieldTruncationRule("int1", ParamEncoder.TruncationStyle.INTEGER, 2);
+    encoder.addFieldTruncationRule("text", ParamEncoder.TruncationStyle.STRING_RIGHT, 300);
+    encoder.addTruncationRule("bytes", RuleEncoder.Builder.builder(
+        ParamEncoder.TruncationStyle.STRING_LEFT).width(5)
+        .unit(RuleEncoder.WidthUnit.UTF8_BYTES).build());
+    encoder.addArrayTruncationRule("array1", 10, ParamEncoder.TruncationStyle.STRING_RIGHT, 3);
+    SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of(
+            "array1", (Object) new String[]{"AB", "CDEF", "GHIJ"},
+            "bytes", (Object) "\u00e9t\u00e9\u00e9",
+            "int1", (Object) 123,
+            "text", (Object) "ABC");
+    String encoded = encoder.encode(immutableSortedMap);
+
+    assertEquals(encoded.length(), encoder.encodedLength(immutableSortedMap));
+    assertEquals(encoded.getBytes(StandardCharsets.UTF_8).length,
+        encoder.encodedByteLength(immutableSortedMap));
+    assertEquals(encoded.length(), encoder.compile().encodedLength(immutableSortedMap));
+    assertEquals("array1=".length() + 10 + "&bytes=".length() + 5 + "&int1=".length() + 2
+        + "&text=".length() + 300, encoder.maxLength());
+    encoder.setUrlSafe(true);
+    assertEquals(encoder.encode(immutableSortedMap).length(),
+        encoder.encodedLength(immutableSortedMap));
+  }
+
+  @Test
+  public void shouldEncodeUnsortedParameters() {
+    encoder.addFieldTruncationRule("int1", ParamEncoder.TruncationStyle.INTEGER, 2);
+    encoder.addFieldTruncationRule("left1", ParamEncoder.TruncationStyle.STRING_LEFT, 2);
+    Map<String, Object> data = new HashMap<>();
+    data.put("left1", "ABC");
+    data.put("other", "X");
+    data.put("int1", 123);
+
+    assertEquals("int1=99&left1=BC", encoder.encode(data));
+    encoder.addFieldTruncationRule("b", ParamEncoder.TruncationStyle.STRING_RIGHT, 1);
+    assertEquals("b=Y&int1=99&left1=BC",
+        encoder.encode(new String[]{"left1", "int1", "b"}, new Object[]{"ABC", 123, "YZ"}));
+  }
+
+  @Test
+  public void shouldEncodeUnsortedParametersConcurrently() throws Exception {
+    final Map<String, Object> data = new HashMap<>();
+    for (int i = 0; i < 200; i++) {
+      encoder.addFieldTruncationRule("int" + i, ParamEncoder.TruncationStyle.INTEGER, 3);
+      data.put("int" + i, i);
+    }
+    final String expected = encoder.encode(data);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int round = 0; round < 50; round++) {
+        encoder.addFieldTruncationRule("int0", ParamEncoder.TruncationStyle.INTEGER, 3);
+        final ParamEncoderImpl shared = encoder;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+          results.add(executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws InterruptedException {
+              start.await();
+              return shared.encode(data);
+            }
+          }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+          assertEquals(expected, result.get());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldReportEncodingEvents() throws IOException {
+    encoder.addFieldTruncationRule("int1", ParamEncoder.TruncationStyle.INTEGER, 2);
+    encoder.addFieldTruncationRule("left1", ParamEncoder.TruncationStyle.STRING_LEFT, 2);
+    encoder.addArrayTruncationRule("array1", 10, ParamEncoder.TruncationStyle.STRING_RIGHT, 3);
+    EncoderMetrics metrics = new EncoderMetrics(true);
+    encoder.setEncodingListener(metrics);
+    SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of(
+            "array1", (Object) new String[]{"AB", "CDEF", "GHIJ", "K"},
+            "int1", (Object) 123,
+            "left1", (Object) "ABCD",
+            "other", (Object) "X");
+
+    assertEquals("array1=[AB,CDE]&int1=99&left1=CD", encoder.encode(immutableSortedMap));
+    encoder.encodeTo(immutableSortedMap, new StringBuilder());
+    assertEquals(4, metrics.forField("array1").getDroppedElements());
+    assertEquals(2, metrics.forField("int1").getClampedIntegers());
+    assertEquals(4, metrics.forField("left1").getTruncatedChars());
+    assertEquals(2, metrics.forField("other").getSkippedFields());
+    assertEquals(2, metrics.forStyle(ParamEncoder.TruncationStyle.STRING_LEFT)
+        .getTruncatedStrings());
+    assertEquals(6, metrics.forStyle(ParamEncoder.TruncationStyle.INTEGER).getEncodedFields()
+        + metrics.forStyle(ParamEncoder.TruncationStyle.STRING_LEFT).getEncodedFields()
+        + metrics.forStyle(ParamEncoder.TruncationStyle.STRING_RIGHT).getEncodedFields());
+    assertEquals(2, metrics.forField("int1").getLatency().getCount());
+  }
+
+  @Test
+  public void shouldReportEncodingEventsWithinLengthBudget() {
+    encoder.addFieldTruncationRule("a", ParamEncoder.TruncationStyle.STRING_RIGHT, 10);
+    encoder.addTruncationRule("b", RuleEncoder.Builder.builder(
+        ParamEncoder.TruncationStyle.INTEGER).width(3).priority(5).build());
+    encoder.addTruncationRule("c", RuleEncoder.Builder.builder(
+        ParamEncoder.TruncationStyle.STRING_LEFT).width(10).priority(1).build());
+    EncoderMetrics metrics = new EncoderMetrics();
+    encoder.setEncodingListener(metrics);
+    SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of(
+            "a", (Object) "ABCDEFGHIJ",
+            "b", (Object) 123,
+            "c", (Object) "KLMNOPQRST",
+            "other", (Object) "X");
+
+    assertEquals("b=123&c=ST", encoder.encode(immutableSortedMap, 10));
+    assertEquals(1, metrics.forField("a").getDroppedFields());
+    assertEquals(0, metrics.forField("a").getEncodedFields());
+    assertEquals(1, metrics.forField("b").getEncodedFields());
+    assertEquals(8, metrics.forField("c").getTruncatedChars());
+    assertEquals(1, metrics.forField("other").getSkippedFields());
+  }
+
+  @Test
+  public void shouldReportEncodingEventsWhileMeasuring() throws Exception {
+    encoder.addFieldTruncationRule("int1", ParamEncoder.TruncationStyle.INTEGER, 2);
+    EncoderMetrics metrics = new EncoderMetrics();
+    encoder.setEncodingListener(metrics);
+    final SortedMap<String, Object> immutableSortedMap =
+        ImmutableSortedMap.of("int1", (Object) 123);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<Void>> measures = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        measures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int j = 0; j < 10000; j++) {
+              encoder.encodedLength(immutableSortedMap);
+            }
+            return null;
+          }
+        }));
+      }
+      for (int i = 0; i < 10000; i++) {
+        encoder.encode(immutableSortedMap);
+      }
+      for (Future<Void> measure : measures) {
+        measure.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(10000, metrics.forField("int1").getClampedIntegers());
+    encoder.encode(immutableSortedMap);
+    assertEquals(10001, metrics.forField("int1").getClampedIntegers());
+  }
+
+  @Test
+  public void shouldNotReportWithoutListener() {
+    encoder.addFieldTruncationRule("int1", ParamEncoder.TruncationStyle.INTEGER, 2);
+    EncoderMetrics metrics = new EncoderMetrics();
+    encoder.setEncodingListener(metrics);
+    encoder.setEncodingListener(null);
+
+    assertEquals("int1=99", encoder.encode(ImmutableSortedMap.of("int1", (Object) 123)));
+    assertEquals(0, metrics.getFields().size());
+  }
+
   @Test
   public void shouldThrowIllegalArgumentExceptionCannotEncodeObjects() {
     encoder.addFieldTruncationRule("param1", ParamEncoder.TruncationStyle.STRING_LEFT, 3);
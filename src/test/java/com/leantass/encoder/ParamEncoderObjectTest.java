@@ -5,6 +5,8 @@ import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
 import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.math.BigInteger;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -91,6 +93,159 @@ public class ParamEncoderObjectTest {
     assertEquals("-9", encoded);
   }
 
+  @Test
+  public void shouldEncodePrimitiveIntegerIntoBuffer() {
+    char[] buffer = new char[4];
+
+    int end = instance.encodeInteger(123, RULE_INTEGER, buffer, 1);
+    assertEquals(3, end);
+    assertEquals("99", new String(buffer, 1, end - 1));
+  }
+
+  @Test
+  public void shouldEncodeNegativePrimitiveIntegerIntoBuffer() {
+    char[] buffer = new char[2];
+
+    int end = instance.encodeInteger(-123, RULE_INTEGER, buffer, 0);
+    assertEquals("-9", new String(buffer, 0, end));
+  }
+
+  @Test
+  public void shouldEncodePrimitiveZeroIntoBuffer() {
+    char[] buffer = new char[2];
+
+    int end = instance.encodeInteger(0, RULE_INTEGER, buffer, 0);
+    assertEquals("0", new String(buffer, 0, end));
+  }
+
+  @Test
+  public void shouldEncodeSmallestPrimitiveIntegerWithoutBound() {
+    RuleEncoder rule = RuleEncoder.Builder.builder(INTEGER).width(11).build();
+    char[] buffer = new char[11];
+
+    int end = instance.encodeInteger(Integer.MIN_VALUE, rule, buffer, 0);
+    assertEquals(String.valueOf(Integer.MIN_VALUE), new String(buffer, 0, end));
+  }
+
+  @Test
+  public void shouldEncodeLargestPrimitiveIntegerWithoutBound() {
+    RuleEncoder rule = RuleEncoder.Builder.builder(INTEGER).width(10).build();
+    char[] buffer = new char[10];
+
+    int end = instance.encodeInteger(Integer.MAX_VALUE, rule, buffer, 0);
+    assertEquals(String.valueOf(Integer.MAX_VALUE), new String(buffer, 0, end));
+  }
+
+  @Test
+  public void shouldClampSmallestPrimitiveIntegerWithBound() {
+    RuleEncoder rule = RuleEncoder.Builder.builder(INTEGER).width(10).build();
+    char[] buffer = new char[10];
+
+    int end = instance.encodeInteger(Integer.MIN_VALUE, rule, buffer, 0);
+    assertEquals("-999999999", new String(buffer, 0, end));
+  }
+
+  @Test
+  public void shouldEncodeLongWithWidthOfNineteen() {
+    RuleEncoder rule = RuleEncoder.Builder.builder(INTEGER).width(19).build();
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) Long.MAX_VALUE);
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    String encoded = instance.encode(entry, rule);
+    assertEquals(String.valueOf(Long.MAX_VALUE), encoded);
+  }
+
+  @Test
+  public void shouldEncodeLongBeyondWidthOfEighteen() {
+    RuleEncoder rule = RuleEncoder.Builder.builder(INTEGER).width(18).build();
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) 9007199254740993L);
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    assertEquals("9007199254740993", instance.encode(entry, rule));
+    map = ImmutableMap.of(PARAM, (Object) Long.MAX_VALUE);
+    entry = map.entrySet().iterator().next();
+    assertEquals("999999999999999999", instance.encode(entry, rule));
+  }
+
+  @Test
+  public void shouldEncodeSmallestLongWithWidthOfNineteen() {
+    RuleEncoder rule = RuleEncoder.Builder.builder(INTEGER).width(19).build();
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) Long.MIN_VALUE);
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    assertEquals("-999999999999999999", instance.encode(entry, rule));
+  }
+
+  @Test
+  public void shouldEncodePrimitiveLongIntoBuffer() {
+    RuleEncoder rule = RuleEncoder.Builder.builder(INTEGER).width(20).build();
+    char[] buffer = new char[20];
+
+    int end = instance.encodeLong(Long.MIN_VALUE, rule, buffer, 0);
+    assertEquals(String.valueOf(Long.MIN_VALUE), new String(buffer, 0, end));
+  }
+
+  @Test
+  public void shouldEncodeBigIntegerWithinLong() {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) BigInteger.valueOf(-123));
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    assertEquals("-9", instance.encode(entry, RULE_INTEGER));
+  }
+
+  @Test
+  public void shouldEncodeBigIntegerBeyondLong() {
+    RuleEncoder rule = RuleEncoder.Builder.builder(INTEGER).width(25).build();
+    BigInteger value = BigInteger.TEN.pow(22);
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) value);
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+
+    assertEquals(value.toString(), instance.encode(entry, rule));
+    map = ImmutableMap.of(PARAM, (Object) value.negate().pow(3));
+    entry = map.entrySet().iterator().next();
+    assertEquals("-999999999999999999999999", instance.encode(entry, rule));
+  }
+
+  @Test
+  public void shouldEncodeIntegerToAppendable() throws IOException {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) (-123));
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+    StringBuilder out = new StringBuilder("x=");
+
+    instance.encodeTo(entry, RULE_INTEGER, out);
+    assertEquals("x=-9", out.toString());
+  }
+
+  @Test
+  public void shouldEncodeStringLeftToAppendable() throws IOException {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) "ABCD");
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+    StringBuilder out = new StringBuilder();
+
+    instance.encodeTo(entry, RULE_LEFT, out);
+    assertEquals("CD", out.toString());
+  }
+
+  @Test
+  public void shouldEncodeStringRightToAppendable() throws IOException {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) "ABCD");
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+    StringBuilder out = new StringBuilder();
+
+    instance.encodeTo(entry, RULE_RIGHT, out);
+    assertEquals("AB", out.toString());
+  }
+
+  @Test
+  public void shouldNotEncodeToAppendableMissingRule() throws IOException {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) "ABCD");
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+    StringBuilder out = new StringBuilder();
+
+    instance.encodeTo(entry, null, out);
+    assertEquals("", out.toString());
+  }
+
   @Test
   public void shouldEncodeStringLeftWithWidthOfTwoLenghtOfOne() {
     Map<String, Object> map = ImmutableMap.of(PARAM, (Object) "A");
@@ -127,6 +282,28 @@ public class ParamEncoderObjectTest {
     assertEquals("CD", encoded);
   }
 
+  @Test
+  public void shouldEncodeStringLeftWithoutSplittingSurrogatePair() throws IOException {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) "A\ud83d\ude00B");
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+    StringBuilder out = new StringBuilder();
+
+    instance.encodeTo(entry, RULE_LEFT, out);
+    assertEquals("B", instance.encode(entry, RULE_LEFT));
+    assertEquals("B", out.toString());
+  }
+
+  @Test
+  public void shouldEncodeStringRightWithoutSplittingSurrogatePair() throws IOException {
+    Map<String, Object> map = ImmutableMap.of(PARAM, (Object) "A\ud83d\ude00B");
+    Entry<String, Object> entry = map.entrySet().iterator().next();
+    StringBuilder out = new StringBuilder();
+
+    instance.encodeTo(entry, RULE_RIGHT, out);
+    assertEquals("A", instance.encode(entry, RULE_RIGHT));
+    assertEquals("A", out.toString());
+  }
+
   @Test
   public void shouldEncodeStringRightWithWidthOfTwoLenghtOfOne() {
     Map<String, Object> map = ImmutableMap.of(PARAM, (Object) "A");
@@ -0,0 +1,124 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
+import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
+import static org.junit.Assert.assertEquals;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link ParamSchema}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class ParamSchemaTest {
+
+  private CompiledParamEncoder compiled;
+  private ParamSchema instance;
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    ParamEncoderObject paramEncoderObject = new ParamEncoderObject();
+    ParamEncoderImpl encoder =
+        new ParamEncoderImpl(paramEncoderObject, new ParamEncoderArray(paramEncoderObject));
+    encoder.addArrayTruncationRule("array1", 10, STRING_RIGHT, 3);
+    encoder.addArrayTruncationRule("ints", 8, INTEGER, 2);
+    encoder.addFieldTruncationRule("int2", INTEGER, 2);
+    encoder.addFieldTruncationRule("left2", STRING_LEFT, 2);
+    compiled = encoder.compile();
+    instance = compiled.schema();
+  }
+
+  @Test
+  public void shouldIndexFieldsInNaturalOrder() {
+    assertEquals(4, instance.size());
+    assertEquals(0, instance.indexOf("array1"));
+    assertEquals(1, instance.indexOf("int2"));
+    assertEquals("ints", instance.getName(2));
+    assertEquals(3, instance.indexOf("left2"));
+  }
+
+  @Test
+  public void shouldEncodeSameAsCompiledEncoder() {
+    ParamSchema.Record record = instance.newRecord()
+        .setStringArray(instance.indexOf("array1"), new String[]{"ABC", "EF", "IJ"})
+        .setInt(instance.indexOf("int2"), 100)
+        .setIntArray(instance.indexOf("ints"), new int[]{1, 200, 3})
+        .setString(instance.indexOf("left2"), "ABC");
+    SortedMap<String, Object> data = new TreeMap<>();
+    data.put("array1", new String[]{"ABC", "EF", "IJ"});
+    data.put("int2", 100);
+    data.put("ints", new int[]{1, 200, 3});
+    data.put("left2", "ABC");
+
+    String result = instance.encode(record);
+    assertEquals("array1=[ABC,EF]&int2=99&ints=[1,99,3]&left2=BC", result);
+    assertEquals(compiled.encode(data), result);
+  }
+
+  @Test
+  public void shouldSkipFieldsNotSet() {
+    ParamSchema.Record record = instance.newRecord().setLong(1, -100L).setString(3, "");
+
+    assertEquals("int2=-9", instance.encode(record));
+  }
+
+  @Test
+  public void shouldReuseClearedRecord() {
+    ParamSchema.Record record = instance.newRecord().setInt(1, 5).setString(3, "AB");
+    assertEquals("int2=5&left2=AB", instance.encode(record));
+
+    assertEquals("", instance.encode(record.clear()));
+    assertEquals("left2=CD", instance.encode(record.setString(3, "CD").clear(1)));
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionIntegerOnStringField() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    instance.newRecord().setInt(instance.indexOf("left2"), 1);
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionIntArrayOnStringField() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    instance.newRecord().setIntArray(instance.indexOf("array1"), new int[]{1});
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionLongArrayOnStringField() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Encoding is not supported.");
+    instance.newRecord().setLongArray(instance.indexOf("left2"), new long[]{1L});
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionFieldNotDefined() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Field is not defined.");
+    instance.indexOf("other");
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionRecordOfAnotherSchema() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Record belongs to another schema.");
+    instance.encode(compiled.schema().newRecord());
+  }
+
+  @Test
+  public void shouldThrowIndexOutOfBoundsExceptionFieldIndexMissing() {
+    thrown.expect(IndexOutOfBoundsException.class);
+    instance.newRecord().setString(4, "A");
+  }
+}
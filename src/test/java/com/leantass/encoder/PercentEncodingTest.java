@@ -0,0 +1,50 @@
+package com.leantass.encoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests for class {@link PercentEncoding}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class PercentEncodingTest {
+
+  @Test
+  public void shouldKeepUnreservedCharacters() {
+    String value = "Az09-._~";
+
+    assertSame(value, PercentEncoding.escape(value));
+    assertTrue(PercentEncoding.isUnreserved('~'));
+    assertFalse(PercentEncoding.isUnreserved('&'));
+  }
+
+  @Test
+  public void shouldEscapeReservedCharacters() {
+    assertEquals("a%26b%3Dc%2C%5B%5D%20%2B%25", PercentEncoding.escape("a&b=c,[] +%"));
+  }
+
+  @Test
+  public void shouldEscapeUtf8Bytes() {
+    assertEquals("%C3%A9%E2%82%AC%F0%9F%98%80", PercentEncoding.escape("\u00e9\u20ac\ud83d\ude00"));
+  }
+
+  @Test
+  public void shouldEscapeUnpairedSurrogateAsReplacement() {
+    assertEquals("a%3Fb%3F", PercentEncoding.escape("a\ud83db\ude00"));
+  }
+
+  @Test
+  public void shouldEscapeRange() throws IOException {
+    StringBuilder out = new StringBuilder();
+    PercentEncoding.append("x=a b&", 2, 5, out);
+
+    assertEquals("a%20b", out.toString());
+  }
+}
@@ -4,9 +4,14 @@ import static com.leantass.encoder.ParamEncoder.TruncationStyle.INTEGER;
 import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_LEFT;
 import static com.leantass.encoder.ParamEncoder.TruncationStyle.STRING_RIGHT;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import com.leantass.encoder.RuleEncoder.Builder;
+import com.leantass.encoder.RuleEncoder.WidthUnit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -31,6 +36,73 @@ public class RuleEncoderTest {
     assertEquals(INTEGER, rule.getStyle());
     assertEquals(2, rule.getWidth());
     assertEquals(0, rule.getArrayWidth());
+    assertEquals(WidthUnit.CHARS, rule.getUnit());
+  }
+
+  @Test
+  public void shouldCreateNewRuleWithUnit() {
+    rule = Builder.builder(STRING_LEFT).width(4).unit(WidthUnit.UTF8_BYTES).build();
+
+    assertEquals(WidthUnit.UTF8_BYTES, rule.getUnit());
+    assertNotEquals(Builder.builder(STRING_LEFT).width(4).build(), rule);
+  }
+
+  @Test
+  public void shouldCreateNewRuleWithPriority() {
+    rule = Builder.builder(INTEGER).width(4).priority(3).build();
+
+    assertEquals(3, rule.getPriority());
+    assertEquals(0, Builder.builder(INTEGER).width(4).build().getPriority());
+    assertNotEquals(Builder.builder(INTEGER).width(4).build(), rule);
+    assertEquals(3, rule.toUrlSafe().getPriority());
+  }
+
+  @Test
+  public void shouldCreateUrlSafeRuleMeasuredOnEscapedValues() {
+    rule = Builder.builder(STRING_LEFT).width(4).arrayWidth(10).build();
+    RuleEncoder urlSafe = rule.toUrlSafe();
+
+    assertFalse(rule.isUrlSafe());
+    assertTrue(urlSafe.isUrlSafe());
+    assertEquals(WidthUnit.PERCENT_ENCODED_BYTES, urlSafe.getUnit());
+    assertEquals(10, urlSafe.getArrayWidth());
+    assertSame(urlSafe, urlSafe.toUrlSafe());
+    assertEquals(Builder.builder(STRING_LEFT).width(4).arrayWidth(10).urlSafe(true).build(),
+        urlSafe);
+  }
+
+  @Test
+  public void shouldCreateUrlSafeRuleOnlyOnce() {
+    rule = Builder.builder(STRING_LEFT).width(4).build();
+
+    assertSame(rule.toUrlSafe(), rule.toUrlSafe());
+  }
+
+  @Test
+  public void shouldCreateUrlSafeRuleWithPercentEncodedUnit() {
+    rule = Builder.builder(STRING_LEFT).width(4).unit(WidthUnit.PERCENT_ENCODED_BYTES)
+        .urlSafe(true).build();
+
+    assertEquals(Builder.builder(STRING_LEFT).width(4).urlSafe(true).build(), rule);
+  }
+
+  @Test
+  public void shouldNotCreateUrlSafeRuleWithOtherUnit() {
+    Builder builder = Builder.builder(STRING_LEFT).width(4).unit(WidthUnit.UTF8_BYTES)
+        .urlSafe(true);
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("URL-safe rule is measured in percent-encoded bytes.");
+    builder.build();
+  }
+
+  @Test
+  public void shouldNotCreateNewRuleWithMissingUnit() {
+    Builder builder = Builder.builder(STRING_LEFT);
+
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("WidthUnit is missing.");
+    builder.unit(null);
   }
 
   @Test
@@ -60,4 +132,20 @@ public class RuleEncoderTest {
     thrown.expectMessage("array width cannot be less than zero.");
     builder.arrayWidth(-10);
   }
+
+  @Test
+  public void shouldPrecomputeIntegerBounds() {
+    rule = Builder.builder(INTEGER).width(3).build();
+
+    assertEquals(999, rule.getIntegerUpperBound());
+    assertEquals(-99, rule.getIntegerLowerBound());
+  }
+
+  @Test
+  public void shouldNotBoundIntegersWiderThanTheirDigits() {
+    rule = Builder.builder(INTEGER).width(11).build();
+
+    assertEquals(Integer.MAX_VALUE, rule.getIntegerUpperBound());
+    assertEquals(Integer.MIN_VALUE, rule.getIntegerLowerBound());
+  }
 }
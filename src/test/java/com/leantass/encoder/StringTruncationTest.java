@@ -0,0 +1,98 @@
+package com.leantass.encoder;
+
+import static com.leantass.encoder.RuleEncoder.WidthUnit.CHARS;
+import static com.leantass.encoder.RuleEncoder.WidthUnit.PERCENT_ENCODED_BYTES;
+import static com.leantass.encoder.RuleEncoder.WidthUnit.UTF8_BYTES;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for class {@link StringTruncation}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class StringTruncationTest {
+
+  private static final String SMILE = "\ud83d\ude00";
+  private static final String MIXED = "a\u00e9\u20ac" + SMILE;
+
+  @Test
+  public void shouldKeepWholeValueWithinWidth() {
+    assertEquals(0, StringTruncation.leftStart("AB", 2, CHARS));
+    assertEquals(2, StringTruncation.rightEnd("AB", 2, CHARS));
+  }
+
+  @Test
+  public void shouldTruncateByCharacters() {
+    assertEquals(2, StringTruncation.leftStart("ABCD", 2, CHARS));
+    assertEquals(2, StringTruncation.rightEnd("ABCD", 2, CHARS));
+    assertEquals(2, StringTruncation.width("ABCD", 2, 4, CHARS));
+  }
+
+  @Test
+  public void shouldKeepNothingWithNonPositiveWidth() {
+    assertEquals(4, StringTruncation.leftStart("ABCD", 0, CHARS));
+    assertEquals(0, StringTruncation.rightEnd("ABCD", -1, CHARS));
+    assertEquals(4, StringTruncation.leftStart("ABCD", 0, UTF8_BYTES));
+  }
+
+  @Test
+  public void shouldNotSplitSurrogatePairByCharacters() {
+    String value = "A" + SMILE + "B";
+
+    assertEquals(3, StringTruncation.leftStart(value, 2, CHARS));
+    assertEquals(1, StringTruncation.leftStart(value, 3, CHARS));
+    assertEquals(1, StringTruncation.rightEnd(value, 2, CHARS));
+    assertEquals(3, StringTruncation.rightEnd(value, 3, CHARS));
+  }
+
+  @Test
+  public void shouldTruncateByUtf8Bytes() {
+    assertEquals(1, StringTruncation.rightEnd(MIXED, 2, UTF8_BYTES));
+    assertEquals(2, StringTruncation.rightEnd(MIXED, 3, UTF8_BYTES));
+    assertEquals(3, StringTruncation.rightEnd(MIXED, 8, UTF8_BYTES));
+    assertEquals(5, StringTruncation.rightEnd(MIXED, 10, UTF8_BYTES));
+    assertEquals(5, StringTruncation.leftStart(MIXED, 3, UTF8_BYTES));
+    assertEquals(3, StringTruncation.leftStart(MIXED, 4, UTF8_BYTES));
+    assertEquals(2, StringTruncation.leftStart(MIXED, 7, UTF8_BYTES));
+    assertEquals(0, StringTruncation.leftStart(MIXED, 10, UTF8_BYTES));
+    assertEquals(10, StringTruncation.width(MIXED, 0, MIXED.length(), UTF8_BYTES));
+  }
+
+  @Test
+  public void shouldTruncateByPercentEncodedBytes() {
+    String value = "a-b c\u00e9";
+
+    assertEquals(3, StringTruncation.rightEnd(value, 5, PERCENT_ENCODED_BYTES));
+    assertEquals(4, StringTruncation.rightEnd(value, 6, PERCENT_ENCODED_BYTES));
+    assertEquals(5, StringTruncation.leftStart(value, 6, PERCENT_ENCODED_BYTES));
+    assertEquals(4, StringTruncation.leftStart(value, 7, PERCENT_ENCODED_BYTES));
+    assertEquals(13, StringTruncation.width(value, 0, value.length(), PERCENT_ENCODED_BYTES));
+  }
+
+  @Test
+  public void shouldProvideWidthOfKeptRange() {
+    for (int width = 0; width <= 12; width++) {
+      for (RuleEncoder.WidthUnit unit : RuleEncoder.WidthUnit.values()) {
+        int start = StringTruncation.leftStart(MIXED, width, unit);
+        int end = StringTruncation.rightEnd(MIXED, width, unit);
+        assertEquals(StringTruncation.width(MIXED, start, MIXED.length(), unit),
+            StringTruncation.leftWidth(MIXED, width, unit));
+        assertEquals(StringTruncation.width(MIXED, 0, end, unit),
+            StringTruncation.rightWidth(MIXED, width, unit));
+      }
+    }
+    assertEquals(7, StringTruncation.leftWidth(MIXED, 7, UTF8_BYTES));
+    assertEquals(6, StringTruncation.rightWidth(MIXED, 8, UTF8_BYTES));
+  }
+
+  @Test
+  public void shouldCountUnpairedSurrogateAsReplacement() {
+    assertEquals(1, StringTruncation.rightEnd("\ud83dA", 1, UTF8_BYTES));
+    assertEquals(1, StringTruncation.width(SMILE, 0, 1, UTF8_BYTES));
+    assertEquals(3, StringTruncation.units('\ude00', PERCENT_ENCODED_BYTES));
+    assertEquals(4, StringTruncation.units(SMILE.codePointAt(0), UTF8_BYTES));
+    assertEquals(2, StringTruncation.units(SMILE.codePointAt(0), CHARS));
+  }
+}
@@ -0,0 +1,114 @@
+package com.leantass.encoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for class {@link Utf8Appendable}.
+ *
+ * @author jovanimtzrico@gmail.com (Jovani Rico)
+ */
+public class Utf8AppendableTest {
+
+  private static final String TEXT = "x=[a\u00e9,\u20ac\ud83d\ude00]&y=7";
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void shouldWriteUtf8IntoHeapBuffer() {
+    ByteBuffer buffer = ByteBuffer.allocate(32);
+    new Utf8Appendable(buffer).append(TEXT);
+
+    assertArrayEquals(TEXT.getBytes(StandardCharsets.UTF_8), written(buffer));
+  }
+
+  @Test
+  public void shouldWriteUtf8IntoDirectBuffer() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(32);
+    new Utf8Appendable(buffer).append(TEXT);
+
+    assertArrayEquals(TEXT.getBytes(StandardCharsets.UTF_8), written(buffer));
+  }
+
+  @Test
+  public void shouldWriteIntoSliceOfPooledArray() {
+    byte[] pooled = new byte[8];
+    ByteBuffer buffer = ByteBuffer.wrap(pooled, 2, 6).slice();
+    new Utf8Appendable(buffer).append("x=12", 1, 4).append('&');
+
+    assertEquals("=12&", new String(pooled, 2, 4, StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  public void shouldReplaceUnpairedSurrogate() {
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    new Utf8Appendable(buffer).append("\ud83dx", 0, 2).append('\ude00').append('\ud83d')
+        .append("y").flush();
+
+    assertEquals("?x??y", new String(written(buffer), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shouldWriteSurrogatePairAppendedOneCharAtATime() {
+    ByteBuffer buffer = ByteBuffer.allocate(32);
+    Utf8Appendable appendable = new Utf8Appendable(buffer);
+    for (char c : TEXT.toCharArray()) {
+      appendable.append(c);
+    }
+    appendable.flush();
+
+    assertArrayEquals(TEXT.getBytes(StandardCharsets.UTF_8), written(buffer));
+  }
+
+  @Test
+  public void shouldWriteSurrogatePairSplitAcrossAppends() {
+    ByteBuffer buffer = ByteBuffer.allocate(32);
+    new Utf8Appendable(buffer).append(TEXT, 0, 8).append(TEXT, 8, TEXT.length()).flush();
+
+    assertArrayEquals(TEXT.getBytes(StandardCharsets.UTF_8), written(buffer));
+  }
+
+  @Test
+  public void shouldReplaceHighSurrogateWhenFlushed() {
+    ByteBuffer buffer = ByteBuffer.allocate(4);
+    Utf8Appendable appendable = new Utf8Appendable(buffer).append("x\ud83d");
+
+    assertEquals(1, buffer.position());
+    appendable.flush().flush();
+    assertEquals("x?", new String(written(buffer), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shouldThrowBufferOverflowExceptionBufferTooSmall() {
+    thrown.expect(BufferOverflowException.class);
+    new Utf8Appendable(ByteBuffer.allocate(3)).append("x=12");
+  }
+
+  @Test
+  public void shouldThrowBufferOverflowExceptionNoRoomForMultiByteCharacter() {
+    thrown.expect(BufferOverflowException.class);
+    new Utf8Appendable(ByteBuffer.allocate(3)).append("x=\u00e9");
+  }
+
+  @Test
+  public void shouldThrowNullPointerExceptionMissingByteBuffer() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("ByteBuffer is missing.");
+    new Utf8Appendable(null);
+  }
+
+  private static byte[] written(ByteBuffer buffer) {
+    buffer.flip();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+}